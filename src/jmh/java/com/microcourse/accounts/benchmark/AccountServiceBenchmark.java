@@ -0,0 +1,98 @@
+package com.microcourse.accounts.benchmark;
+
+import com.microcourse.accounts.AccountsApplication;
+import com.microcourse.accounts.dto.CustomerDto;
+import com.microcourse.accounts.service.IAccountsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Full AccountServiceImpl paths against the in-memory H2 database, with the fetchAccount cache
+ * disabled so every call reaches the repositories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountServiceBenchmark {
+
+    private static final int CUSTOMERS = 1000;
+    private static final long FIRST_MOBILE_NUMBER = 7000000000L;
+
+    private ConfigurableApplicationContext context;
+    private IAccountsService accountsService;
+    private List<CustomerDto> customers;
+    private final AtomicLong nextMobileNumber = new AtomicLong(8000000000L);
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(AccountsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.cache.type=none",
+                        "--logging.level.root=warn");
+        accountsService = context.getBean(IAccountsService.class);
+
+        List<CustomerDto> newCustomers = new ArrayList<>(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            newCustomers.add(customerDto(FIRST_MOBILE_NUMBER + i));
+        }
+        accountsService.createAccounts(newCustomers.iterator(), result -> { });
+        customers = new ArrayList<>(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(accountsService.fetchAccount(String.valueOf(FIRST_MOBILE_NUMBER + i)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CustomerDto fetchAccount() {
+        return accountsService.fetchAccount(randomCustomer().getMobileNumber());
+    }
+
+    @Benchmark
+    public boolean updateAccount() {
+        CustomerDto customerDto = randomCustomer();
+        CustomerDto update = new CustomerDto();
+        update.setName(customerDto.getName().endsWith("!") ? "Benchmark Customer" : "Benchmark Customer!");
+        update.setEmail(customerDto.getEmail());
+        update.setMobileNumber(customerDto.getMobileNumber());
+        update.setAccountsDto(customerDto.getAccountsDto());
+        customerDto.setName(update.getName());
+        return accountsService.updateAccount(update, null);
+    }
+
+    @Benchmark
+    public boolean createAndDeleteAccount() {
+        CustomerDto customerDto = customerDto(nextMobileNumber.getAndIncrement());
+        accountsService.createAccount(customerDto);
+        return accountsService.deleteAccount(customerDto.getMobileNumber());
+    }
+
+    private CustomerDto randomCustomer() {
+        return customers.get(ThreadLocalRandom.current().nextInt(CUSTOMERS));
+    }
+
+    private static CustomerDto customerDto(long mobileNumber) {
+        CustomerDto customerDto = new CustomerDto();
+        customerDto.setName("Benchmark Customer");
+        customerDto.setEmail("customer" + mobileNumber + "@example.com");
+        customerDto.setMobileNumber(String.valueOf(mobileNumber));
+        return customerDto;
+    }
+}
@@ -0,0 +1,47 @@
+package com.microcourse.accounts.benchmark;
+
+import com.microcourse.accounts.dto.AccountsDto;
+import com.microcourse.accounts.dto.CustomerDto;
+import com.microcourse.accounts.entity.Accounts;
+import com.microcourse.accounts.entity.Customer;
+
+/**
+ * Sample payloads shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+        // restrict instantiation
+    }
+
+    static Customer customer() {
+        Customer customer = new Customer();
+        customer.setCustomerId(42L);
+        customer.setName("John Doe");
+        customer.setEmail("john.doe@example.com");
+        customer.setMobileNumber("9876543210");
+        return customer;
+    }
+
+    static Accounts accounts() {
+        Accounts accounts = new Accounts();
+        accounts.setCustomerId(42L);
+        accounts.setAccountNumber(1000004242L);
+        accounts.setAccountType("Savings");
+        accounts.setBranchAddress("123 Main Street, New York");
+        return accounts;
+    }
+
+    static CustomerDto customerDto() {
+        AccountsDto accountsDto = new AccountsDto();
+        accountsDto.setAccountNumber(1000004242L);
+        accountsDto.setAccountType("Savings");
+        accountsDto.setBranchAddress("123 Main Street, New York");
+        CustomerDto customerDto = new CustomerDto();
+        customerDto.setName("John Doe");
+        customerDto.setEmail("john.doe@example.com");
+        customerDto.setMobileNumber("9876543210");
+        customerDto.setAccountsDto(accountsDto);
+        return customerDto;
+    }
+}
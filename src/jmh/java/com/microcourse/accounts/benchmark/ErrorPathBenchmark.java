@@ -0,0 +1,67 @@
+package com.microcourse.accounts.benchmark;
+
+import com.microcourse.accounts.AccountsApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Error responses through the whole MVC stack (dispatcher, GlobalExceptionHandler, Jackson): an unknown
+ * mobile number (404), an invalid mobile number query parameter and an invalid create payload (400).
+ * Run with -prof gc to compare the allocation per request. Three forks of ten iterations: with fewer, the JIT and
+ * GC noise of a small machine made the 404 error bar as wide as the difference being measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+public class ErrorPathBenchmark {
+
+    private static final String INVALID_PAYLOAD = "{\"name\":\"x\",\"email\":\"not-an-email\",\"mobileNumber\":\"123\"}";
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(AccountsApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:errors",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=warn");
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse fetchUnknownCustomer() throws Exception {
+        return mockMvc.perform(get("/api/fetch").param("mobileNumber", "5559999999")).andReturn().getResponse();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse fetchInvalidMobileNumber() throws Exception {
+        return mockMvc.perform(get("/api/fetch").param("mobileNumber", "12345")).andReturn().getResponse();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse createInvalidPayload() throws Exception {
+        return mockMvc.perform(post("/api/create").contentType(MediaType.APPLICATION_JSON).content(INVALID_PAYLOAD))
+                .andReturn().getResponse();
+    }
+}
@@ -0,0 +1,91 @@
+package com.microcourse.accounts.benchmark;
+
+import com.microcourse.accounts.AccountsApplication;
+import com.microcourse.accounts.dto.CustomerDto;
+import com.microcourse.accounts.entity.Accounts;
+import com.microcourse.accounts.repository.AccountsRepository;
+import com.microcourse.accounts.service.IAccountsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup latency as the tables grow. The indexed paths (mobile number, customer id) should stay flat
+ * from 10k to 1M rows; the lookup by email, which has no index, is the full-scan baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class LookupScalingBenchmark {
+
+    private static final long FIRST_CUSTOMER_ID = 1_000_000_000L;
+    private static final long FIRST_MOBILE_NUMBER = 6_000_000_000L;
+    private static final long FIRST_ACCOUNT_NUMBER = 5_000_000_000L;
+
+    @Param({"10000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private IAccountsService accountsService;
+    private AccountsRepository accountsRepository;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(AccountsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:scaling" + rows,
+                        "--spring.jpa.show-sql=false",
+                        "--spring.cache.type=none",
+                        "--logging.level.root=warn");
+        accountsService = context.getBean(IAccountsService.class);
+        accountsRepository = context.getBean(AccountsRepository.class);
+        jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+
+        // Carga directa en SQL: con 1M filas el alta por la API tardaría más que el propio benchmark.
+        jdbcTemplate.update("insert into customer (customer_id, name, email, mobile_number, created_at, created_by) "
+                        + "select ? + x, 'Benchmark Customer', concat('customer', x, '@example.com'), cast(? + x as varchar), "
+                        + "current_timestamp, 'BENCHMARK' from system_range(0, ? - 1)",
+                FIRST_CUSTOMER_ID, FIRST_MOBILE_NUMBER, rows);
+        jdbcTemplate.update("insert into accounts (customer_id, account_number, account_type, branch_address, created_at, created_by) "
+                        + "select ? + x, ? + x, 'Savings', '123 Main Street, New York', current_timestamp, 'BENCHMARK' "
+                        + "from system_range(0, ? - 1)",
+                FIRST_CUSTOMER_ID, FIRST_ACCOUNT_NUMBER, rows);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CustomerDto fetchAccountByMobileNumber() {
+        return accountsService.fetchAccount(String.valueOf(FIRST_MOBILE_NUMBER + randomRow()));
+    }
+
+    @Benchmark
+    public Optional<Accounts> findAccountByCustomerId() {
+        return accountsRepository.findByCustomerId(FIRST_CUSTOMER_ID + randomRow());
+    }
+
+    @Benchmark
+    public Long findCustomerIdByEmailWithoutIndex() {
+        return jdbcTemplate.queryForObject("select customer_id from customer where email = ?", Long.class,
+                "customer" + randomRow() + "@example.com");
+    }
+
+    private long randomRow() {
+        return ThreadLocalRandom.current().nextInt(rows);
+    }
+}
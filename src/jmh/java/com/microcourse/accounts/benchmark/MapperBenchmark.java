@@ -0,0 +1,51 @@
+package com.microcourse.accounts.benchmark;
+
+import com.microcourse.accounts.dto.AccountsDto;
+import com.microcourse.accounts.dto.CustomerDto;
+import com.microcourse.accounts.entity.Accounts;
+import com.microcourse.accounts.entity.Customer;
+import com.microcourse.accounts.mapper.AccountsMapper;
+import com.microcourse.accounts.mapper.CustomerMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the entity/DTO mapping done on every request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private Customer customer;
+    private Accounts accounts;
+    private CustomerDto customerDto;
+
+    @Setup
+    public void setUp() {
+        customer = BenchmarkData.customer();
+        accounts = BenchmarkData.accounts();
+        customerDto = BenchmarkData.customerDto();
+    }
+
+    @Benchmark
+    public CustomerDto entitiesToDto() {
+        CustomerDto dto = CustomerMapper.mapToCustomerDto(customer, new CustomerDto());
+        dto.setAccountsDto(AccountsMapper.mapToAccountsDto(accounts, new AccountsDto()));
+        return dto;
+    }
+
+    @Benchmark
+    public Customer dtoToCustomer() {
+        return CustomerMapper.mapToCustomer(customerDto, new Customer());
+    }
+
+    @Benchmark
+    public Accounts dtoToAccounts() {
+        return AccountsMapper.mapToAccounts(customerDto.getAccountsDto(), new Accounts());
+    }
+}
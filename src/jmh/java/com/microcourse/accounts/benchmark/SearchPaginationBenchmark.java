@@ -0,0 +1,112 @@
+package com.microcourse.accounts.benchmark;
+
+import com.microcourse.accounts.AccountsApplication;
+import com.microcourse.accounts.repository.CustomerDetailsView;
+import com.microcourse.accounts.repository.CustomerRepository;
+import com.microcourse.accounts.repository.CustomerSearchCriteria;
+import com.microcourse.accounts.repository.CustomerSearchRow;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of /api/search at increasing depths: keyset pagination (what the endpoint does) against the
+ * equivalent OFFSET query, with and without an account type filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SearchPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final long FIRST_CUSTOMER_ID = 1_000_000_000L;
+    private static final String[] ACCOUNT_TYPES = {"Savings", "Current", "Salary"};
+    private static final String SELECT = "select new com.microcourse.accounts.repository.CustomerSearchRow(c.customerId, c.name, "
+            + "c.email, c.mobileNumber, a.accountNumber, a.accountType, a.branchAddress, c.version, a.version) "
+            + "from Customer c left join Accounts a on a.customerId = c.customerId ";
+
+    @Param({"2000000"})
+    private int rows;
+
+    // Número de página (de PAGE_SIZE filas) que se lee.
+    @Param({"0", "1000", "30000"})
+    private int page;
+
+    private ConfigurableApplicationContext context;
+    private CustomerRepository customerRepository;
+    private EntityManager entityManager;
+    private Long cursor;
+    private Long filteredCursor;
+
+    @Setup
+    public void setUp() {
+        // Sin OPTIMIZE_REUSE_RESULTS H2 no devuelve el resultado cacheado de la misma consulta repetida.
+        context = new SpringApplicationBuilder(AccountsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:search;OPTIMIZE_REUSE_RESULTS=FALSE",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.cache.type=none",
+                        "--logging.level.root=warn");
+        customerRepository = context.getBean(CustomerRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+
+        jdbcTemplate.update("insert into customer (customer_id, name, email, mobile_number, created_at, created_by) "
+                        + "select ? + x, concat('Customer ', x), concat('customer', x, '@example.com'), cast(6000000000 + x as varchar), "
+                        + "current_timestamp, 'BENCHMARK' from system_range(0, ? - 1)",
+                FIRST_CUSTOMER_ID, rows);
+        jdbcTemplate.update("insert into accounts (customer_id, account_number, account_type, branch_address, created_at, created_by) "
+                        + "select ? + x, 5000000000 + x, case mod(x, 3) when 0 then 'Savings' when 1 then 'Current' else 'Salary' end, "
+                        + "concat('Branch ', mod(x, 100)), current_timestamp, 'BENCHMARK' from system_range(0, ? - 1)",
+                FIRST_CUSTOMER_ID, rows);
+        jdbcTemplate.execute("analyze");
+
+        // Cursor que el cliente tendría tras leer las páginas anteriores: el último id de la página previa.
+        long skipped = (long) page * PAGE_SIZE;
+        cursor = page == 0 ? null : FIRST_CUSTOMER_ID + skipped - 1;
+        // Con el filtro "Current" coinciden los x = 3k + 1.
+        filteredCursor = page == 0 ? null : FIRST_CUSTOMER_ID + 3 * (skipped - 1) + 1;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<CustomerDetailsView> keysetPage() {
+        return customerRepository.search(new CustomerSearchCriteria(null, null, null, null), cursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<CustomerSearchRow> offsetPage() {
+        return entityManager.createQuery(SELECT + "order by c.customerId", CustomerSearchRow.class)
+                .setFirstResult(page * PAGE_SIZE)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+    }
+
+    @Benchmark
+    public List<CustomerDetailsView> keysetFilteredPage() {
+        return customerRepository.search(new CustomerSearchCriteria(null, null, ACCOUNT_TYPES[1], null), filteredCursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<CustomerSearchRow> offsetFilteredPage() {
+        return entityManager.createQuery(SELECT + "where a.accountType = :accountType order by c.customerId", CustomerSearchRow.class)
+                .setParameter("accountType", ACCOUNT_TYPES[1])
+                .setFirstResult(page * PAGE_SIZE)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+    }
+}
@@ -0,0 +1,72 @@
+package com.microcourse.accounts.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.microcourse.accounts.dto.BatchFetchResultDto;
+import com.microcourse.accounts.dto.CustomerDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the fetch (CustomerDto) and batch fetch (50 customers) payloads in JSON and Smile, with the
+ * same ObjectMapper defaults Spring Boot applies.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"json", "smile"})
+    private String format;
+
+    @Param({"fetch", "batch"})
+    private String payload;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        ObjectMapper objectMapper = "smile".equals(format) ? builder.factory(new SmileFactory()).build() : builder.build();
+        Class<?> type = "batch".equals(payload) ? BatchFetchResultDto.class : CustomerDto.class;
+        writer = objectMapper.writerFor(type);
+        reader = objectMapper.readerFor(type);
+        value = "batch".equals(payload) ? batch(50) : BenchmarkData.customerDto();
+        encoded = writer.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return reader.readValue(encoded);
+    }
+
+    private static BatchFetchResultDto batch(int size) {
+        Map<String, CustomerDto> found = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            CustomerDto customerDto = BenchmarkData.customerDto();
+            customerDto.setMobileNumber(String.valueOf(9876500000L + i));
+            customerDto.getAccountsDto().setAccountNumber(1000000000L + i);
+            found.put(customerDto.getMobileNumber(), customerDto);
+        }
+        return new BatchFetchResultDto(found, List.of("9999999999"));
+    }
+}
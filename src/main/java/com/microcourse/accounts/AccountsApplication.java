@@ -2,11 +2,16 @@ package com.microcourse.accounts;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 @SpringBootApplication
 // Habilita auditoria de la base de datos en la aplicación Spring Boot
 @EnableJpaAuditing (auditorAwareRef = "auditAwareImpl")
+// Habilita la caché de lectura de fetchAccount (dos niveles, ver CacheConfig).
+// Orden máximo: el interceptor de caché envuelve al transaccional, así @CacheEvict actúa tras el commit.
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
 public class AccountsApplication {
 
 	public static void main(String[] args) {
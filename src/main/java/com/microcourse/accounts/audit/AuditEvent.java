@@ -0,0 +1,29 @@
+package com.microcourse.accounts.audit;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * One change to a Customer or Accounts row, as stored in the {@code audit_event} table.
+ *
+ * @param occurredAt - when the change was committed
+ * @param actor - who made the change
+ * @param action - INSERT, UPDATE or DELETE
+ * @param entityType - entity name, e.g. Customer
+ * @param entityId - primary key of the row, or null when the row was deleted by a bulk statement
+ * @param changes - changed fields; for an INSERT every field has only a new value
+ */
+public record AuditEvent(LocalDateTime occurredAt, String actor, String action, String entityType,
+                         String entityId, Map<String, FieldChange> changes) {
+
+    public static final String INSERT = "INSERT";
+    public static final String UPDATE = "UPDATE";
+    public static final String DELETE = "DELETE";
+
+    /**
+     * @param oldValue - value before the change, null for an INSERT
+     * @param newValue - value after the change, null for a DELETE
+     */
+    public record FieldChange(Object oldValue, Object newValue) {
+    }
+}
@@ -0,0 +1,125 @@
+package com.microcourse.accounts.audit;
+
+import com.microcourse.accounts.entity.BaseEntity;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Feeds the {@link AuditTrail} from Hibernate's post-commit entity events, so only committed changes
+ * are recorded and the request thread just enqueues them. Bulk JPQL statements bypass these events;
+ * their callers record the change themselves.
+ */
+@Component
+public class AuditIntegrator implements Integrator,
+        PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    // Columnas de BaseEntity: ya quedan reflejadas en la propia fila de auditoría.
+    private static final Set<String> IGNORED_PROPERTIES = Set.of("createdAt", "createdBy", "updatedAt", "updatedBy", "version");
+
+    private final AuditTrail auditTrail;
+
+    public AuditIntegrator(AuditTrail auditTrail) {
+        this.auditTrail = auditTrail;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        // nothing to release
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        Map<String, AuditEvent.FieldChange> changes = changes(event.getPersister(), null, event.getState(), null);
+        auditTrail.record(AuditEvent.INSERT, event.getPersister().getMappedClass().getSimpleName(), event.getId(), changes);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Map<String, AuditEvent.FieldChange> changes = changes(event.getPersister(), event.getOldState(), event.getState(),
+                event.getDirtyProperties());
+        if (!changes.isEmpty()) {
+            auditTrail.record(AuditEvent.UPDATE, event.getPersister().getMappedClass().getSimpleName(), event.getId(), changes);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Map<String, AuditEvent.FieldChange> changes = changes(event.getPersister(), event.getDeletedState(), null, null);
+        auditTrail.record(AuditEvent.DELETE, event.getPersister().getMappedClass().getSimpleName(), event.getId(), changes);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // rolled back: nothing to record
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // rolled back: nothing to record
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // rolled back: nothing to record
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        // Solo las entidades de negocio (Customer, Accounts); no, por ejemplo, los eventos del outbox.
+        return BaseEntity.class.isAssignableFrom(persister.getMappedClass());
+    }
+
+    /**
+     * @param dirtyProperties - indexes of the modified properties, or null to compare every property
+     */
+    private static Map<String, AuditEvent.FieldChange> changes(EntityPersister persister, Object[] oldState, Object[] newState,
+                                                               int[] dirtyProperties) {
+        String[] propertyNames = persister.getPropertyNames();
+        Map<String, AuditEvent.FieldChange> changes = new LinkedHashMap<>();
+        if (dirtyProperties != null) {
+            for (int index : dirtyProperties) {
+                addChange(changes, propertyNames[index], oldState, newState, index);
+            }
+        } else {
+            for (int index = 0; index < propertyNames.length; index++) {
+                addChange(changes, propertyNames[index], oldState, newState, index);
+            }
+        }
+        return changes;
+    }
+
+    private static void addChange(Map<String, AuditEvent.FieldChange> changes, String propertyName,
+                                  Object[] oldState, Object[] newState, int index) {
+        Object oldValue = oldState == null ? null : oldState[index];
+        Object newValue = newState == null ? null : newState[index];
+        if (!IGNORED_PROPERTIES.contains(propertyName) && !Objects.equals(oldValue, newValue)) {
+            changes.put(propertyName, new AuditEvent.FieldChange(oldValue, newValue));
+        }
+    }
+}
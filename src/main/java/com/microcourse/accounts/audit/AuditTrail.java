@@ -0,0 +1,209 @@
+package com.microcourse.accounts.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microcourse.accounts.constants.AccountsConstants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous change history.
+ * <p>
+ * Request threads only append to a bounded lock-free queue; a single background thread drains it
+ * and writes the events to {@code audit_event} in JDBC batches. When the queue is full new events
+ * are dropped and counted ({@code accounts.audit.dropped}) instead of slowing down the caller.
+ */
+@Component
+public class AuditTrail {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditTrail.class);
+
+    private static final String INSERT_SQL = "insert into audit_event (occurred_at, actor, action, entity_type, entity_id, changes) "
+            + "values (?, ?, ?, ?, ?, ?)";
+
+    private final Queue<AuditEvent> queue = new ConcurrentLinkedQueue<>();
+    // ConcurrentLinkedQueue.size() recorre la cola: el tamaño se lleva aparte para poder acotarla.
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "audit-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final AuditorAware<String> auditorAware;
+    private final Counter enqueued;
+    private final Counter droppedQueueFull;
+    private final Counter droppedWriteFailed;
+    private final Counter written;
+    private final Timer flushTimer;
+
+    public AuditTrail(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, AuditorAware<String> auditorAware,
+                      MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.auditorAware = auditorAware;
+        this.enqueued = meterRegistry.counter("accounts.audit.enqueued");
+        this.droppedQueueFull = meterRegistry.counter("accounts.audit.dropped", "reason", "queue_full");
+        this.droppedWriteFailed = meterRegistry.counter("accounts.audit.dropped", "reason", "write_failed");
+        this.written = meterRegistry.counter("accounts.audit.written");
+        this.flushTimer = meterRegistry.timer("accounts.audit.flush");
+        meterRegistry.gauge("accounts.audit.queue.size", queueSize);
+        flusher.scheduleWithFixedDelay(this::flush, AccountsConstants.AUDIT_FLUSH_INTERVAL_MS,
+                AccountsConstants.AUDIT_FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the caller of the current request as identified by the rate limiter (authenticated user, client id
+     * from a trusted gateway or remote address); outside a request (background work), the service's own auditor
+     */
+    public String currentActor() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object callerId = attributes == null ? null
+                : attributes.getAttribute(AccountsConstants.CALLER_ID_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        String actor = callerId != null ? callerId.toString() : auditorAware.getCurrentAuditor().orElse(null);
+        return actor == null || actor.length() <= AccountsConstants.AUDIT_ACTOR_MAX_LENGTH ? actor
+                : actor.substring(0, AccountsConstants.AUDIT_ACTOR_MAX_LENGTH);
+    }
+
+    /**
+     * Queues an event stamped with the {@link #currentActor() current actor}. Never blocks.
+     *
+     * @param action - INSERT, UPDATE or DELETE
+     * @param entityType - entity name
+     * @param entityId - primary key, may be null
+     * @param changes - changed fields
+     * @return false if the queue was full and the event was dropped
+     */
+    public boolean record(String action, String entityType, Object entityId, Map<String, AuditEvent.FieldChange> changes) {
+        return recordAs(currentActor(), action, entityType, entityId, changes);
+    }
+
+    /**
+     * Same as {@link #record}, for work that completes away from the request thread (reactive pipelines): the actor
+     * is taken with {@link #currentActor()} while still on it.
+     *
+     * @param actor - actor of the event
+     * @return false if the queue was full and the event was dropped
+     */
+    public boolean recordAs(String actor, String action, String entityType, Object entityId,
+                            Map<String, AuditEvent.FieldChange> changes) {
+        AuditEvent event = new AuditEvent(LocalDateTime.now(), actor, action,
+                entityType, entityId == null ? null : entityId.toString(), changes);
+        int size = queueSize.incrementAndGet();
+        if (size > AccountsConstants.AUDIT_QUEUE_CAPACITY) {
+            queueSize.decrementAndGet();
+            droppedQueueFull.increment();
+            return false;
+        }
+        queue.offer(event);
+        enqueued.increment();
+        // Un lote completo no espera al siguiente ciclo del flusher.
+        if (size >= AccountsConstants.AUDIT_BATCH_SIZE && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link #record}, but inside a transaction the event is only queued once it commits.
+     * For changes made by bulk statements, which Hibernate's entity listeners never see.
+     */
+    public void recordAfterCommit(String action, String entityType, Object entityId, Map<String, AuditEvent.FieldChange> changes) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(action, entityType, entityId, changes);
+                }
+            });
+        } else {
+            record(action, entityType, entityId, changes);
+        }
+    }
+
+    /**
+     * Writes everything queued so far, in batches of {@link AccountsConstants#AUDIT_BATCH_SIZE}.
+     * Runs on the flusher thread (and once more at shutdown); synchronized so a caller returns only
+     * after any flush already in progress has been written too.
+     */
+    synchronized void flush() {
+        flushRequested.set(false);
+        List<AuditEvent> batch = new ArrayList<>(AccountsConstants.AUDIT_BATCH_SIZE);
+        while (drain(batch) > 0) {
+            try {
+                flushTimer.record(() -> write(batch));
+                written.increment(batch.size());
+            } catch (RuntimeException exception) {
+                droppedWriteFailed.increment(batch.size());
+                log.warn("Dropped {} audit events: {}", batch.size(), exception.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    private int drain(List<AuditEvent> batch) {
+        AuditEvent event;
+        while (batch.size() < AccountsConstants.AUDIT_BATCH_SIZE && (event = queue.poll()) != null) {
+            queueSize.decrementAndGet();
+            batch.add(event);
+        }
+        return batch.size();
+    }
+
+    private void write(List<AuditEvent> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, event) -> {
+            statement.setTimestamp(1, Timestamp.valueOf(event.occurredAt()));
+            statement.setString(2, event.actor());
+            statement.setString(3, event.action());
+            statement.setString(4, event.entityType());
+            statement.setString(5, event.entityId());
+            statement.setString(6, toJson(event.changes()));
+        });
+    }
+
+    private String toJson(Map<String, AuditEvent.FieldChange> changes) {
+        if (changes == null || changes.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(changes);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        // Lo que quede en la cola se escribe antes de cerrar el DataSource.
+        flush();
+    }
+}
@@ -0,0 +1,144 @@
+package com.microcourse.accounts.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.microcourse.accounts.constants.AccountsConstants;
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded stand-in for a shared cache server such as Redis: the tier lives in this JVM and invalidations reach
+ * only the listeners subscribed here. With a single instance it simply acts as a larger second level; only the
+ * instance holding {@link InProcessTierLease} uses it, any other falls back to {@link NearCacheOnlyTier}. Tests
+ * share one instance between several {@link TieredCache}s to simulate a cluster, optionally delaying the broadcast
+ * like a network would.
+ */
+public class InProcessSharedCacheTier implements SharedCacheTier {
+
+    // Generaciones globales y crecientes: una clave que caduca y se vuelve a crear nunca repite una generación
+    // antigua, así una carga anterior a la caducidad tampoco puede guardarse.
+    private final AtomicLong generations = new AtomicLong();
+    private final Map<String, Cache<Object, VersionedValue>> caches = new ConcurrentHashMap<>();
+    // Por caché, la generación más alta que dejó de estar registrada en una entrada (lápida desalojada o caducada,
+    // invalidateAll): una carga que falló antes de ella no sabe si la clave se invalidó y no puede guardarse.
+    private final Map<String, AtomicLong> forgottenGenerations = new ConcurrentHashMap<>();
+    private final Map<String, List<InvalidationListener>> listeners = new ConcurrentHashMap<>();
+    private final Duration invalidationDelay;
+    private final ScheduledExecutorService broadcaster;
+
+    public InProcessSharedCacheTier() {
+        this(Duration.ZERO);
+    }
+
+    /**
+     * @param invalidationDelay - delay before listeners are notified; zero notifies them on the calling thread
+     */
+    public InProcessSharedCacheTier(Duration invalidationDelay) {
+        this.invalidationDelay = invalidationDelay;
+        this.broadcaster = invalidationDelay.isZero() ? null : Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public VersionedValue get(String cacheName, Object key) {
+        VersionedValue current = cache(cacheName).getIfPresent(key);
+        // En un fallo no se escribe nada: la carga recibe una generación nueva, anterior a cualquier invalidación
+        // posterior, que solo deja lápida al invalidar.
+        return current != null ? current : VersionedValue.tombstone(generations.incrementAndGet());
+    }
+
+    @Override
+    public boolean putIfGeneration(String cacheName, Object key, long generation, Object value) {
+        AtomicLong forgotten = forgottenGeneration(cacheName);
+        boolean[] stored = new boolean[1];
+        cache(cacheName).asMap().compute(key, (k, current) -> {
+            // Con entrada, la carga debe presentar su generación; sin ella, la clave no se ha invalidado desde el
+            // fallo salvo que esa invalidación se haya olvidado después.
+            if (current != null ? current.generation() != generation : generation <= forgotten.get()) {
+                return current;
+            }
+            stored[0] = true;
+            return new VersionedValue(generation, value);
+        });
+        return stored[0];
+    }
+
+    @Override
+    public long invalidate(String cacheName, Object key) {
+        long generation = generations.incrementAndGet();
+        cache(cacheName).put(key, VersionedValue.tombstone(generation));
+        broadcast(cacheName, key, generation);
+        return generation;
+    }
+
+    @Override
+    public void invalidateAll(String cacheName) {
+        long generation = generations.incrementAndGet();
+        forgottenGeneration(cacheName).accumulateAndGet(generation, Math::max);
+        cache(cacheName).invalidateAll();
+        broadcast(cacheName, null, generation);
+    }
+
+    @Override
+    public void subscribe(String cacheName, InvalidationListener listener) {
+        listeners.computeIfAbsent(cacheName, name -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    private void broadcast(String cacheName, Object key, long generation) {
+        List<InvalidationListener> subscribed = listeners.getOrDefault(cacheName, List.of());
+        Runnable delivery = () -> subscribed.forEach(listener -> listener.onInvalidation(key, generation));
+        if (broadcaster == null) {
+            delivery.run();
+        } else {
+            broadcaster.schedule(delivery, invalidationDelay.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Waits until every invalidation broadcast so far has reached the listeners.
+     */
+    void awaitBroadcasts() throws InterruptedException, ExecutionException {
+        if (broadcaster != null) {
+            // Mismo retraso que las difusiones pendientes: el hilo único lo ejecuta después de todas ellas.
+            broadcaster.schedule(() -> { }, invalidationDelay.toNanos(), TimeUnit.NANOSECONDS).get();
+        }
+    }
+
+    private Cache<Object, VersionedValue> cache(String cacheName) {
+        return caches.computeIfAbsent(cacheName, name -> {
+            AtomicLong forgotten = forgottenGeneration(name);
+            return Caffeine.newBuilder()
+                    .maximumSize(AccountsConstants.SHARED_CACHE_MAX_SIZE)
+                    .expireAfterWrite(Duration.ofMinutes(AccountsConstants.SHARED_CACHE_TTL_MINUTES))
+                    // Síncrono, dentro del desalojo: ninguna carga ve la entrada borrada sin ver también el umbral.
+                    .evictionListener((Object key, VersionedValue evicted, RemovalCause cause) ->
+                            forgotten.accumulateAndGet(evicted.generation(), Math::max))
+                    .build();
+        });
+    }
+
+    private AtomicLong forgottenGeneration(String cacheName) {
+        return forgottenGenerations.computeIfAbsent(cacheName, name -> new AtomicLong());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (broadcaster != null) {
+            broadcaster.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.microcourse.accounts.cache;
+
+import com.microcourse.accounts.constants.AccountsConstants;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps {@link InProcessSharedCacheTier} to a single instance. Its invalidations never leave the JVM, so a second
+ * instance using it would keep serving values the first one has invalidated. At startup the instance claims the
+ * lease in {@code cache_tier_lease}; if another instance holds it, this one runs with the near cache only
+ * ({@link NearCacheOnlyTier}) instead. The lease is renewed in the background and lapses once the instance stops.
+ * Application contexts in the same JVM (tests) share the lease.
+ */
+@Component
+@ConditionalOnProperty(name = "accounts.cache.shared-tier", havingValue = "in-process")
+public class InProcessTierLease {
+
+    private static final Logger log = LoggerFactory.getLogger(InProcessTierLease.class);
+
+    private static final String OWNER = UUID.randomUUID().toString();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean held;
+    private final ScheduledExecutorService renewer;
+
+    public InProcessTierLease(JdbcTemplate jdbcTemplate, CacheProperties cacheProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Sin caché no hay nada que invalidar: no se reserva el turno.
+        this.held = cacheProperties.getType() != CacheType.NONE && claim();
+        if (!held) {
+            if (cacheProperties.getType() != CacheType.NONE) {
+                log.warn("accounts.cache.shared-tier=in-process supports a single instance and another instance holds "
+                        + "cache_tier_lease: this instance uses the near cache only");
+            }
+            this.renewer = null;
+            return;
+        }
+        this.renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-tier-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        renewer.scheduleWithFixedDelay(this::renew, AccountsConstants.CACHE_TIER_LEASE_RENEW_INTERVAL_SECONDS,
+                AccountsConstants.CACHE_TIER_LEASE_RENEW_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return true if this instance may use the in-process shared tier
+     */
+    public boolean isHeld() {
+        return held;
+    }
+
+    private boolean claim() {
+        return jdbcTemplate.update("update cache_tier_lease set owner = ?, "
+                        + "expires_at = TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP) "
+                        + "where lease_id = 1 and (owner = ? or owner is null or expires_at < CURRENT_TIMESTAMP)",
+                OWNER, AccountsConstants.CACHE_TIER_LEASE_SECONDS, OWNER) == 1;
+    }
+
+    private void renew() {
+        try {
+            if (!claim()) {
+                log.error("Another instance took over cache_tier_lease: cache invalidations are no longer shared");
+            }
+        } catch (RuntimeException exception) {
+            log.warn("Could not renew cache_tier_lease: {}", exception.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (renewer != null) {
+            renewer.shutdownNow();
+        }
+    }
+}
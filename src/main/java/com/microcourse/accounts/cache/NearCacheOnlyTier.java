@@ -0,0 +1,50 @@
+package com.microcourse.accounts.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * No shared tier at all: every lookup past the near cache is a miss and nothing is stored outside this instance.
+ * Invalidations only reach the near caches of this instance, so with several instances a value another instance
+ * updated can be served until it expires from the near cache ({@link com.microcourse.accounts.constants.AccountsConstants#NEAR_CACHE_TTL_SECONDS}).
+ */
+public class NearCacheOnlyTier implements SharedCacheTier {
+
+    private final AtomicLong generations = new AtomicLong();
+    private final Map<String, List<InvalidationListener>> listeners = new ConcurrentHashMap<>();
+
+    @Override
+    public VersionedValue get(String cacheName, Object key) {
+        return VersionedValue.tombstone(generations.incrementAndGet());
+    }
+
+    @Override
+    public boolean putIfGeneration(String cacheName, Object key, long generation, Object value) {
+        // La lápida del near cache ya rechaza una carga anterior a una invalidación local.
+        return true;
+    }
+
+    @Override
+    public long invalidate(String cacheName, Object key) {
+        long generation = generations.incrementAndGet();
+        broadcast(cacheName, key, generation);
+        return generation;
+    }
+
+    @Override
+    public void invalidateAll(String cacheName) {
+        broadcast(cacheName, null, generations.incrementAndGet());
+    }
+
+    @Override
+    public void subscribe(String cacheName, InvalidationListener listener) {
+        listeners.computeIfAbsent(cacheName, name -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    private void broadcast(String cacheName, Object key, long generation) {
+        listeners.getOrDefault(cacheName, List.of()).forEach(listener -> listener.onInvalidation(key, generation));
+    }
+}
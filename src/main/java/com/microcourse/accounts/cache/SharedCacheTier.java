@@ -0,0 +1,48 @@
+package com.microcourse.accounts.cache;
+
+/**
+ * Cache tier shared by every instance of the service, behind the per-instance near cache of {@link TieredCache}.
+ * <p>
+ * Every key has a generation that changes whenever the key is invalidated, so a value loaded before an
+ * invalidation is rejected when it is finally stored. Implementations must deliver each invalidation to the
+ * listeners of every instance, the caller's included.
+ */
+public interface SharedCacheTier {
+
+    /**
+     * @param cacheName - name of the cache
+     * @param key - cache key
+     * @return the current value (null on a miss) with the generation a load of the key must present to store it
+     */
+    VersionedValue get(String cacheName, Object key);
+
+    /**
+     * @param generation - generation returned by the {@link #get} that missed before the value was loaded
+     * @return false, storing nothing, if the key was invalidated since that generation
+     */
+    boolean putIfGeneration(String cacheName, Object key, long generation, Object value);
+
+    /**
+     * Removes the value, moves the key to a new generation and broadcasts the invalidation.
+     *
+     * @return the new generation of the key
+     */
+    long invalidate(String cacheName, Object key);
+
+    /**
+     * Removes every value of the cache and broadcasts the invalidation with a null key.
+     */
+    void invalidateAll(String cacheName);
+
+    void subscribe(String cacheName, InvalidationListener listener);
+
+    @FunctionalInterface
+    interface InvalidationListener {
+
+        /**
+         * @param key - invalidated key, or null if the whole cache was cleared
+         * @param generation - new generation of the key
+         */
+        void onInvalidation(Object key, long generation);
+    }
+}
@@ -0,0 +1,141 @@
+package com.microcourse.accounts.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microcourse.accounts.constants.AccountsConstants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Two-level cache: a small Caffeine near cache in this instance in front of the {@link SharedCacheTier}.
+ * <p>
+ * A miss remembers, per thread, the generation the shared tier reported for the key; the following put (from
+ * {@code @Cacheable} or from code that did {@code get} then {@code put}) stores the value only if no
+ * invalidation happened meanwhile, so a row read just before another instance committed an update cannot be
+ * cached after its eviction. Evictions invalidate the shared tier, which broadcasts them to the near cache of
+ * every instance; the near cache keeps them as tombstones so a late store of an older generation is ignored too.
+ * The near cache TTL only bounds the damage of a lost broadcast.
+ */
+public class TieredCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final SharedCacheTier sharedTier;
+    private final Cache<Object, VersionedValue> nearCache = Caffeine.newBuilder()
+            .maximumSize(AccountsConstants.NEAR_CACHE_MAX_SIZE)
+            .expireAfterWrite(Duration.ofSeconds(AccountsConstants.NEAR_CACHE_TTL_SECONDS))
+            .build();
+    private final ThreadLocal<Map<Object, Long>> pendingLoads = ThreadLocal.withInitial(HashMap::new);
+    private final Counter nearHits;
+    private final Counter sharedHits;
+    private final Counter misses;
+    private final Counter rejectedPuts;
+
+    public TieredCache(String name, SharedCacheTier sharedTier, MeterRegistry meterRegistry) {
+        super(false);
+        this.name = name;
+        this.sharedTier = sharedTier;
+        this.nearHits = meterRegistry.counter("accounts.cache.gets", "cache", name, "result", "near-hit");
+        this.sharedHits = meterRegistry.counter("accounts.cache.gets", "cache", name, "result", "shared-hit");
+        this.misses = meterRegistry.counter("accounts.cache.gets", "cache", name, "result", "miss");
+        this.rejectedPuts = meterRegistry.counter("accounts.cache.puts.rejected", "cache", name);
+        sharedTier.subscribe(name, this::onInvalidation);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return nearCache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        VersionedValue near = nearCache.getIfPresent(key);
+        if (near != null && near.value() != null) {
+            nearHits.increment();
+            return near.value();
+        }
+        VersionedValue shared = sharedTier.get(name, key);
+        if (shared.value() != null) {
+            sharedHits.increment();
+            storeNear(key, shared);
+            return shared.value();
+        }
+        misses.increment();
+        Map<Object, Long> pending = pendingLoads.get();
+        // Fallos sin put posterior (p. ej. un 404) no deben acumularse en el hilo.
+        if (pending.size() >= AccountsConstants.NEAR_CACHE_MAX_PENDING_LOADS) {
+            pending.clear();
+        }
+        pending.put(key, shared.generation());
+        return null;
+    }
+
+    /**
+     * Loads on a miss without coalescing concurrent loads of the same key; the generation check still keeps
+     * stale results out.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object cached = lookup(key);
+        if (cached != null) {
+            return (T) fromStoreValue(cached);
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception exception) {
+            throw new ValueRetrievalException(key, valueLoader, exception);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Long generation = pendingLoads.get().remove(key);
+        if (generation == null) {
+            // Put sin lectura previa en este hilo: se acepta sobre la generación actual.
+            generation = sharedTier.get(name, key).generation();
+        }
+        Object storeValue = toStoreValue(value);
+        if (sharedTier.putIfGeneration(name, key, generation, storeValue)) {
+            storeNear(key, new VersionedValue(generation, storeValue));
+        } else {
+            rejectedPuts.increment();
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        storeNear(key, VersionedValue.tombstone(sharedTier.invalidate(name, key)));
+    }
+
+    @Override
+    public void clear() {
+        sharedTier.invalidateAll(name);
+        nearCache.invalidateAll();
+    }
+
+    private void onInvalidation(Object key, long generation) {
+        if (key == null) {
+            nearCache.invalidateAll();
+        } else {
+            storeNear(key, VersionedValue.tombstone(generation));
+        }
+    }
+
+    private void storeNear(Object key, VersionedValue entry) {
+        nearCache.asMap().compute(key, (k, current) -> entry.supersedes(current) ? entry : current);
+    }
+}
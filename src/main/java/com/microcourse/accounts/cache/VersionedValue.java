@@ -0,0 +1,22 @@
+package com.microcourse.accounts.cache;
+
+/**
+ * A cached value with the generation of its key when it was loaded. A null value is a tombstone: the key was
+ * invalidated at that generation and older loads must not be stored over it.
+ *
+ * @param generation - generation of the key in the shared tier
+ * @param value - cached value, or null
+ */
+public record VersionedValue(long generation, Object value) {
+
+    public static VersionedValue tombstone(long generation) {
+        return new VersionedValue(generation, null);
+    }
+
+    /**
+     * @return true if this entry may replace the given one, i.e. it is not older
+     */
+    boolean supersedes(VersionedValue other) {
+        return other == null || generation >= other.generation;
+    }
+}
@@ -0,0 +1,34 @@
+package com.microcourse.accounts.config;
+
+import com.microcourse.accounts.audit.AuditEvent;
+import com.microcourse.accounts.dto.AccountsDto;
+import com.microcourse.accounts.dto.BulkResultDto;
+import com.microcourse.accounts.dto.CustomerDto;
+import com.microcourse.accounts.dto.ErrorResponseDto;
+import com.microcourse.accounts.metrics.QueryStatsSessionListener;
+import com.microcourse.accounts.repository.CustomerSearchRow;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+@Configuration
+@ImportRuntimeHints(AccountsRuntimeHints.class)
+// Pistas de reflexión para la imagen nativa (-Pnative) que el procesado AOT no puede deducir por sí solo.
+public class AccountsRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Serializados con ObjectWriter/ObjectMapper directamente (NDJSON/CSV, auditoría, outbox), no como
+        // valor de retorno de un controlador, así que Spring no los registra.
+        BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+        bindingHints.registerReflectionHints(hints.reflection(), CustomerDto.class, AccountsDto.class,
+                BulkResultDto.class, ErrorResponseDto.class, AuditEvent.FieldChange.class);
+        // Expresión constructora de la búsqueda dinámica (select new ...CustomerSearchRow(...)).
+        hints.reflection().registerType(CustomerSearchRow.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        // Hibernate instancia el listener de sesión por nombre de clase (hibernate.session.events.auto).
+        hints.reflection().registerType(QueryStatsSessionListener.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+    }
+}
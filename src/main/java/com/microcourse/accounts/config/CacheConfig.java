@@ -0,0 +1,60 @@
+package com.microcourse.accounts.config;
+
+import com.microcourse.accounts.cache.InProcessSharedCacheTier;
+import com.microcourse.accounts.cache.InProcessTierLease;
+import com.microcourse.accounts.cache.NearCacheOnlyTier;
+import com.microcourse.accounts.cache.SharedCacheTier;
+import com.microcourse.accounts.cache.TieredCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+// Cachés de spring.cache.cache-names en dos niveles: near cache por instancia y nivel compartido
+// (accounts.cache.shared-tier), con invalidaciones difundidas a todas las instancias.
+public class CacheConfig {
+
+    /**
+     * @return no shared tier: each instance caches in its near cache only (accounts.cache.shared-tier=none, the default)
+     */
+    @Bean
+    @ConditionalOnProperty(name = "accounts.cache.shared-tier", havingValue = "none", matchIfMissing = true)
+    public SharedCacheTier nearCacheOnlyTier() {
+        return new NearCacheOnlyTier();
+    }
+
+    /**
+     * @return the embedded shared tier (accounts.cache.shared-tier=in-process), or the near cache only if another
+     * instance already uses it
+     */
+    @Bean
+    @ConditionalOnProperty(name = "accounts.cache.shared-tier", havingValue = "in-process")
+    public SharedCacheTier inProcessSharedCacheTier(InProcessTierLease inProcessTierLease) {
+        return inProcessTierLease.isHeld() ? new InProcessSharedCacheTier() : new NearCacheOnlyTier();
+    }
+
+    /**
+     * @return a {@link TieredCache} for every name in spring.cache.cache-names, or no caching at all with
+     * spring.cache.type=none
+     */
+    @Bean
+    public CacheManager cacheManager(CacheProperties cacheProperties, SharedCacheTier sharedCacheTier,
+                                     MeterRegistry meterRegistry) {
+        if (cacheProperties.getType() == CacheType.NONE) {
+            return new NoOpCacheManager();
+        }
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(cacheProperties.getCacheNames().stream()
+                .map(name -> new TieredCache(name, sharedCacheTier, meterRegistry))
+                .toList());
+        return cacheManager;
+    }
+}
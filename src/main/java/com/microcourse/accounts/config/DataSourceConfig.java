@@ -0,0 +1,157 @@
+package com.microcourse.accounts.config;
+
+import com.microcourse.accounts.constants.AccountsConstants;
+import com.microcourse.accounts.datasource.ReplicaDataSource;
+import com.microcourse.accounts.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties({DataSourceProperties.class, ReplicaProperties.class, ShardingProperties.class})
+// Spring Boot desactiva el DataSource automático cuando hay un ConnectionFactory de R2DBC en el classpath:
+// aquí se declaran explícitamente el DataSource JDBC (JPA) y su gestor de transacciones, que sigue siendo el principal.
+public class DataSourceConfig {
+
+    /**
+     * @return the Hikari pool of the primary database, built from {@code spring.datasource.*}
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * The connection is taken at the first statement, once the transaction is known to be read-only or not and
+     * bound to its shard: read-only transactions go to the replicas if any are configured, everything else to the
+     * primary, or to the shard chosen by ShardRouter when the data is sharded.
+     *
+     * @return the DataSource used by JPA, Flyway and JdbcTemplate
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ObjectProvider<ReplicaDataSource> replicaDataSource,
+                                 ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource) {
+        ShardRoutingDataSource shards = shardRoutingDataSource.getIfAvailable();
+        if (shards != null && replicaDataSource.getIfAvailable() != null) {
+            // Las réplicas replican un único primario: con shards harían falta réplicas por shard.
+            throw new IllegalStateException("accounts.datasource.replicas cannot be combined with accounts.sharding.shards");
+        }
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(shards != null ? shards : primaryDataSource);
+        replicaDataSource.ifAvailable(dataSource::setReadOnlyDataSource);
+        return dataSource;
+    }
+
+    /**
+     * @return one pool per URL in accounts.datasource.replicas, with the primary's credentials and pool size
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "accounts.datasource", name = "replicas[0]")
+    public ReplicaDataSource replicaDataSource(DataSourceProperties properties, ReplicaProperties replicaProperties,
+                                               HikariDataSource primaryDataSource, MeterRegistry meterRegistry) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (String url : replicaProperties.replicas()) {
+            HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+            pool.setPoolName("replica-" + (pools.size() + 1));
+            pool.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            pool.setConnectionTimeout(AccountsConstants.REPLICA_CONNECTION_TIMEOUT_MS);
+            // Una réplica caída no impide el arranque: queda fuera de la rotación hasta que el health check la recupera.
+            pool.setInitializationFailTimeout(-1);
+            pool.setMetricRegistry(meterRegistry);
+            pools.add(pool);
+        }
+        return new ReplicaDataSource(primaryDataSource, pools, meterRegistry);
+    }
+
+    /**
+     * @return shard 0 (the primary pool) plus one pool per URL in accounts.sharding.shards, with the primary's
+     * credentials and pool size
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "accounts.sharding", name = "shards[0]")
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties properties, ShardingProperties shardingProperties,
+                                                         HikariDataSource primaryDataSource, MeterRegistry meterRegistry) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        pools.add(primaryDataSource);
+        for (String url : shardingProperties.shards()) {
+            HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+            pool.setPoolName("shard-" + pools.size());
+            pool.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+            pool.setMetricRegistry(meterRegistry);
+            pools.add(pool);
+        }
+        return new ShardRoutingDataSource(pools);
+    }
+
+    /**
+     * Applies the migrations to the primary, or to every shard when sharded. The shard index is passed as a
+     * placeholder so that V7__shard_sequence_ranges gives each shard its own range of ids and account numbers.
+     * Every database must have been created as the same shard of the same shard count (V11__shard_layout):
+     * resharding is not supported.
+     *
+     * @return the strategy used by the Flyway auto-configuration instead of a plain migrate
+     */
+    @Bean
+    public FlywayMigrationStrategy migrationStrategy(ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource) {
+        return flyway -> {
+            ShardRoutingDataSource shards = shardRoutingDataSource.getIfAvailable();
+            if (shards == null) {
+                flyway.migrate();
+                verifyShardLayout(flyway.getConfiguration().getDataSource(), 0, 1);
+                return;
+            }
+            for (int shard = 0; shard < shards.shardCount(); shard++) {
+                Map<String, String> placeholders = new HashMap<>(flyway.getConfiguration().getPlaceholders());
+                placeholders.put(AccountsConstants.SHARD_INDEX_PLACEHOLDER, Integer.toString(shard));
+                placeholders.put(AccountsConstants.SHARD_COUNT_PLACEHOLDER, Integer.toString(shards.shardCount()));
+                Flyway.configure().configuration(flyway.getConfiguration())
+                        .dataSource(shards.shard(shard))
+                        .placeholders(placeholders)
+                        .load().migrate();
+                verifyShardLayout(shards.shard(shard), shard, shards.shardCount());
+            }
+        };
+    }
+
+    private static void verifyShardLayout(DataSource dataSource, int shard, int shardCount) {
+        Map<String, Object> layout = new JdbcTemplate(dataSource)
+                .queryForMap("select shard_index, shard_count from shard_layout");
+        int createdAs = ((Number) layout.get("shard_index")).intValue();
+        int createdWith = ((Number) layout.get("shard_count")).intValue();
+        // Los clientes no se mueven entre shards: con otro número de shards el módulo los buscaría en otro sitio.
+        if (createdAs != shard || createdWith != shardCount) {
+            throw new IllegalStateException("The database of shard " + shard + " was created as shard " + createdAs
+                    + " of " + createdWith + " but " + shardCount + " shards are configured: resharding is not supported");
+        }
+    }
+
+    /**
+     * @return the JPA transaction manager, used by every {@code @Transactional} method and TransactionTemplate
+     */
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+}
@@ -0,0 +1,42 @@
+package com.microcourse.accounts.config;
+
+import com.microcourse.accounts.metrics.QueryStatsIntegrator;
+import com.microcourse.accounts.metrics.QueryStatsSessionListener;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+// Métricas propias: tiempos por método de servicio (@Timed) y actividad SQL por petición.
+public class MetricsConfig {
+
+    /**
+     * @return the aspect that turns {@code @Timed} methods into Micrometer timers
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * @param integrators - Integrator beans to register as well, e.g. the audit listeners
+     * @return hooks the per-request query statistics (and the given integrators) into every Hibernate session
+     */
+    @Bean
+    public HibernatePropertiesCustomizer queryStatsHibernateCustomizer(List<Integrator> integrators) {
+        List<Integrator> allIntegrators = new ArrayList<>(integrators);
+        allIntegrators.add(new QueryStatsIntegrator());
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, QueryStatsSessionListener.class.getName());
+            hibernateProperties.put("hibernate.integrator_provider", (IntegratorProvider) () -> allIntegrators);
+        };
+    }
+}
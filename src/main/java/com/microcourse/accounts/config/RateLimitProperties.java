@@ -0,0 +1,14 @@
+package com.microcourse.accounts.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * @param trustedProxies - remote addresses of the gateways allowed to name the client in X-Client-Id; from any
+ *                       other address the header is ignored and the client is keyed on its own address
+ */
+@ConfigurationProperties("accounts.rate-limit")
+public record RateLimitProperties(@DefaultValue List<String> trustedProxies) {
+}
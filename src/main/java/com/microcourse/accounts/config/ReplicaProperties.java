@@ -0,0 +1,13 @@
+package com.microcourse.accounts.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * @param replicas - JDBC URLs of the read replicas; they share driver and credentials with spring.datasource
+ */
+@ConfigurationProperties("accounts.datasource")
+public record ReplicaProperties(@DefaultValue List<String> replicas) {
+}
@@ -0,0 +1,14 @@
+package com.microcourse.accounts.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * @param shards - JDBC URLs of the shards after the first one, which is spring.datasource; they share driver,
+ *               credentials and pool size with it
+ */
+@ConfigurationProperties("accounts.sharding")
+public record ShardingProperties(@DefaultValue List<String> shards) {
+}
@@ -0,0 +1,33 @@
+package com.microcourse.accounts.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("virtual")
+// Diagnóstico del modo de hilos virtuales (perfil "virtual").
+public class VirtualThreadsConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    /**
+     * Reports at startup whether virtual threads are really in use and how to trace pinning.
+     *
+     * @return the startup check
+     */
+    @Bean
+    public ApplicationRunner virtualThreadsCheck() {
+        return args -> {
+            if (Runtime.version().feature() < 21) {
+                log.warn("Profile 'virtual' is active but the runtime is Java {}: requests keep running on platform threads",
+                        Runtime.version().feature());
+            } else if (System.getProperty("jdk.tracePinnedThreads") == null) {
+                log.info("Virtual threads enabled. Start with -Djdk.tracePinnedThreads=short to log carrier-thread pinning");
+            }
+        };
+    }
+}
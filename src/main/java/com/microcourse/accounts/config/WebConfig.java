@@ -0,0 +1,33 @@
+package com.microcourse.accounts.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.microcourse.accounts.ratelimit.RateLimitInterceptor;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@AllArgsConstructor
+@EnableConfigurationProperties(RateLimitProperties.class)
+// Control de admisión solo para la API: actuator y la consola H2 quedan fuera.
+public class WebConfig implements WebMvcConfigurer {
+
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/api/**");
+    }
+
+    @Bean
+    // Smile para las llamadas entre servicios (Accept / Content-Type: application/x-jackson-smile). Se construye con el
+    // builder de Spring Boot para que aplique la misma configuración de Jackson (spring.jackson.*, módulos) que el JSON.
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
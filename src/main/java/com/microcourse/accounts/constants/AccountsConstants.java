@@ -15,7 +15,102 @@ public final class AccountsConstants {
     public static final String  STATUS_417 = "417";
     public static final String  MESSAGE_417_UPDATE= "Update operation failed. Please try again or contact Dev team";
     public static final String  MESSAGE_417_DELETE= "Delete operation failed. Please try again or contact Dev team";
-    // public static final String  STATUS_500 = "500";
-    // public static final String  MESSAGE_500 = "An error occurred. Please try again or contact Dev team";
+    public static final String  CUSTOMER_DETAILS_CACHE = "customerDetails";
+    public static final String  STATUS_400 = "400";
+    public static final String  STATUS_500 = "500";
+    public static final String  MESSAGE_500 = "An error occurred. Please try again or contact Dev team";
+    public static final String  MESSAGE_409_CONCURRENT_UPDATE = "The record was modified by another request. Please reload and try again";
+    public static final int  BULK_CHUNK_SIZE = 500;
+    // Alta masiva: respuesta de un registro que no se pudo leer, e intentos de un shard cuyo lote revierte un alta
+    // concurrente con el mismo número de móvil (cada intento vuelve a comprobar los duplicados).
+    public static final String  MESSAGE_400_MALFORMED_RECORD = "Malformed record: expected a customer JSON object";
+    public static final int  BULK_CONFLICT_MAX_ATTEMPTS = 3;
+    // Debe coincidir con el INCREMENT BY de account_number_seq.
+    public static final int  ACCOUNT_NUMBER_BLOCK_SIZE = 1000;
+    // Cada exportación retiene una conexión durante toda la descarga: se limita para no agotar el pool. Sin permiso
+    // libre, /export responde 503 con este Retry-After.
+    public static final int  EXPORT_MAX_CONCURRENT = 2;
+    public static final long  EXPORT_RETRY_AFTER_SECONDS = 30;
+    // Nombre de la restricción única creada en V2__lookup_indexes.sql.
+    public static final String  MOBILE_NUMBER_CONSTRAINT = "uk_customer_mobile_number";
+    // Tamaño máximo de la lista IN en /api/fetch/batch.
+    public static final int  BATCH_FETCH_MAX_SIZE = 100;
+    // Tamaño máximo de un lote de bajas en /api/delete/batch.
+    public static final int  BATCH_DELETE_MAX_SIZE = 500;
+    // Cola de auditoría: capacidad máxima (los eventos que no caben se descartan y se cuentan),
+    // tamaño de lote y periodo del volcado a audit_event.
+    public static final int  AUDIT_QUEUE_CAPACITY = 10000;
+    public static final int  AUDIT_BATCH_SIZE = 500;
+    public static final long  AUDIT_FLUSH_INTERVAL_MS = 1000;
+    // Autor de los eventos de auditoría: el llamante que identificó RateLimitInterceptor (atributo de la petición);
+    // sin petición (tareas en segundo plano) es el de AuditAwareImpl. Se recorta a la longitud de audit_event.actor.
+    public static final String  CALLER_ID_ATTRIBUTE = "com.microcourse.accounts.callerId";
+    public static final int  AUDIT_ACTOR_MAX_LENGTH = 255;
+    // Outbox: eventos publicados por lote, pausa entre pasadas de OutboxRelay y validez del turno del relay
+    // (si su instancia cae, otra toma el relevo pasado este tiempo).
+    public static final int  OUTBOX_BATCH_SIZE = 100;
+    public static final long  OUTBOX_POLL_INTERVAL_MS = 500;
+    public static final long  OUTBOX_LEASE_SECONDS = 10;
+    // Tamaño de página de /api/search (por defecto y máximo).
+    public static final int  SEARCH_DEFAULT_PAGE_SIZE = 20;
+    public static final int  SEARCH_MAX_PAGE_SIZE = 100;
+    // Limitación por cliente (cubo de tokens): peticiones por segundo sostenidas y ráfaga admitida.
+    public static final String  CLIENT_ID_HEADER = "X-Client-Id";
+    public static final int  RATE_LIMIT_REQUESTS_PER_SECOND = 100;
+    public static final int  RATE_LIMIT_BURST = 200;
+    public static final int  RATE_LIMIT_MAX_CLIENTS = 100000;
+    public static final long  RATE_LIMIT_IDLE_EXPIRY_MINUTES = 10;
+    // Límite adaptativo de peticiones en curso: valor inicial (el doble del pool JDBC), mínimo, máximo
+    // e intervalo mínimo entre reducciones.
+    public static final int  CONCURRENCY_LIMIT_INITIAL = 20;
+    public static final int  CONCURRENCY_LIMIT_MIN = 4;
+    public static final int  CONCURRENCY_LIMIT_MAX = 200;
+    public static final long  CONCURRENCY_LIMIT_DECREASE_INTERVAL_MS = 100;
+    public static final String  MESSAGE_429 = "Too many requests. Please slow down and try again later";
+    public static final String  MESSAGE_503_OVERLOADED = "The service is overloaded. Please try again later";
+    // Idempotency-Key: cabeceras, tiempo de vida y número máximo de claves en memoria, espera máxima de un
+    // duplicado a la petición original, y plazo de una reserva (la instancia que la ejecuta lo renueva en cada
+    // intervalo; vencido, se considera abandonada).
+    public static final String  IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String  IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int  IDEMPOTENCY_KEY_MAX_LENGTH = 255;
+    public static final long  IDEMPOTENCY_TTL_HOURS = 24;
+    public static final int  IDEMPOTENCY_MAX_KEYS = 100000;
+    public static final long  IDEMPOTENCY_WAIT_SECONDS = 30;
+    public static final long  IDEMPOTENCY_LEASE_SECONDS = 60;
+    public static final long  IDEMPOTENCY_LEASE_RENEW_INTERVAL_SECONDS = 20;
+    public static final long  IDEMPOTENCY_PURGE_INTERVAL_MINUTES = 60;
+    public static final String  MESSAGE_409_IN_PROGRESS = "A request with the same Idempotency-Key is still in progress. Please try again later";
+    public static final String  MESSAGE_422_KEY_REUSED = "The Idempotency-Key was already used for a different request";
+    public static final String  MESSAGE_503_EXPORT = "Too many exports in progress. Please try again later";
+    // Caché en dos niveles: near cache local (su TTL solo acota una invalidación perdida) y nivel compartido;
+    // máximo de fallos por hilo pendientes de su put, y turno de la única instancia que puede usar el nivel embebido.
+    public static final int  NEAR_CACHE_MAX_SIZE = 10000;
+    public static final long  NEAR_CACHE_TTL_SECONDS = 60;
+    public static final int  NEAR_CACHE_MAX_PENDING_LOADS = 1024;
+    public static final int  SHARED_CACHE_MAX_SIZE = 100000;
+    public static final long  SHARED_CACHE_TTL_MINUTES = 10;
+    public static final long  CACHE_TIER_LEASE_SECONDS = 30;
+    public static final long  CACHE_TIER_LEASE_RENEW_INTERVAL_SECONDS = 10;
+    // Réplicas de lectura: espera máxima de una conexión, intervalo y timeout del health check, y ventana
+    // (mayor que el retraso de replicación) durante la que un cliente recién escrito se lee del primario.
+    public static final long  REPLICA_CONNECTION_TIMEOUT_MS = 1000;
+    public static final long  REPLICA_HEALTH_CHECK_INTERVAL_SECONDS = 5;
+    public static final int  REPLICA_VALIDATION_TIMEOUT_SECONDS = 1;
+    public static final long  READ_YOUR_WRITES_WINDOW_SECONDS = 5;
+    public static final int  READ_YOUR_WRITES_MAX_KEYS = 100000;
+    // Formato binario (Jackson Smile) para las llamadas entre servicios.
+    public static final String  APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    // Sharding por número de móvil: hilos por shard para las consultas scatter-gather y filas en vuelo por exportación.
+    public static final int  SHARD_QUERY_THREADS_PER_SHARD = 4;
+    public static final int  SHARD_EXPORT_QUEUE_CAPACITY = 1000;
+    // Rangos disjuntos de las secuencias por shard (ver V7__shard_sequence_ranges): ids y números de cuenta siguen
+    // siendo únicos entre shards mientras no haya más de SHARD_MAX_COUNT.
+    public static final int  SHARD_MAX_COUNT = 64;
+    public static final long  SHARD_ID_RANGE = 1L << 56;
+    public static final long  SHARD_ACCOUNT_NUMBER_RANGE = 140_625_000L;
+    public static final String  SHARD_INDEX_PLACEHOLDER = "shardIndex";
+    public static final String  SHARD_COUNT_PLACEHOLDER = "shardCount";
+    public static final String  MESSAGE_409_SHARD_MOVE = "The new mobile number belongs to another shard. Please delete and recreate the customer instead";
 
 }
\ No newline at end of file
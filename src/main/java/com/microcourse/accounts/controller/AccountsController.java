@@ -1,58 +1,256 @@
 package com.microcourse.accounts.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.microcourse.accounts.constants.AccountsConstants;
+import com.microcourse.accounts.dto.AccountsDto;
+import com.microcourse.accounts.dto.BatchFetchResultDto;
+import com.microcourse.accounts.dto.BulkDeleteResultDto;
+import com.microcourse.accounts.dto.BulkResultDto;
 import com.microcourse.accounts.dto.CustomerDto;
+import com.microcourse.accounts.dto.CustomerPageDto;
 import com.microcourse.accounts.dto.ResponseDto;
+import com.microcourse.accounts.exception.ServiceBusyException;
+import com.microcourse.accounts.idempotency.IdempotentRequests;
+import com.microcourse.accounts.mapper.CustomerMapper;
+import com.microcourse.accounts.repository.CustomerSearchCriteria;
 import com.microcourse.accounts.service.IAccountsService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+
 @RestController
-@RequestMapping(path="/api", produces={MediaType.APPLICATION_JSON_VALUE})
+@RequestMapping(path="/api", produces={MediaType.APPLICATION_JSON_VALUE, AccountsConstants.APPLICATION_SMILE_VALUE})
 @Validated
 @AllArgsConstructor
 // Apoyamos el tipo de datos de retorno como JSON.
 // Ajustamos el marco de Spring Boot para que las respuestas de la API REST sean en formato JSON.
+// Los servicios internos pueden pedir Smile con Accept: application/x-jackson-smile; sin Accept (o con */*) la respuesta sigue siendo JSON.
 public class AccountsController {
 
+    private static final MediaType SMILE = MediaType.parseMediaType(AccountsConstants.APPLICATION_SMILE_VALUE);
+
     private IAccountsService iAccountsService;
+    private ObjectMapper objectMapper;
+    private IdempotentRequests idempotentRequests;
+    private ContentNegotiationManager contentNegotiationManager;
 
     @PostMapping("/create")
     // Cualquiera que esté intentando invocar createAccount, necesita pasar la entrada con los datos del DTO (CustomerDto).
-    public ResponseEntity<ResponseDto> createAccount(@Valid @RequestBody CustomerDto customerDto) {
+    // Con Idempotency-Key, un reintento de la pasarela recibe la respuesta original en lugar de un error de duplicado.
+    public ResponseEntity<ResponseDto> createAccount(@Valid @RequestBody CustomerDto customerDto,
+                                                     @RequestHeader(value = AccountsConstants.IDEMPOTENCY_KEY_HEADER, required = false)
+                                                     @Size(max = AccountsConstants.IDEMPOTENCY_KEY_MAX_LENGTH,
+                                                             message = "Idempotency-Key must be at most " + AccountsConstants.IDEMPOTENCY_KEY_MAX_LENGTH + " characters")
+                                                     String idempotencyKey) {
+        return idempotentRequests.execute(idempotencyKey, "create", customerDto, () -> {
+            iAccountsService.createAccount(customerDto);
+            // junto con el mensaje de éxito y el código de estado de la clase de constantes (AccountsConstants).
+            return ResponseEntity
+                    .status(HttpStatus.CREATED)
+                    .body(new ResponseDto(AccountsConstants.STATUS_201, AccountsConstants.MESSAGE_201));
+        });
+    }
 
-        iAccountsService.createAccount(customerDto);
-        // junto con el mensaje de éxito y el código de estado de la clase de constantes (AccountsConstants).
-        return ResponseEntity
-                .status(HttpStatus.CREATED)
-                .body(new ResponseDto(AccountsConstants.STATUS_201, AccountsConstants.MESSAGE_201));
+    @PostMapping(path = "/create/bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    // Acepta un array JSON o un flujo NDJSON de CustomerDto y responde con un resultado NDJSON por registro.
+    // Tanto la entrada como la salida se procesan en streaming: la memoria no crece con el tamaño de la carga.
+    // El 200 se envía antes de leer la entrada: un registro mal formado recibe su propio 400. En NDJSON cada línea se
+    // lee por separado y se sigue con la siguiente; en un array JSON, tras un error de sintaxis ya no se puede seguir.
+    public void createAccounts(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream requestBody,
+                               HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        ObjectWriter resultWriter = objectMapper.writerFor(BulkResultDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        ObjectReader customerReader = objectMapper.readerFor(CustomerDto.class);
+        Iterator<CustomerDto> customerDtos = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? new NdjsonRecordIterator<>(requestBody, customerReader)
+                : customerReader.readValues(requestBody);
+        iAccountsService.createAccounts(customerDtos, result -> {
+            try {
+                resultWriter.writeValue(out, result);
+                out.write('\n');
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        });
+        out.flush();
     }
 
     @GetMapping("/fetch")
     public ResponseEntity<CustomerDto>fetchAccountDetails(@RequestParam
                                                               @Pattern(regexp = "(^$|[0-9]{10}$)", message = "Mobile number must be 10 digits")
-                                                              String mobileNumber) {
+                                                              String mobileNumber,
+                                                          NativeWebRequest webRequest) throws HttpMediaTypeNotAcceptableException {
             CustomerDto customerDto = iAccountsService.fetchAccount(mobileNumber);
-            return ResponseEntity.status(HttpStatus.OK).body(customerDto);
+            // Con ETag en la respuesta, Spring compara If-None-Match y contesta 304 sin serializar el cuerpo.
+            // En un acierto de caché la ETag viene con el DTO: ni siquiera se consulta la base de datos.
+            // JSON y Smile son representaciones distintas de la misma versión: cada una con su ETag, y Vary: Accept
+            // para que una caché intermedia no sirva una en lugar de la otra.
+            String eTag = prefersSmile(webRequest) ? CustomerMapper.smileETag(customerDto.getEtag()) : customerDto.getEtag();
+            return ResponseEntity.status(HttpStatus.OK).eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(customerDto);
         }
-    @PutMapping("/update")
-    public ResponseEntity<ResponseDto> updateAccountDetails(@Valid @RequestBody CustomerDto customerDto) {
-        boolean isUpdated = iAccountsService.updateAccount(customerDto);
-        if(isUpdated) {
-            return ResponseEntity
-                    .status(HttpStatus.OK)
-                    .body(new ResponseDto(AccountsConstants.STATUS_200, AccountsConstants.MESSAGE_200));
-        }else{
-            return ResponseEntity
-                    .status(HttpStatus.EXPECTATION_FAILED)
-                    .body(new ResponseDto(AccountsConstants.STATUS_417, AccountsConstants.MESSAGE_417_UPDATE));
+
+    /**
+     * Same choice as Spring's content negotiation for the produces list of this controller: the first accepted
+     * type, by quality and specificity, that JSON or Smile satisfies; JSON wins a tie, e.g. a wildcard Accept.
+     */
+    private boolean prefersSmile(NativeWebRequest webRequest) throws HttpMediaTypeNotAcceptableException {
+        for (MediaType accepted : contentNegotiationManager.resolveMediaTypes(webRequest)) {
+            if (accepted.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+            if (accepted.isCompatibleWith(SMILE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    @GetMapping("/fetch/batch")
+    // Resuelve varios números de móvil en una sola llamada (?mobileNumbers=...,...); los que no existen van en notFound.
+    public ResponseEntity<BatchFetchResultDto> fetchAccountsDetails(@RequestParam
+                                                                    @Size(min = 1, max = AccountsConstants.BATCH_FETCH_MAX_SIZE,
+                                                                            message = "Between 1 and " + AccountsConstants.BATCH_FETCH_MAX_SIZE + " mobile numbers are allowed")
+                                                                    List<@Pattern(regexp = "(^$|[0-9]{10}$)", message = "Mobile number must be 10 digits") String> mobileNumbers) {
+        BatchFetchResultDto batchFetchResultDto = iAccountsService.fetchAccounts(mobileNumbers);
+        return ResponseEntity.status(HttpStatus.OK).body(batchFetchResultDto);
+    }
+
+    @GetMapping("/search")
+    // Búsqueda paginada por keyset: para la página siguiente se pasa en "after" el nextCursor recibido.
+    // namePrefix y emailPrefix filtran por el comienzo del nombre y del email; accountType y branchAddress, por igualdad.
+    public ResponseEntity<CustomerPageDto> searchAccounts(@RequestParam(required = false) String namePrefix,
+                                                          @RequestParam(required = false) String emailPrefix,
+                                                          @RequestParam(required = false) String accountType,
+                                                          @RequestParam(required = false) String branchAddress,
+                                                          @RequestParam(required = false) Long after,
+                                                          @RequestParam(defaultValue = "" + AccountsConstants.SEARCH_DEFAULT_PAGE_SIZE)
+                                                          @Min(value = 1, message = "Size must be at least 1")
+                                                          @Max(value = AccountsConstants.SEARCH_MAX_PAGE_SIZE,
+                                                                  message = "Size must be at most " + AccountsConstants.SEARCH_MAX_PAGE_SIZE)
+                                                          int size) {
+        CustomerSearchCriteria criteria = new CustomerSearchCriteria(namePrefix, emailPrefix, accountType, branchAddress);
+        CustomerPageDto customerPageDto = iAccountsService.searchAccounts(criteria, after, size);
+        return ResponseEntity.status(HttpStatus.OK).body(customerPageDto);
+    }
+
+    @GetMapping(path = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    // Exportación completa en streaming (NDJSON por defecto o CSV), escrita fila a fila en la respuesta.
+    public void exportAccounts(@RequestParam(defaultValue = "ndjson")
+                               @Pattern(regexp = "ndjson|csv", message = "Format must be ndjson or csv")
+                               String format,
+                               HttpServletResponse response) throws IOException {
+        boolean csv = "csv".equals(format);
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(csv ? "text/csv" : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        Writer out = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+        ObjectWriter rowWriter = objectMapper.writerFor(CustomerDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (csv) {
+            out.write("name,email,mobileNumber,accountNumber,accountType,branchAddress\n");
+        }
+        try {
+            iAccountsService.exportAccounts(customerDto -> {
+                try {
+                    if (csv) {
+                        writeCsvRow(out, customerDto);
+                    } else {
+                        rowWriter.writeValue(out, customerDto);
+                        out.write('\n');
+                    }
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+        } catch (ServiceBusyException exception) {
+            // Sin permiso no se ha escrito ninguna fila. El error JSON de GlobalExceptionHandler no es NDJSON ni CSV
+            // (fallaría la negociación de contenido): 503 sin cuerpo, con Retry-After.
+            response.reset();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(AccountsConstants.EXPORT_RETRY_AFTER_SECONDS));
+            return;
         }
+        out.flush();
+    }
+
+    private static void writeCsvRow(Writer out, CustomerDto customerDto) throws IOException {
+        AccountsDto accountsDto = customerDto.getAccountsDto();
+        out.write(csvField(customerDto.getName()));
+        out.write(',');
+        out.write(csvField(customerDto.getEmail()));
+        out.write(',');
+        out.write(csvField(customerDto.getMobileNumber()));
+        out.write(',');
+        out.write(accountsDto == null || accountsDto.getAccountNumber() == null ? "" : accountsDto.getAccountNumber().toString());
+        out.write(',');
+        out.write(csvField(accountsDto == null ? null : accountsDto.getAccountType()));
+        out.write(',');
+        out.write(csvField(accountsDto == null ? null : accountsDto.getBranchAddress()));
+        out.write('\n');
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @PutMapping("/update")
+    // If-Match (opcional) con la ETag de fetch: si el registro cambió desde entonces se responde 412.
+    public ResponseEntity<ResponseDto> updateAccountDetails(@Valid @RequestBody CustomerDto customerDto,
+                                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                            String ifMatch,
+                                                            @RequestHeader(value = AccountsConstants.IDEMPOTENCY_KEY_HEADER, required = false)
+                                                            @Size(max = AccountsConstants.IDEMPOTENCY_KEY_MAX_LENGTH,
+                                                                    message = "Idempotency-Key must be at most " + AccountsConstants.IDEMPOTENCY_KEY_MAX_LENGTH + " characters")
+                                                            String idempotencyKey) {
+        // Un reintento con la misma Idempotency-Key no vuelve a comprobar If-Match: recibe la respuesta original.
+        return idempotentRequests.execute(idempotencyKey, "update", customerDto, () -> {
+            boolean isUpdated = iAccountsService.updateAccount(customerDto, ifMatch);
+            if(isUpdated) {
+                return ResponseEntity
+                        .status(HttpStatus.OK)
+                        .body(new ResponseDto(AccountsConstants.STATUS_200, AccountsConstants.MESSAGE_200));
+            }else{
+                return ResponseEntity
+                        .status(HttpStatus.EXPECTATION_FAILED)
+                        .body(new ResponseDto(AccountsConstants.STATUS_417, AccountsConstants.MESSAGE_417_UPDATE));
+            }
+        });
     }
     @DeleteMapping("/delete")
     public ResponseEntity<ResponseDto> deleteAccountDetails(@RequestParam
@@ -69,6 +267,16 @@ public class AccountsController {
                     .body(new ResponseDto(AccountsConstants.STATUS_417, AccountsConstants.MESSAGE_417_DELETE));
         }
     }
+
+    @DeleteMapping("/delete/batch")
+    // Baja de un lote de clientes (?mobileNumbers=...,...) en una sola transacción; los que no existen van en notFound.
+    public ResponseEntity<BulkDeleteResultDto> deleteAccountsDetails(@RequestParam
+                                                                     @Size(min = 1, max = AccountsConstants.BATCH_DELETE_MAX_SIZE,
+                                                                             message = "Between 1 and " + AccountsConstants.BATCH_DELETE_MAX_SIZE + " mobile numbers are allowed")
+                                                                     List<@Pattern(regexp = "(^$|[0-9]{10}$)", message = "Mobile number must be 10 digits") String> mobileNumbers) {
+        BulkDeleteResultDto bulkDeleteResultDto = iAccountsService.deleteAccounts(mobileNumbers);
+        return ResponseEntity.status(HttpStatus.OK).body(bulkDeleteResultDto);
+    }
     }
 
 
@@ -0,0 +1,59 @@
+package com.microcourse.accounts.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads an NDJSON body one line at a time. Each line is parsed on its own, so a malformed line only fails its own
+ * {@link #next()} (with {@link IllegalArgumentException}) and the following lines are still read. Blank lines are
+ * skipped.
+ */
+class NdjsonRecordIterator<T> implements Iterator<T> {
+
+    private final BufferedReader lines;
+    private final ObjectReader reader;
+    private String nextLine;
+
+    NdjsonRecordIterator(InputStream body, ObjectReader reader) {
+        this.lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (nextLine == null || nextLine.isBlank()) {
+                nextLine = lines.readLine();
+                if (nextLine == null) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String line = nextLine;
+        nextLine = null;
+        try {
+            return reader.readValue(line);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalArgumentException(exception.getOriginalMessage(), exception);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.microcourse.accounts.controller;
+
+import com.microcourse.accounts.constants.AccountsConstants;
+import com.microcourse.accounts.dto.CustomerDto;
+import com.microcourse.accounts.dto.ResponseDto;
+import com.microcourse.accounts.service.IReactiveAccountsService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+// El cliente R2DBC tiene una única conexión, sin routing por shard: con sharding estos endpoints no se registran.
+@ConditionalOnExpression("'${accounts.sharding.shards[0]:}'.isEmpty()")
+@RequestMapping(path="/api/reactive", produces={MediaType.APPLICATION_JSON_VALUE})
+@Validated
+@AllArgsConstructor
+// Variante no bloqueante de AccountsController (R2DBC). Mismas rutas bajo /api/reactive, mismos DTOs,
+// mismas validaciones y mismo formato de error: Spring MVC resuelve los Mono de forma asíncrona
+// y los errores llegan igualmente a GlobalExceptionHandler.
+public class ReactiveAccountsController {
+
+    private IReactiveAccountsService iReactiveAccountsService;
+
+    @PostMapping("/create")
+    public Mono<ResponseEntity<ResponseDto>> createAccount(@Valid @RequestBody CustomerDto customerDto) {
+        return iReactiveAccountsService.createAccount(customerDto)
+                .thenReturn(ResponseEntity
+                        .status(HttpStatus.CREATED)
+                        .body(new ResponseDto(AccountsConstants.STATUS_201, AccountsConstants.MESSAGE_201)));
+    }
+
+    @GetMapping("/fetch")
+    public Mono<ResponseEntity<CustomerDto>> fetchAccountDetails(@RequestParam
+                                                                 @Pattern(regexp = "(^$|[0-9]{10}$)", message = "Mobile number must be 10 digits")
+                                                                 String mobileNumber) {
+        return iReactiveAccountsService.fetchAccount(mobileNumber)
+                .map(customerDto -> ResponseEntity.status(HttpStatus.OK).eTag(customerDto.getEtag()).body(customerDto));
+    }
+
+    @PutMapping("/update")
+    // If-Match (opcional) con la ETag de fetch, como en AccountsController: si el registro cambió se responde 412.
+    public Mono<ResponseEntity<ResponseDto>> updateAccountDetails(@Valid @RequestBody CustomerDto customerDto,
+                                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                                  String ifMatch) {
+        return iReactiveAccountsService.updateAccount(customerDto, ifMatch)
+                .map(isUpdated -> isUpdated
+                        ? ResponseEntity
+                                .status(HttpStatus.OK)
+                                .body(new ResponseDto(AccountsConstants.STATUS_200, AccountsConstants.MESSAGE_200))
+                        : ResponseEntity
+                                .status(HttpStatus.EXPECTATION_FAILED)
+                                .body(new ResponseDto(AccountsConstants.STATUS_417, AccountsConstants.MESSAGE_417_UPDATE)));
+    }
+
+    @DeleteMapping("/delete")
+    public Mono<ResponseEntity<ResponseDto>> deleteAccountDetails(@RequestParam
+                                                                  @Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits")
+                                                                  String mobileNumber) {
+        return iReactiveAccountsService.deleteAccount(mobileNumber)
+                .map(isDeleted -> isDeleted
+                        ? ResponseEntity
+                                .status(HttpStatus.OK)
+                                .body(new ResponseDto(AccountsConstants.STATUS_200, AccountsConstants.MESSAGE_200))
+                        : ResponseEntity
+                                .status(HttpStatus.EXPECTATION_FAILED)
+                                .body(new ResponseDto(AccountsConstants.STATUS_417, AccountsConstants.MESSAGE_417_DELETE)));
+    }
+}
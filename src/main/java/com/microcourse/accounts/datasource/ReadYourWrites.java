@@ -0,0 +1,96 @@
+package com.microcourse.accounts.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microcourse.accounts.constants.AccountsConstants;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Read-your-writes protection for the replica routing: customers written by this instance in the last few
+ * seconds (longer than the expected replication lag) are read from the primary, so a fetch right after a
+ * create or update never sees the replica's older copy. Pins are local to the instance, so reads whose result
+ * is shared with the other instances (the customerDetails cache) use {@link #routeToPrimary()} instead.
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private final Cache<String, Boolean> recentWrites = Caffeine.newBuilder()
+            .maximumSize(AccountsConstants.READ_YOUR_WRITES_MAX_KEYS)
+            .expireAfterWrite(Duration.ofSeconds(AccountsConstants.READ_YOUR_WRITES_WINDOW_SECONDS))
+            .build();
+
+    /**
+     * Starts the read-your-writes window of the given customers; inside a transaction, once it commits.
+     *
+     * @param mobileNumbers - mobile numbers of the customers written
+     */
+    public void recordWrite(String... mobileNumbers) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(mobileNumbers);
+                }
+            });
+        } else {
+            record(mobileNumbers);
+        }
+    }
+
+    /**
+     * Sends the rest of the current read-only transaction to the primary if any of the customers was written
+     * recently. Must be called before the transaction's first query, when no connection has been taken yet.
+     *
+     * @param mobileNumbers - mobile numbers of the customers about to be read
+     */
+    public void routeToPrimaryIfRecentlyWritten(Collection<String> mobileNumbers) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || isPinnedToPrimary()) {
+            return;
+        }
+        for (String mobileNumber : mobileNumbers) {
+            if (mobileNumber != null && recentWrites.getIfPresent(mobileNumber) != null) {
+                pinToPrimary();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sends the rest of the current read-only transaction to the primary, whatever was written recently. Must be
+     * called before the transaction's first query, when no connection has been taken yet.
+     */
+    public void routeToPrimary() {
+        if (TransactionSynchronizationManager.isSynchronizationActive() && !isPinnedToPrimary()) {
+            pinToPrimary();
+        }
+    }
+
+    private static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                PINNED_TO_PRIMARY.remove();
+            }
+        });
+    }
+
+    static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+
+    private void record(String... mobileNumbers) {
+        for (String mobileNumber : mobileNumbers) {
+            if (mobileNumber != null) {
+                recentWrites.put(mobileNumber, Boolean.TRUE);
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.microcourse.accounts.datasource;
+
+import com.microcourse.accounts.constants.AccountsConstants;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connections for read-only transactions: round-robin over the healthy replicas, falling back to the primary
+ * when none is available or when the transaction must read its own writes ({@link ReadYourWrites}).
+ * <p>
+ * A replica that cannot open connections is taken out of rotation at once; one whose pool is merely exhausted
+ * stays in rotation and only that read goes to the primary. A background check probes
+ * every replica periodically, taking out the ones whose connections are no longer valid and putting back the
+ * ones that answer again. A statement that fails on a replica still fails its request.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-health");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter replicaReads;
+    private final Counter pinnedReads;
+    private final Counter fallbackReads;
+
+    public ReplicaDataSource(DataSource primary, List<HikariDataSource> replicaPools, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.replicaReads = meterRegistry.counter("accounts.datasource.reads", "target", "replica");
+        this.pinnedReads = meterRegistry.counter("accounts.datasource.reads", "target", "primary-pinned");
+        this.fallbackReads = meterRegistry.counter("accounts.datasource.reads", "target", "primary-fallback");
+        meterRegistry.gauge("accounts.datasource.replicas.healthy", this, ReplicaDataSource::healthyReplicas);
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, AccountsConstants.REPLICA_HEALTH_CHECK_INTERVAL_SECONDS,
+                AccountsConstants.REPLICA_HEALTH_CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReadYourWrites.isPinnedToPrimary()) {
+            pinnedReads.increment();
+            return primary.getConnection();
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection connection = replica.pool.getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException exception) {
+                // Pool agotado: la réplica está sana pero ocupada, se prueba la siguiente sin sacarla de la rotación.
+                if (!isPoolExhausted(exception)) {
+                    replica.markDown(exception);
+                }
+            }
+        }
+        // Ninguna réplica disponible: la lectura no falla, la atiende el primario.
+        fallbackReads.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Connections are taken from the configured pools");
+    }
+
+    void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection()) {
+                if (connection.isValid(AccountsConstants.REPLICA_VALIDATION_TIMEOUT_SECONDS)) {
+                    replica.markUp();
+                } else {
+                    replica.pool.evictConnection(connection);
+                    replica.markDown(null);
+                }
+            } catch (SQLException exception) {
+                if (!isPoolExhausted(exception)) {
+                    replica.markDown(exception);
+                }
+            } catch (RuntimeException exception) {
+                replica.markDown(exception);
+            }
+        }
+    }
+
+    /**
+     * Hikari reports both an exhausted pool and a database it cannot reach with a connection timeout; only in the
+     * second case does the exception carry the last connection failure as its cause.
+     *
+     * @param exception - failure of {@code getConnection} on a replica pool
+     * @return true if every connection was busy, with no sign of the replica being down
+     */
+    static boolean isPoolExhausted(SQLException exception) {
+        return exception instanceof SQLTransientConnectionException && exception.getCause() == null;
+    }
+
+    /**
+     * @return the pools of every replica, healthy or not
+     */
+    public List<HikariDataSource> pools() {
+        return replicas.stream().map(replica -> replica.pool).toList();
+    }
+
+    int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource pool;
+        private volatile boolean healthy = true;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+
+        private void markDown(Exception exception) {
+            if (healthy) {
+                healthy = false;
+                log.warn("Replica {} taken out of rotation: {}", pool.getPoolName(),
+                        exception == null ? "connection is not valid" : exception.getMessage());
+                // Las conexiones abiertas antes del fallo no se reutilizan cuando la réplica vuelva.
+                HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+                if (poolBean != null) {
+                    poolBean.softEvictConnections();
+                }
+            }
+        }
+
+        private void markUp() {
+            if (!healthy) {
+                healthy = true;
+                log.info("Replica {} back in rotation", pool.getPoolName());
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.microcourse.accounts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data @AllArgsConstructor
+public class BatchFetchResultDto {
+
+    private Map<String, CustomerDto> found;//clave: número de móvil
+
+    private List<String> notFound;
+}
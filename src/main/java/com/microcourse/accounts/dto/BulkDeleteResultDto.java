@@ -0,0 +1,14 @@
+package com.microcourse.accounts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data @AllArgsConstructor
+public class BulkDeleteResultDto {
+
+    private List<String> deleted;
+
+    private List<String> notFound;
+}
@@ -0,0 +1,16 @@
+package com.microcourse.accounts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data @AllArgsConstructor
+public class BulkResultDto {
+
+    private long index;//posición del registro en la entrada
+
+    private String mobileNumber;
+
+    private String statusCode;
+
+    private String statusMsg;
+}
@@ -1,6 +1,7 @@
 package com.microcourse.accounts.dto;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Pattern;
@@ -22,4 +23,8 @@ public class CustomerDto {
     private String mobileNumber;
 
     private AccountsDto AccountsDto;
+
+    // ETag de la versión leída (cabecera HTTP, no forma parte del cuerpo). Se guarda en la caché junto con el DTO.
+    @JsonIgnore
+    private String etag;
 }
@@ -0,0 +1,14 @@
+package com.microcourse.accounts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data @AllArgsConstructor
+public class CustomerPageDto {
+
+    private List<CustomerDto> content;
+
+    private Long nextCursor;//valor de "after" para la página siguiente; null si es la última
+}
@@ -3,6 +3,7 @@ package com.microcourse.accounts.entity;
 import jakarta.persistence.Column;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -54,4 +55,9 @@ public class BaseEntity {
     // La anotación `@LastModifiedBy` es gestionada automáticamente por Spring Data JPA durante la modificación.
     // `insertable = false` indica que este campo no se debe definir al crear el registro.
     private String updatedBy;
+
+    @Version
+    // Bloqueo optimista: cada UPDATE comprueba e incrementa la versión, de modo que dos actualizaciones
+    // concurrentes sobre la misma fila no se sobrescriben en silencio (la segunda falla con un conflicto).
+    private Long version;
 }
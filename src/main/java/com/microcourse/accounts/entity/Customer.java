@@ -2,15 +2,19 @@ package com.microcourse.accounts.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate // los UPDATE solo incluyen las columnas modificadas
 @Getter @Setter @ToString @AllArgsConstructor @NoArgsConstructor
 //no se usa data aqui porque no queremos el metodo equals/hascode
 //porque puede crear problemas con el FW de JPA
 public class Customer extends  BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // SEQUENCE (y no IDENTITY) para que Hibernate pueda agrupar los INSERT en lotes JDBC.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
+    @SequenceGenerator(name = "customer_seq", sequenceName = "customer_seq", allocationSize = 50)
     @Column(name="customer_id")
     private Long customerId;
 
@@ -0,0 +1,38 @@
+package com.microcourse.accounts.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_event")
+@Getter @Setter @ToString @AllArgsConstructor @NoArgsConstructor
+// Evento de dominio pendiente de publicar. No extiende BaseEntity: no se audita ni se modifica, solo se inserta y se borra.
+public class OutboxEvent {
+
+    @Id
+    // SEQUENCE para que los eventos de una carga masiva se inserten en lotes JDBC junto con las entidades.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 50)
+    @Column(name="event_id")
+    private Long eventId;
+
+    // Id del cliente (no cambia, a diferencia del móvil): clave de partición/orden para los consumidores (cards, loans...).
+    @Column(name="aggregate_key")
+    private String aggregateKey;
+
+    // Posición del evento entre los de su clave: consecutiva y en orden de commit (ver V8__outbox_ordering.sql).
+    @Column(name="aggregate_version")
+    private Long aggregateVersion;
+
+    @Column(name="event_type")
+    private String eventType;
+
+    // CustomerDto en JSON.
+    private String payload;
+
+    @Column(name="created_at")
+    private LocalDateTime createdAt;
+
+}
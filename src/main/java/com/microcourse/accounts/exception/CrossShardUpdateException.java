@@ -0,0 +1,11 @@
+package com.microcourse.accounts.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class CrossShardUpdateException extends RuntimeException {
+    public CrossShardUpdateException(String message) {
+        super(message);
+    }
+}
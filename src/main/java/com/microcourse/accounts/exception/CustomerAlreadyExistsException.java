@@ -6,7 +6,8 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(value = HttpStatus.BAD_REQUEST)
 public class CustomerAlreadyExistsException extends RuntimeException{
     public CustomerAlreadyExistsException(String message) {
-            super(message);
+            // Sin traza de pila, igual que ResourceNotFoundException: es un rechazo esperado.
+            super(message, null, false, false);
         }
     }
 
@@ -1,6 +1,11 @@
 package com.microcourse.accounts.exception;
 
+import com.microcourse.accounts.constants.AccountsConstants;
 import com.microcourse.accounts.dto.ErrorResponseDto; // DTO que encapsula la información del error
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus; // Enumeración para los códigos de estado HTTP
 import org.springframework.http.HttpStatusCode;
@@ -10,28 +15,47 @@ import org.springframework.validation.ObjectError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice; // Anotación que convierte esta clase en un manejador global de excepciones
 import org.springframework.web.bind.annotation.ExceptionHandler; // Anotación que permite manejar excepciones específicas
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.WebRequest; // Proporciona información sobre la solicitud web que causó la excepción
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import java.time.Clock;
 import java.time.LocalDateTime; // Clase para manejar fechas y horas
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @ControllerAdvice
 // Esta anotación permite que esta clase maneje excepciones en toda la aplicación,
 // sin necesidad de duplicar el manejo de errores en cada controlador.
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
+
+    // Reloj resuelto una sola vez: LocalDateTime.now() sin argumentos vuelve a consultar la zona horaria por defecto
+    // (una copia del TimeZone) en cada error.
+    private final Clock clock = Clock.systemDefaultZone();
+    private final Map<Class<?>, Counter> errorCounters = new ConcurrentHashMap<>();
+    // apiPath de cada endpoint, construido una vez por patrón de ruta (hay tantos como endpoints, y ninguno lleva
+    // variables: el patrón es la propia URI).
+    private final Map<Object, String> apiPaths = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(Exception.class)
     // Este método maneja todas las excepciones no controladas (excepciones genéricas) que no tienen un manejador específico.
     public ResponseEntity<ErrorResponseDto> handleGlobalException(Exception exception,
                                                                   WebRequest webRequest) {
+        countError(exception);
         // Creamos un objeto `ErrorResponseDto` que encapsula los detalles del error.
         ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
-                webRequest.getDescription(false), // Descripción de la solicitud que provocó el error.
+                apiPath(webRequest), // Descripción de la solicitud que provocó el error.
                 HttpStatus.INTERNAL_SERVER_ERROR,
                 exception.getMessage(),
-                LocalDateTime.now()
+                LocalDateTime.now(clock)
         );
 
         // Devolvemos una respuesta con el objeto `ErrorResponseDto` y el estado HTTP 500.
@@ -43,41 +67,68 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     // Esto se utiliza principalmente en validaciones, por ejemplo, cuando los datos de entrada no cumplen con las restricciones definidas (como @NotNull, @Size, etc.).
     protected ResponseEntity<Object> handleMethodArgumentNotValid(
             MethodArgumentNotValidException ex, HttpHeaders headers, HttpStatusCode status, WebRequest request) {
-
-        // Creamos un mapa para almacenar los errores de validación, donde la clave será el nombre del campo que falló
-        // y el valor será el mensaje de validación.
-        Map<String, String> validationErrors = new HashMap<>();
+        countError(ex);
 
         // Obtenemos la lista de errores de validación del objeto `BindingResult` contenido en la excepción.
         List<ObjectError> validationErrorList = ex.getBindingResult().getAllErrors();
 
-        // Iteramos a través de la lista de errores y extraemos el nombre del campo y el mensaje de validación.
-        validationErrorList.forEach((error) -> {
+        // Creamos un mapa para almacenar los errores de validación, donde la clave será el nombre del campo que falló
+        // y el valor será el mensaje de validación. Dimensionado de antemano para no redimensionarlo.
+        Map<String, String> validationErrors = new HashMap<>(validationErrorList.size() * 2);
+
+        // Iteramos a través de la lista de errores y extraemos el nombre del campo y el mensaje de validación
+        // (bucle simple: la lambda capturaba el mapa y se creaba en cada error).
+        for (ObjectError error : validationErrorList) {
             String fieldName = ((FieldError) error).getField(); // Nombre del campo que falló la validación.
             String validationMsg = error.getDefaultMessage();   // Mensaje de error asociado a esa validación.
             validationErrors.put(fieldName, validationMsg);     // Guardamos el error en el mapa.
-        });
+        }
 
         // Devolvemos una respuesta con el mapa de errores de validación y el estado HTTP 400 (Bad Request).
         return new ResponseEntity<>(validationErrors, HttpStatus.BAD_REQUEST);
     }
 
+    @Override
+    // Resto de excepciones propias de Spring MVC (parámetro ausente, tipo de contenido no admitido...):
+    // se contabilizan igual que las nuestras.
+    protected ResponseEntity<Object> handleExceptionInternal(Exception ex, Object body, HttpHeaders headers,
+                                                             HttpStatusCode statusCode, WebRequest request) {
+        countError(ex);
+        return super.handleExceptionInternal(ex, body, headers, statusCode, request);
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    // Validación de parámetros de la petición (@Pattern, @Size... en @RequestParam): es un error del cliente (400),
+    // no un fallo interno.
+    public ResponseEntity<ErrorResponseDto> handleConstraintViolationException(ConstraintViolationException exception,
+                                                                               WebRequest webRequest) {
+        countError(exception);
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
+                apiPath(webRequest),
+                HttpStatus.BAD_REQUEST,
+                exception.getMessage(),
+                LocalDateTime.now(clock)
+        );
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
     // Este método maneja específicamente la excepción.
     // Cuando se lanza esta excepción en cualquier parte de la aplicación, este método será invocado.
     public ResponseEntity<ErrorResponseDto> handleResourceNotFoundException(ResourceNotFoundException exception,
                                                                                  WebRequest webRequest) {
+        countError(exception);
         // Se crea un objeto ErrorResponseDto que encapsula toda la información del error.
         // Este objeto será enviado como respuesta al cliente que hizo la solicitud.
 
         // Parámetros de ErrorResponseDto:
-        // 1. `webRequest.getDescription(false)` - Proporciona la descripción de la solicitud que causó el error,
-        //    sin incluir detalles de los parámetros (debido al valor `false`).
+        // 1. `apiPath(webRequest)` - Proporciona la descripción de la solicitud que causó el error,
+        //    sin incluir detalles de los parámetros (como `webRequest.getDescription(false)`).
         ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
-                webRequest.getDescription(false), // Descripción de la solicitud
+                apiPath(webRequest), // Descripción de la solicitud
                 HttpStatus.NOT_FOUND,
                 exception.getMessage(),
-                LocalDateTime.now()
+                LocalDateTime.now(clock)
         );
 
         // Devuelve un objeto ResponseEntity que encapsula el objeto ErrorResponseDto y el código de estado HTTP.
@@ -88,12 +139,137 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
     public ResponseEntity<ErrorResponseDto> handleCustomerAlreadyExistsException(CustomerAlreadyExistsException exception,
                                                                                  WebRequest webRequest) {
+        countError(exception);
         ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
-                webRequest.getDescription(false),
+                apiPath(webRequest),
                 HttpStatus.BAD_REQUEST,
                 exception.getMessage(),
-                LocalDateTime.now()
+                LocalDateTime.now(clock)
         );
         return new ResponseEntity<>(errorResponseDTO, HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(ServiceBusyException.class)
+    // Rechazo por falta de capacidad: el cliente puede reintentar más tarde.
+    public ResponseEntity<ErrorResponseDto> handleServiceBusyException(ServiceBusyException exception,
+                                                                       WebRequest webRequest) {
+        countError(exception);
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
+                apiPath(webRequest),
+                HttpStatus.SERVICE_UNAVAILABLE,
+                exception.getMessage(),
+                LocalDateTime.now(clock)
+        );
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    // El cliente superó su cuota: Retry-After indica cuándo vuelve a tener peticiones disponibles.
+    public ResponseEntity<ErrorResponseDto> handleTooManyRequestsException(TooManyRequestsException exception,
+                                                                           WebRequest webRequest) {
+        countError(exception);
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
+                apiPath(webRequest),
+                HttpStatus.TOO_MANY_REQUESTS,
+                exception.getMessage(),
+                LocalDateTime.now(clock)
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(exception.getRetryAfterSeconds()))
+                .body(errorResponseDTO);
+    }
+
+    @ExceptionHandler(RequestInProgressException.class)
+    // Otra petición con la misma Idempotency-Key sigue en curso: el cliente debe reintentar más tarde.
+    public ResponseEntity<ErrorResponseDto> handleRequestInProgressException(RequestInProgressException exception,
+                                                                             WebRequest webRequest) {
+        countError(exception);
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
+                apiPath(webRequest),
+                HttpStatus.CONFLICT,
+                exception.getMessage(),
+                LocalDateTime.now(clock)
+        );
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(CrossShardUpdateException.class)
+    // El nuevo número de móvil pertenece a otro shard: el cliente no puede moverse con una actualización.
+    public ResponseEntity<ErrorResponseDto> handleCrossShardUpdateException(CrossShardUpdateException exception,
+                                                                            WebRequest webRequest) {
+        countError(exception);
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
+                apiPath(webRequest),
+                HttpStatus.CONFLICT,
+                exception.getMessage(),
+                LocalDateTime.now(clock)
+        );
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    // La Idempotency-Key ya se usó con otro contenido: no se puede devolver la respuesta guardada.
+    public ResponseEntity<ErrorResponseDto> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException exception,
+                                                                                WebRequest webRequest) {
+        countError(exception);
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
+                apiPath(webRequest),
+                HttpStatus.UNPROCESSABLE_ENTITY,
+                exception.getMessage(),
+                LocalDateTime.now(clock)
+        );
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    // Otra petición modificó el mismo registro entre la lectura y la escritura (columna version).
+    public ResponseEntity<ErrorResponseDto> handleOptimisticLockingFailureException(OptimisticLockingFailureException exception,
+                                                                                    WebRequest webRequest) {
+        countError(exception);
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
+                apiPath(webRequest),
+                HttpStatus.CONFLICT,
+                AccountsConstants.MESSAGE_409_CONCURRENT_UPDATE,
+                LocalDateTime.now(clock)
+        );
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    // La cabecera If-Match no coincide con la versión actual: el cliente actualizó a partir de datos obsoletos.
+    public ResponseEntity<ErrorResponseDto> handlePreconditionFailedException(PreconditionFailedException exception,
+                                                                              WebRequest webRequest) {
+        countError(exception);
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
+                apiPath(webRequest),
+                HttpStatus.PRECONDITION_FAILED,
+                exception.getMessage(),
+                LocalDateTime.now(clock)
+        );
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * @return the same text as {@code webRequest.getDescription(false)}, without building it on every error
+     */
+    private String apiPath(WebRequest webRequest) {
+        Object pattern = webRequest.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        // Sin patrón (la petición no llegó a un controlador) se describe la URI recibida.
+        if (pattern == null) {
+            return webRequest.getDescription(false);
+        }
+        return apiPaths.computeIfAbsent(pattern, key -> "uri=" + key);
+    }
+
+    /**
+     * Increments accounts.errors{exception}. Counters are cached per exception type, so the
+     * lookup does not allocate a meter id on every error.
+     */
+    private void countError(Exception exception) {
+        errorCounters.computeIfAbsent(exception.getClass(), type -> Counter.builder("accounts.errors")
+                .description("Requests answered with an error, by exception type")
+                .tag("exception", type.getSimpleName())
+                .register(meterRegistry)).increment();
+    }
 }
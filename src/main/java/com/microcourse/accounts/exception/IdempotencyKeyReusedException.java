@@ -0,0 +1,12 @@
+package com.microcourse.accounts.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String message) {
+        // Sin traza de pila: se lanza en cada reintento que reutiliza una clave con otro payload.
+        super(message, null, false, false);
+    }
+}
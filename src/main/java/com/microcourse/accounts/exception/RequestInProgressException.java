@@ -0,0 +1,12 @@
+package com.microcourse.accounts.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class RequestInProgressException extends RuntimeException {
+    public RequestInProgressException(String message) {
+        // Sin traza de pila: se lanza en cada duplicado que llega mientras la petición original sigue en curso.
+        super(message, null, false, false);
+    }
+}
@@ -6,7 +6,8 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(value = HttpStatus.NOT_FOUND)
 public class ResourceNotFoundException extends RuntimeException {
     public ResourceNotFoundException(String resourceName, String fieldName, String fieldValue) {
-        super(String.format("%s not found with %s : '%s'", resourceName, fieldName, fieldValue));
-
+        // Sin traza de pila: es la respuesta esperada a un número inexistente, no un fallo del servicio,
+        // y rellenar la traza era la mayor parte del coste de cada 404.
+        super(resourceName + " not found with " + fieldName + " : '" + fieldValue + "'", null, false, false);
     }
 }
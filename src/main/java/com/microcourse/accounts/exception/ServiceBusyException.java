@@ -0,0 +1,12 @@
+package com.microcourse.accounts.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        // Sin traza de pila: bajo sobrecarga se lanza en cada petición rechazada.
+        super(message, null, false, false);
+    }
+}
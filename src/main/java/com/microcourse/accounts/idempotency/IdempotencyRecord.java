@@ -0,0 +1,18 @@
+package com.microcourse.accounts.idempotency;
+
+import com.microcourse.accounts.dto.ResponseDto;
+
+/**
+ * What an {@link IdempotencyStore} keeps per key: the fingerprint of the first request and, once it has
+ * completed, its response. Status and body are null while the first request is still running.
+ */
+public record IdempotencyRecord(String fingerprint, Integer status, ResponseDto body) {
+
+    static IdempotencyRecord pending(String fingerprint) {
+        return new IdempotencyRecord(fingerprint, null, null);
+    }
+
+    public boolean completed() {
+        return status != null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.microcourse.accounts.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Storage of Idempotency-Key records. Entries expire after {@code IDEMPOTENCY_TTL_HOURS}.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * @param key - operation-scoped idempotency key
+     * @return the record of the key, pending or completed, unless it does not exist or has expired
+     */
+    Optional<IdempotencyRecord> find(String key);
+
+    /**
+     * Atomically claims a key for a new request.
+     *
+     * @return the owner token of the reservation, or empty if the key already exists (another request owns it or
+     * has completed it)
+     */
+    Optional<String> reserve(String key, String fingerprint);
+
+    /**
+     * Stores the response of the request that reserved the key. Only the owner of the reservation can complete it.
+     */
+    void complete(String key, String owner, IdempotencyRecord record);
+
+    /**
+     * Frees a reserved key whose request failed, so a retry executes it again. Only the owner of the reservation
+     * can release it.
+     */
+    void release(String key, String owner);
+}
@@ -0,0 +1,164 @@
+package com.microcourse.accounts.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microcourse.accounts.constants.AccountsConstants;
+import com.microcourse.accounts.dto.ResponseDto;
+import com.microcourse.accounts.exception.IdempotencyKeyReusedException;
+import com.microcourse.accounts.exception.RequestInProgressException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for the mutating endpoints.
+ * <p>
+ * The first request with a key runs the operation and its response is stored; retries with the same key and
+ * payload get that response back (header {@code Idempotent-Replayed: true}) without running it again.
+ * Duplicates that arrive while the first one is still running on this instance wait for it instead of
+ * executing in parallel; if it is running on another instance they get a 409. A failed operation is not stored,
+ * so its retry executes again.
+ */
+@Component
+public class IdempotentRequests {
+
+    private final Map<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter coalesced;
+    private final Counter conflicts;
+
+    public IdempotentRequests(IdempotencyStore store, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.executed = meterRegistry.counter("accounts.idempotency", "outcome", "executed");
+        this.replayed = meterRegistry.counter("accounts.idempotency", "outcome", "replayed");
+        this.coalesced = meterRegistry.counter("accounts.idempotency", "outcome", "coalesced");
+        this.conflicts = meterRegistry.counter("accounts.idempotency", "outcome", "conflict");
+    }
+
+    /**
+     * @param idempotencyKey - value of the Idempotency-Key header; null runs the operation unconditionally
+     * @param operation - name of the endpoint, keys are scoped by it
+     * @param request - request payload, fingerprinted to detect a key reused for a different request
+     * @param action - the operation
+     * @return the response of the operation, or the stored response of the first request with this key
+     */
+    public ResponseEntity<ResponseDto> execute(String idempotencyKey, String operation, Object request,
+                                               Supplier<ResponseEntity<ResponseDto>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        String key = operation + ":" + idempotencyKey;
+        String fingerprint = fingerprint(request);
+        while (true) {
+            CompletableFuture<IdempotencyRecord> running = inFlight.get(key);
+            if (running != null) {
+                IdempotencyRecord record = await(running);
+                // null: la primera petición falló o la clave pertenece a otra instancia; se vuelve a evaluar.
+                if (record != null) {
+                    ResponseEntity<ResponseDto> response = replay(record, fingerprint);
+                    coalesced.increment();
+                    return response;
+                }
+                continue;
+            }
+            IdempotencyRecord stored = store.find(key).orElse(null);
+            if (stored != null) {
+                if (!stored.completed()) {
+                    conflicts.increment();
+                    throw new RequestInProgressException(AccountsConstants.MESSAGE_409_IN_PROGRESS);
+                }
+                return replay(stored, fingerprint);
+            }
+            CompletableFuture<IdempotencyRecord> mine = new CompletableFuture<>();
+            if (inFlight.putIfAbsent(key, mine) == null) {
+                try {
+                    return executeOnce(key, fingerprint, action, mine);
+                } finally {
+                    inFlight.remove(key, mine);
+                }
+            }
+        }
+    }
+
+    private ResponseEntity<ResponseDto> executeOnce(String key, String fingerprint,
+                                                    Supplier<ResponseEntity<ResponseDto>> action,
+                                                    CompletableFuture<IdempotencyRecord> mine) {
+        String owner = store.reserve(key, fingerprint).orElse(null);
+        if (owner == null) {
+            // Otra instancia reservó la clave entre la consulta y la reserva.
+            mine.complete(null);
+            IdempotencyRecord stored = store.find(key).orElse(null);
+            if (stored != null && stored.completed()) {
+                return replay(stored, fingerprint);
+            }
+            conflicts.increment();
+            throw new RequestInProgressException(AccountsConstants.MESSAGE_409_IN_PROGRESS);
+        }
+        IdempotencyRecord record = null;
+        try {
+            ResponseEntity<ResponseDto> response = action.get();
+            record = new IdempotencyRecord(fingerprint, response.getStatusCode().value(), response.getBody());
+            store.complete(key, owner, record);
+            executed.increment();
+            return response;
+        } catch (RuntimeException exception) {
+            // Solo se guardan las respuestas de operaciones que llegaron a ejecutarse.
+            if (record == null) {
+                store.release(key, owner);
+            }
+            throw exception;
+        } finally {
+            mine.complete(record);
+        }
+    }
+
+    private ResponseEntity<ResponseDto> replay(IdempotencyRecord record, String fingerprint) {
+        if (!record.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException(AccountsConstants.MESSAGE_422_KEY_REUSED);
+        }
+        replayed.increment();
+        return ResponseEntity.status(record.status())
+                .header(AccountsConstants.IDEMPOTENT_REPLAYED_HEADER, "true")
+                .body(record.body());
+    }
+
+    private IdempotencyRecord await(CompletableFuture<IdempotencyRecord> running) {
+        try {
+            return running.get(AccountsConstants.IDEMPOTENCY_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new RequestInProgressException(AccountsConstants.MESSAGE_409_IN_PROGRESS);
+        } catch (TimeoutException exception) {
+            conflicts.increment();
+            throw new RequestInProgressException(AccountsConstants.MESSAGE_409_IN_PROGRESS);
+        } catch (ExecutionException exception) {
+            // No ocurre: el futuro siempre se completa con un valor (null si la operación falló).
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
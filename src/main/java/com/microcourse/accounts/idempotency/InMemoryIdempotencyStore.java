@@ -0,0 +1,48 @@
+package com.microcourse.accounts.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microcourse.accounts.constants.AccountsConstants;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Default store: a bounded Caffeine cache, local to the instance. A reservation only ends when its request
+ * completes or releases it, so the owner token needs no checking here.
+ */
+@Component
+@ConditionalOnProperty(name = "accounts.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Cache<String, IdempotencyRecord> records = Caffeine.newBuilder()
+            .maximumSize(AccountsConstants.IDEMPOTENCY_MAX_KEYS)
+            .expireAfterWrite(Duration.ofHours(AccountsConstants.IDEMPOTENCY_TTL_HOURS))
+            .build();
+
+    @Override
+    public Optional<IdempotencyRecord> find(String key) {
+        return Optional.ofNullable(records.getIfPresent(key));
+    }
+
+    @Override
+    public Optional<String> reserve(String key, String fingerprint) {
+        if (records.asMap().putIfAbsent(key, IdempotencyRecord.pending(fingerprint)) != null) {
+            return Optional.empty();
+        }
+        return Optional.of(UUID.randomUUID().toString());
+    }
+
+    @Override
+    public void complete(String key, String owner, IdempotencyRecord record) {
+        records.put(key, record);
+    }
+
+    @Override
+    public void release(String key, String owner) {
+        records.invalidate(key);
+    }
+}
@@ -0,0 +1,169 @@
+package com.microcourse.accounts.idempotency;
+
+import com.microcourse.accounts.constants.AccountsConstants;
+import com.microcourse.accounts.dto.ResponseDto;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Store shared by every instance, in the {@code idempotency_key} table. The primary key makes
+ * {@link #reserve} atomic across instances; expired rows are purged by a background thread. Every time is taken
+ * from the database clock, so instances with skewed clocks agree on expiry.
+ * <p>
+ * A reservation carries an owner token and a lease that this instance renews while the request runs: a long
+ * operation keeps its key, and only a reservation whose instance stopped renewing it can be taken over. Completing
+ * and releasing are fenced by the owner token. If storing the response fails, the reservation stays leased and
+ * the response is stored again on every renewal, instead of the key expiring and the operation running twice.
+ */
+@Component
+@ConditionalOnProperty(name = "accounts.idempotency.store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcIdempotencyStore.class);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "idempotency-keys");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Reservas de esta instancia por token de dueño; response se rellena si no se pudo guardar la respuesta.
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        scheduler.scheduleWithFixedDelay(this::renewLeases, AccountsConstants.IDEMPOTENCY_LEASE_RENEW_INTERVAL_SECONDS,
+                AccountsConstants.IDEMPOTENCY_LEASE_RENEW_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::purge, AccountsConstants.IDEMPOTENCY_PURGE_INTERVAL_MINUTES,
+                AccountsConstants.IDEMPOTENCY_PURGE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> find(String key) {
+        return jdbcTemplate.query("select fingerprint, response_status, status_code, status_msg from idempotency_key "
+                        + "where idempotency_key = ? and created_at > TIMESTAMPADD(HOUR, ?, CURRENT_TIMESTAMP)",
+                (resultSet, rowNum) -> {
+                    int status = resultSet.getInt("response_status");
+                    return resultSet.wasNull() ? IdempotencyRecord.pending(resultSet.getString("fingerprint"))
+                            : new IdempotencyRecord(resultSet.getString("fingerprint"), status,
+                            new ResponseDto(resultSet.getString("status_code"), resultSet.getString("status_msg")));
+                },
+                key, -AccountsConstants.IDEMPOTENCY_TTL_HOURS).stream().findFirst();
+    }
+
+    @Override
+    public Optional<String> reserve(String key, String fingerprint) {
+        String owner = UUID.randomUUID().toString();
+        try {
+            insert(key, fingerprint, owner);
+        } catch (DuplicateKeyException exception) {
+            // La fila existente puede haber caducado, o ser una reserva abandonada (su instancia cayó y dejó de
+            // renovarla): en ese caso se reclama la clave.
+            int reclaimed = jdbcTemplate.update("delete from idempotency_key where idempotency_key = ? "
+                            + "and (created_at < TIMESTAMPADD(HOUR, ?, CURRENT_TIMESTAMP) or (response_status is null "
+                            + "and (lease_expires_at is null or lease_expires_at < CURRENT_TIMESTAMP)))",
+                    key, -AccountsConstants.IDEMPOTENCY_TTL_HOURS);
+            if (reclaimed == 0) {
+                return Optional.empty();
+            }
+            try {
+                insert(key, fingerprint, owner);
+            } catch (DuplicateKeyException concurrentReservation) {
+                return Optional.empty();
+            }
+        }
+        leases.put(owner, new Lease(key, null));
+        return Optional.of(owner);
+    }
+
+    @Override
+    public void complete(String key, String owner, IdempotencyRecord record) {
+        try {
+            store(key, owner, record);
+            leases.remove(owner);
+        } catch (RuntimeException exception) {
+            // La operación ya está confirmada: la reserva sigue renovándose y se reintenta en la próxima renovación.
+            log.warn("Could not store the response for idempotency key {}, retrying: {}", key, exception.getMessage());
+            leases.put(owner, new Lease(key, record));
+        }
+    }
+
+    @Override
+    public void release(String key, String owner) {
+        try {
+            jdbcTemplate.update("delete from idempotency_key where idempotency_key = ? and owner = ? "
+                    + "and response_status is null", key, owner);
+        } finally {
+            // Si el borrado falla, la reserva deja de renovarse y se puede reclamar cuando venza.
+            leases.remove(owner);
+        }
+    }
+
+    void renewLeases() {
+        leases.forEach((owner, lease) -> {
+            try {
+                if (lease.response() != null) {
+                    store(lease.key(), owner, lease.response());
+                    leases.remove(owner, lease);
+                } else if (jdbcTemplate.update("update idempotency_key "
+                                + "set lease_expires_at = TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP) "
+                                + "where idempotency_key = ? and owner = ? and response_status is null",
+                        AccountsConstants.IDEMPOTENCY_LEASE_SECONDS, lease.key(), owner) == 0) {
+                    // Completada o liberada mientras tanto.
+                    leases.remove(owner, lease);
+                }
+            } catch (RuntimeException exception) {
+                log.warn("Could not renew idempotency key {}: {}", lease.key(), exception.getMessage());
+            }
+        });
+    }
+
+    void purge() {
+        try {
+            int purged = jdbcTemplate.update("delete from idempotency_key "
+                    + "where created_at < TIMESTAMPADD(HOUR, ?, CURRENT_TIMESTAMP)", -AccountsConstants.IDEMPOTENCY_TTL_HOURS);
+            log.debug("Purged {} expired idempotency keys", purged);
+        } catch (RuntimeException exception) {
+            log.warn("Could not purge expired idempotency keys: {}", exception.getMessage());
+        }
+    }
+
+    private void insert(String key, String fingerprint, String owner) {
+        jdbcTemplate.update("insert into idempotency_key (idempotency_key, fingerprint, owner, created_at, lease_expires_at) "
+                        + "values (?, ?, ?, CURRENT_TIMESTAMP, TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP))",
+                key, fingerprint, owner, AccountsConstants.IDEMPOTENCY_LEASE_SECONDS);
+    }
+
+    private void store(String key, String owner, IdempotencyRecord record) {
+        int stored = jdbcTemplate.update("update idempotency_key set response_status = ?, status_code = ?, status_msg = ? "
+                        + "where idempotency_key = ? and owner = ? and response_status is null",
+                record.status(), record.body() == null ? null : record.body().getStatusCode(),
+                record.body() == null ? null : record.body().getStatusMsg(), key, owner);
+        if (stored == 0) {
+            // Solo ocurre si la renovación falló durante todo el plazo y otra petición reclamó la clave.
+            log.warn("Reservation of idempotency key {} was lost before its response was stored", key);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private record Lease(String key, IdempotencyRecord response) {
+    }
+}
@@ -2,6 +2,7 @@ package com.microcourse.accounts.mapper;
 
 import com.microcourse.accounts.dto.AccountsDto;
 import com.microcourse.accounts.entity.Accounts;
+import com.microcourse.accounts.repository.CustomerDetailsView;
 
 public class AccountsMapper {
     public static AccountsDto mapToAccountsDto(Accounts accounts, AccountsDto accountsDto) {
@@ -11,6 +12,13 @@ public class AccountsMapper {
         return accountsDto;
     }
 
+    public static AccountsDto mapToAccountsDto(CustomerDetailsView customerDetails, AccountsDto accountsDto) {
+        accountsDto.setAccountNumber(customerDetails.getAccountNumber());
+        accountsDto.setAccountType(customerDetails.getAccountType());
+        accountsDto.setBranchAddress(customerDetails.getBranchAddress());
+        return accountsDto;
+    }
+
     public static Accounts mapToAccounts(AccountsDto accountsDto, Accounts accounts) {
         accounts.setAccountNumber(accountsDto.getAccountNumber());
         accounts.setAccountType(accountsDto.getAccountType());
@@ -2,6 +2,9 @@ package com.microcourse.accounts.mapper;
 
 import com.microcourse.accounts.dto.CustomerDto;
 import com.microcourse.accounts.entity.Customer;
+import com.microcourse.accounts.repository.CustomerDetailsView;
+
+import java.util.Objects;
 
 public class CustomerMapper {
 
@@ -12,6 +15,32 @@ public class CustomerMapper {
         return customerDto;
     }
 
+    public static CustomerDto mapToCustomerDto(CustomerDetailsView customerDetails, CustomerDto customerDto) {
+        customerDto.setName(customerDetails.getName());
+        customerDto.setEmail(customerDetails.getEmail());
+        customerDto.setMobileNumber(customerDetails.getMobileNumber());
+        customerDto.setEtag(eTag(customerDetails.getCustomerId(), customerDetails.getCustomerVersion(),
+                customerDetails.getAccountVersion()));
+        return customerDto;
+    }
+
+    /**
+     * Strong ETag of a customer and its account. The versions change with every UPDATE of either row and the
+     * customer id with a delete and re-create, so equal tags mean equal contents.
+     */
+    public static String eTag(Long customerId, Long customerVersion, Long accountVersion) {
+        return "\"" + customerId + "-" + Objects.requireNonNullElse(customerVersion, 0L)
+                + "-" + Objects.requireNonNullElse(accountVersion, 0L) + "\"";
+    }
+
+    /**
+     * @param eTag - tag of the JSON representation, as returned by {@link #eTag}
+     * @return tag of the Smile representation of the same version: its bytes differ, so it needs its own strong tag
+     */
+    public static String smileETag(String eTag) {
+        return eTag.substring(0, eTag.length() - 1) + "-smile\"";
+    }
+
     public static Customer mapToCustomer(CustomerDto customerDto, Customer customer) {
         customer.setName(customerDto.getName());
         customer.setEmail(customerDto.getEmail());
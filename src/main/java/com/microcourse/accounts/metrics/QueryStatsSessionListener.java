@@ -0,0 +1,47 @@
+package com.microcourse.accounts.metrics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Hibernate session listener (registered through {@code hibernate.session.events.auto}) that
+ * counts and times JDBC statements and flushes for the current request.
+ */
+public class QueryStatsSessionListener implements SessionEventListener {
+
+    private long statementStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        statementExecuted();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        statementExecuted();
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            stats.flushed();
+        }
+    }
+
+    private void statementExecuted() {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            stats.statementExecuted(System.nanoTime() - statementStart);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.microcourse.accounts.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Per-request database activity, collected from Hibernate callbacks on the request thread
+ * and published by {@link RequestQueryStatsFilter}.
+ * <p>
+ * Work the request hands to other threads (e.g. the per-shard queries of
+ * {@link com.microcourse.accounts.sharding.ScatterGather}) is only counted when it runs through
+ * {@link #callWith(RequestQueryStats, Supplier)}; anything else on another thread is not attributed to the request.
+ */
+public final class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    // Atómicos: las consultas por shard de una misma petición se cuentan desde varios hilos a la vez.
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicLong statementNanos = new AtomicLong();
+    private final AtomicInteger entitiesLoaded = new AtomicInteger();
+    private final AtomicInteger flushes = new AtomicInteger();
+
+    private RequestQueryStats() {
+    }
+
+    /**
+     * @return the stats of the request running on this thread, or null outside a request
+     */
+    public static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    static RequestQueryStats start() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Runs part of a request on the current (worker) thread, counting its database activity in the request's stats.
+     *
+     * @param stats - stats of the request, taken with {@link #current()} on the request thread; null outside a request
+     * @param task - the work
+     * @return the result of the task
+     */
+    public static <T> T callWith(RequestQueryStats stats, Supplier<T> task) {
+        RequestQueryStats previous = CURRENT.get();
+        if (stats == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(stats);
+        }
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    void statementExecuted(long nanos) {
+        statements.incrementAndGet();
+        statementNanos.addAndGet(nanos);
+    }
+
+    void entityLoaded() {
+        entitiesLoaded.incrementAndGet();
+    }
+
+    void flushed() {
+        flushes.incrementAndGet();
+    }
+
+    public int getStatements() {
+        return statements.get();
+    }
+
+    public long getStatementNanos() {
+        return statementNanos.get();
+    }
+
+    public int getEntitiesLoaded() {
+        return entitiesLoaded.get();
+    }
+
+    public int getFlushes() {
+        return flushes.get();
+    }
+}
@@ -0,0 +1,53 @@
+package com.microcourse.accounts.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes, per endpoint, how many SQL statements, entity loads and flushes each request needed
+ * and how long its statements took ({@code accounts.request.*} metrics).
+ */
+@Component
+@AllArgsConstructor
+public class RequestQueryStatsFilter extends OncePerRequestFilter {
+
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestQueryStats stats = RequestQueryStats.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestQueryStats.end();
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestQueryStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("uri", pattern == null ? "UNKNOWN" : pattern.toString(), "method", request.getMethod());
+        DistributionSummary.builder("accounts.request.sql.statements").tags(tags)
+                .register(meterRegistry).record(stats.getStatements());
+        DistributionSummary.builder("accounts.request.entities.loaded").tags(tags)
+                .register(meterRegistry).record(stats.getEntitiesLoaded());
+        DistributionSummary.builder("accounts.request.flushes").tags(tags)
+                .register(meterRegistry).record(stats.getFlushes());
+        Timer.builder("accounts.request.sql.time").tags(tags)
+                .register(meterRegistry).record(stats.getStatementNanos(), TimeUnit.NANOSECONDS);
+    }
+}
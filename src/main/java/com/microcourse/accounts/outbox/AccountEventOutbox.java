@@ -0,0 +1,169 @@
+package com.microcourse.accounts.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microcourse.accounts.dto.AccountsDto;
+import com.microcourse.accounts.dto.CustomerDto;
+import com.microcourse.accounts.entity.Accounts;
+import com.microcourse.accounts.entity.Customer;
+import com.microcourse.accounts.entity.OutboxEvent;
+import com.microcourse.accounts.mapper.AccountsMapper;
+import com.microcourse.accounts.mapper.CustomerMapper;
+import com.microcourse.accounts.repository.CustomerKey;
+import com.microcourse.accounts.repository.OutboxEventRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes account events to the outbox table. Every method must run inside the transaction that makes
+ * the change, so the event is committed (or rolled back) together with it.
+ * <p>
+ * Events are keyed by the customer id, which never changes, so a customer keeps a single stream even if the
+ * mobile number does. Each event takes the next version of its customer from {@code outbox_aggregate}. The
+ * counter row stays locked until the transaction ends, so a customer's versions are consecutive and follow
+ * commit order, which event ids (pooled sequence blocks per instance) do not. {@link OutboxRelay} removes
+ * the counter once the customer's ACCOUNT_DELETED event is published.
+ */
+@Component
+@AllArgsConstructor
+public class AccountEventOutbox {
+
+    public static final String ACCOUNT_CREATED = "ACCOUNT_CREATED";
+    public static final String ACCOUNT_UPDATED = "ACCOUNT_UPDATED";
+    public static final String ACCOUNT_DELETED = "ACCOUNT_DELETED";
+
+    private OutboxEventRepository outboxEventRepository;
+    private ObjectMapper objectMapper;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void accountCreated(Customer customer, Accounts accounts) {
+        accountsCreated(List.of(customer), List.of(accounts));
+    }
+
+    /**
+     * Bulk form of {@link #accountCreated}: the versions of all the customers are taken with a few statements.
+     *
+     * @param accounts - the account of each customer, in the same order
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void accountsCreated(List<Customer> customers, List<Accounts> accounts) {
+        List<String> keys = customers.stream().map(customer -> aggregateKey(customer.getCustomerId())).toList();
+        Map<String, Long> versions = nextVersions(keys);
+        for (int i = 0; i < customers.size(); i++) {
+            outboxEventRepository.save(newEvent(ACCOUNT_CREATED, keys.get(i), versions.get(keys.get(i)),
+                    toCustomerDto(customers.get(i), accounts.get(i))));
+        }
+    }
+
+    /**
+     * @param customer - the customer with the new values; a changed mobile number stays in the same stream
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void accountUpdated(Customer customer, Accounts accounts) {
+        String key = aggregateKey(customer.getCustomerId());
+        outboxEventRepository.save(newEvent(ACCOUNT_UPDATED, key, nextVersions(List.of(key)).get(key),
+                toCustomerDto(customer, accounts)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void accountDeleted(CustomerKey customerKey) {
+        accountsDeleted(List.of(customerKey));
+    }
+
+    /**
+     * @param customerKeys - id and mobile number of each deleted customer
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void accountsDeleted(Collection<CustomerKey> customerKeys) {
+        Map<String, Long> versions = nextVersions(customerKeys.stream()
+                .map(customerKey -> aggregateKey(customerKey.getCustomerId())).toList());
+        for (CustomerKey customerKey : customerKeys) {
+            String key = aggregateKey(customerKey.getCustomerId());
+            outboxEventRepository.save(newEvent(ACCOUNT_DELETED, key, versions.get(key),
+                    deletedPayload(customerKey.getMobileNumber())));
+        }
+    }
+
+    /**
+     * @return the key of a customer's events and outbox counter
+     */
+    public static String aggregateKey(Long customerId) {
+        return customerId.toString();
+    }
+
+    /**
+     * @param aggregateKey - see {@link #aggregateKey(Long)}
+     * @return an unsaved event; also used by the R2DBC service, which inserts it with its own SQL
+     */
+    public OutboxEvent newEvent(String eventType, String aggregateKey, long aggregateVersion, CustomerDto payload) {
+        try {
+            return new OutboxEvent(null, aggregateKey, aggregateVersion, eventType, objectMapper.writeValueAsString(payload),
+                    LocalDateTime.now());
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Locks the counter rows of the given customers and takes their next version; a customer without a row
+     * starts at 1.
+     *
+     * @return the new version of each key
+     */
+    private Map<String, Long> nextVersions(Collection<String> keys) {
+        Map<String, Long> versions = new HashMap<>();
+        if (keys.isEmpty()) {
+            return versions;
+        }
+        jdbcTemplate.query("select aggregate_key, last_version from outbox_aggregate where aggregate_key in (:keys) for update",
+                Map.of("keys", keys),
+                resultSet -> {
+                    versions.put(resultSet.getString(1), resultSet.getLong(2) + 1);
+                });
+        List<SqlParameterSource> updated = new ArrayList<>();
+        List<SqlParameterSource> inserted = new ArrayList<>();
+        for (String key : keys) {
+            Long version = versions.putIfAbsent(key, 1L);
+            (version == null ? inserted : updated).add(new MapSqlParameterSource()
+                    .addValue("key", key)
+                    .addValue("version", versions.get(key)));
+        }
+        if (!updated.isEmpty()) {
+            jdbcTemplate.batchUpdate("update outbox_aggregate set last_version = :version where aggregate_key = :key",
+                    updated.toArray(new SqlParameterSource[0]));
+        }
+        if (!inserted.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into outbox_aggregate (aggregate_key, last_version) values (:key, :version)",
+                    inserted.toArray(new SqlParameterSource[0]));
+        }
+        return versions;
+    }
+
+    /**
+     * @return the payload of an ACCOUNT_DELETED event: only the mobile number
+     */
+    public static CustomerDto deletedPayload(String mobileNumber) {
+        CustomerDto customerDto = new CustomerDto();
+        customerDto.setMobileNumber(mobileNumber);
+        return customerDto;
+    }
+
+    private static CustomerDto toCustomerDto(Customer customer, Accounts accounts) {
+        CustomerDto customerDto = CustomerMapper.mapToCustomerDto(customer, new CustomerDto());
+        customerDto.setAccountsDto(AccountsMapper.mapToAccountsDto(accounts, new AccountsDto()));
+        return customerDto;
+    }
+}
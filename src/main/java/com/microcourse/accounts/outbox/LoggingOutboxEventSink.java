@@ -0,0 +1,25 @@
+package com.microcourse.accounts.outbox;
+
+import com.microcourse.accounts.entity.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Local stand-in for a message broker: writes each event as one line of the {@code accounts.outbox} logger.
+ * A broker-backed {@link OutboxEventSink} declared as {@code @Primary} replaces it.
+ */
+@Component
+public class LoggingOutboxEventSink implements OutboxEventSink {
+
+    private static final Logger log = LoggerFactory.getLogger("accounts.outbox");
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            log.info("{} {} {} {}", event.getEventId(), event.getEventType(), event.getAggregateKey(), event.getPayload());
+        }
+    }
+}
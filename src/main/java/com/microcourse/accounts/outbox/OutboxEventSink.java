@@ -0,0 +1,20 @@
+package com.microcourse.accounts.outbox;
+
+import com.microcourse.accounts.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination of the account events drained by {@link OutboxRelay} (a message broker in production).
+ * Delivery is at-least-once: a batch is published again if the relay fails before removing it
+ * from the outbox, so consumers must tolerate duplicates (the event id identifies each event).
+ */
+public interface OutboxEventSink {
+
+    /**
+     * Publishes a batch, in order. Throwing leaves the whole batch in the outbox to be retried.
+     *
+     * @param events - events grouped by customer, each customer's in aggregate version order
+     */
+    void publish(List<OutboxEvent> events);
+}
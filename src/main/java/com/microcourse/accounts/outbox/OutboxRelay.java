@@ -0,0 +1,158 @@
+package com.microcourse.accounts.outbox;
+
+import com.microcourse.accounts.constants.AccountsConstants;
+import com.microcourse.accounts.entity.OutboxEvent;
+import com.microcourse.accounts.repository.OutboxEventRepository;
+import com.microcourse.accounts.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the outbox into the {@link OutboxEventSink}.
+ * <p>
+ * A single background thread publishes batches and deletes them in the same transaction. Each batch takes the
+ * customers of the oldest events by id and sends their pending events in aggregate version order, so each
+ * customer's events are delivered in commit order; if publishing or the delete fails the batch stays in the
+ * outbox and is sent again (at-least-once). Publishing a customer's ACCOUNT_DELETED event also removes its
+ * version counter. Only the instance holding the lease in {@code outbox_relay_lease} publishes: the others
+ * find it taken until it expires. With sharding each shard keeps its own outbox and lease, and they are
+ * drained one after another.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final ScheduledExecutorService relay = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Antigüedad (ms) del evento pendiente más antiguo en la última pasada.
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final String owner = UUID.randomUUID().toString();
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxEventSink outboxEventSink;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final Counter published;
+    private final Counter failures;
+    private final Timer batchTimer;
+    private final Timer deliveryDelay;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxEventSink outboxEventSink,
+                       TransactionTemplate transactionTemplate, ShardRouter shardRouter, MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxEventSink = outboxEventSink;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.published = meterRegistry.counter("accounts.outbox.published");
+        this.failures = meterRegistry.counter("accounts.outbox.publish.failures");
+        this.batchTimer = meterRegistry.timer("accounts.outbox.batch");
+        this.deliveryDelay = meterRegistry.timer("accounts.outbox.delivery.delay");
+        TimeGauge.builder("accounts.outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::doubleValue)
+                .description("Age of the oldest event still waiting in the outbox")
+                .register(meterRegistry);
+        relay.scheduleWithFixedDelay(this::drain, AccountsConstants.OUTBOX_POLL_INTERVAL_MS,
+                AccountsConstants.OUTBOX_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publishes batches of each shard until its outbox is empty or a batch fails.
+     */
+    synchronized void drain() {
+        long oldest = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            // Un shard que falla no retrasa los eventos de los demás.
+            oldest = Math.max(oldest, shardRouter.onShard(shard, this::drainShard));
+        }
+        lagMillis.set(oldest);
+    }
+
+    /**
+     * @return age (ms) of the oldest event pending on the current shard at the start of the pass
+     */
+    private long drainShard() {
+        long[] oldest = new long[1];
+        try {
+            int sent;
+            do {
+                sent = batchTimer.record(() -> relayBatch(oldest));
+            } while (sent == AccountsConstants.OUTBOX_BATCH_SIZE);
+        } catch (RuntimeException exception) {
+            failures.increment();
+            log.warn("Outbox batch not published, retrying in {} ms: {}", AccountsConstants.OUTBOX_POLL_INTERVAL_MS,
+                    exception.getMessage());
+        }
+        return oldest[0];
+    }
+
+    /**
+     * @param oldest - age (ms) of the oldest pending event; updated by the first batch
+     * @return number of events published
+     */
+    private int relayBatch(long[] oldest) {
+        Integer sent = transactionTemplate.execute(status -> {
+            if (outboxEventRepository.claimRelayLease(owner, AccountsConstants.OUTBOX_LEASE_SECONDS) == 0) {
+                return 0;
+            }
+            Limit batch = Limit.of(AccountsConstants.OUTBOX_BATCH_SIZE);
+            // Los event_id no siguen el orden de commit: solo sirven para elegir los clientes, cuyos eventos salen
+            // por versión, empezando siempre por el más antiguo pendiente de cada uno.
+            Set<String> aggregateKeys = outboxEventRepository.findByOrderByEventIdAsc(batch).stream()
+                    .map(OutboxEvent::getAggregateKey)
+                    .collect(Collectors.toSet());
+            if (aggregateKeys.isEmpty()) {
+                return 0;
+            }
+            List<OutboxEvent> events = outboxEventRepository
+                    .findByAggregateKeyInOrderByAggregateKeyAscAggregateVersionAsc(aggregateKeys, batch);
+            LocalDateTime now = LocalDateTime.now();
+            for (OutboxEvent event : events) {
+                oldest[0] = Math.max(oldest[0], Duration.between(event.getCreatedAt(), now).toMillis());
+            }
+            outboxEventSink.publish(events);
+            outboxEventRepository.deleteByEventIdIn(events.stream().map(OutboxEvent::getEventId).toList());
+            // Un cliente borrado no tendrá más eventos: su contador ya no hace falta.
+            List<String> deletedKeys = events.stream()
+                    .filter(event -> AccountEventOutbox.ACCOUNT_DELETED.equals(event.getEventType()))
+                    .map(OutboxEvent::getAggregateKey)
+                    .toList();
+            if (!deletedKeys.isEmpty()) {
+                outboxEventRepository.deleteAggregatesWithoutEvents(deletedKeys);
+            }
+            for (OutboxEvent event : events) {
+                deliveryDelay.record(Duration.between(event.getCreatedAt(), now));
+            }
+            return events.size();
+        });
+        published.increment(sent);
+        return sent;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        relay.shutdown();
+        relay.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,63 @@
+package com.microcourse.accounts.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.microcourse.accounts.constants.AccountsConstants;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket per client id.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} updated with compare-and-set (the GCRA formulation of a token
+ * bucket), so admitting a request takes no lock and allocates nothing. The buckets live in a bounded Caffeine
+ * cache that expires idle clients, so a scan with many distinct client ids cannot grow the map without limit.
+ */
+@Component
+public class ClientRateLimiter {
+
+    private static final long EMISSION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1) / AccountsConstants.RATE_LIMIT_REQUESTS_PER_SECOND;
+    private static final long BURST_TOLERANCE_NANOS = EMISSION_INTERVAL_NANOS * AccountsConstants.RATE_LIMIT_BURST;
+
+    private final LoadingCache<String, TokenBucket> buckets = Caffeine.newBuilder()
+            .maximumSize(AccountsConstants.RATE_LIMIT_MAX_CLIENTS)
+            .expireAfterAccess(Duration.ofMinutes(AccountsConstants.RATE_LIMIT_IDLE_EXPIRY_MINUTES))
+            .build(clientId -> new TokenBucket(System.nanoTime()));
+
+    /**
+     * @param clientId - caller identity
+     * @return 0 if the request is admitted, otherwise the nanoseconds until the client gets a new token
+     */
+    public long tryAcquire(String clientId) {
+        return buckets.get(clientId).tryAcquire(System.nanoTime());
+    }
+
+    static final class TokenBucket {
+
+        // Instante teórico en que el cubo vuelve a estar lleno. Cada petición lo adelanta un intervalo;
+        // se rechaza si quedaría más de una ráfaga por delante del reloj.
+        private final AtomicLong theoreticalArrival;
+
+        TokenBucket(long now) {
+            this.theoreticalArrival = new AtomicLong(now);
+        }
+
+        long tryAcquire(long now) {
+            while (true) {
+                long arrival = theoreticalArrival.get();
+                // Comparación por diferencia: System.nanoTime() puede ser negativo.
+                long next = (arrival - now > 0 ? arrival : now) + EMISSION_INTERVAL_NANOS;
+                long ahead = next - now;
+                if (ahead > BURST_TOLERANCE_NANOS) {
+                    return ahead - BURST_TOLERANCE_NANOS;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.microcourse.accounts.ratelimit;
+
+import com.microcourse.accounts.constants.AccountsConstants;
+import com.microcourse.accounts.datasource.ReplicaDataSource;
+import com.microcourse.accounts.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptive cap on the requests in flight (AIMD).
+ * <p>
+ * The congestion signal is the JDBC pools themselves (primary, replicas and shards): while more threads are
+ * waiting for a connection than the pools hold, i.e. a request would wait longer than about one query for its
+ * connection, the limit shrinks by 10% (at most once per interval); while the pools keep up and the limit is being
+ * used it grows by one. A shorter queue is tolerated: a request only holds its connection for part of its life,
+ * so a brief wait does not mean the pools are saturated. Requests over the limit are shed straight away instead
+ * of queueing for a connection.
+ */
+@Component
+public class ConcurrencyLimiter {
+
+    private static final long DECREASE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(AccountsConstants.CONCURRENCY_LIMIT_DECREASE_INTERVAL_MS);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger limit = new AtomicInteger(AccountsConstants.CONCURRENCY_LIMIT_INITIAL);
+    private final AtomicLong lastDecrease = new AtomicLong(System.nanoTime());
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    public ConcurrencyLimiter(HikariDataSource primaryDataSource, ObjectProvider<ReplicaDataSource> replicaDataSource,
+                              ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource, MeterRegistry meterRegistry) {
+        pools.add(primaryDataSource);
+        replicaDataSource.ifAvailable(replicas -> pools.addAll(replicas.pools()));
+        // El shard 0 es el pool primario: ya está en la lista.
+        shardRoutingDataSource.ifAvailable(shards -> pools.addAll(shards.pools().subList(1, shards.shardCount())));
+        meterRegistry.gauge("accounts.concurrency.limit", limit);
+        meterRegistry.gauge("accounts.concurrency.in.flight", inFlight);
+        meterRegistry.gauge("accounts.concurrency.queued", this, ConcurrencyLimiter::threadsAwaitingConnection);
+    }
+
+    /**
+     * @return true if the request may proceed; it must then call {@link #release()} when it completes
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        int current = inFlight.getAndDecrement();
+        if (threadsAwaitingConnection() > poolCapacity()) {
+            long now = System.nanoTime();
+            long last = lastDecrease.get();
+            // Una sola reducción por intervalo: todas las peticiones que terminan durante la misma congestión
+            // no deben hundir el límite a la vez.
+            if (now - last >= DECREASE_INTERVAL_NANOS && lastDecrease.compareAndSet(last, now)) {
+                limit.updateAndGet(value -> Math.max(AccountsConstants.CONCURRENCY_LIMIT_MIN, value * 9 / 10));
+            }
+        } else if (current >= limit.get()) {
+            // Solo crece si el límite actual se estaba usando entero.
+            limit.updateAndGet(value -> Math.min(AccountsConstants.CONCURRENCY_LIMIT_MAX, value + 1));
+        }
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    private int threadsAwaitingConnection() {
+        int waiting = 0;
+        for (HikariDataSource dataSource : pools) {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            // Null hasta que el pool se inicia con la primera conexión.
+            waiting += pool == null ? 0 : pool.getThreadsAwaitingConnection();
+        }
+        return waiting;
+    }
+
+    private int poolCapacity() {
+        int capacity = 0;
+        for (HikariDataSource dataSource : pools) {
+            capacity += dataSource.getMaximumPoolSize();
+        }
+        return capacity;
+    }
+}
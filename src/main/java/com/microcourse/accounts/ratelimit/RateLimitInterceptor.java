@@ -0,0 +1,98 @@
+package com.microcourse.accounts.ratelimit;
+
+import com.microcourse.accounts.config.RateLimitProperties;
+import com.microcourse.accounts.constants.AccountsConstants;
+import com.microcourse.accounts.exception.ServiceBusyException;
+import com.microcourse.accounts.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.security.Principal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the account controllers: per-client rate limit first (429), then the adaptive
+ * concurrency limit (503). Rejections are thrown as exceptions so GlobalExceptionHandler answers them in the
+ * usual ErrorResponseDto format.
+ * <p>
+ * The client is the authenticated user when there is one. Otherwise X-Client-Id is only trusted from the gateways
+ * listed in accounts.rate-limit.trusted-proxies: a caller reaching the service directly could rotate it to get a
+ * fresh bucket on every request, so its own remote address is used instead. The resolved client is kept in the
+ * request ({@link AccountsConstants#CALLER_ID_ATTRIBUTE}) as the actor of its audit events.
+ */
+@Component
+public class RateLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ADMITTED_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".admitted";
+
+    private final ClientRateLimiter clientRateLimiter;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final Set<String> trustedProxies;
+    private final Counter admitted;
+    private final Counter rateLimited;
+    private final Counter shed;
+
+    public RateLimitInterceptor(ClientRateLimiter clientRateLimiter, ConcurrencyLimiter concurrencyLimiter,
+                                RateLimitProperties rateLimitProperties, MeterRegistry meterRegistry) {
+        this.clientRateLimiter = clientRateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.trustedProxies = Set.copyOf(rateLimitProperties.trustedProxies());
+        this.admitted = meterRegistry.counter("accounts.admission", "outcome", "admitted");
+        this.rateLimited = meterRegistry.counter("accounts.admission", "outcome", "rate_limited");
+        this.shed = meterRegistry.counter("accounts.admission", "outcome", "shed");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Las respuestas reactivas vuelven a pasar por aquí al completarse (despacho ASYNC): ya fueron admitidas.
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        String clientId = clientId(request);
+        // La misma identidad firma los eventos de auditoría de la petición (ver AuditTrail#currentActor).
+        request.setAttribute(AccountsConstants.CALLER_ID_ATTRIBUTE, clientId);
+        long waitNanos = clientRateLimiter.tryAcquire(clientId);
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            // Segundos redondeados hacia arriba para la cabecera Retry-After.
+            throw new TooManyRequestsException(AccountsConstants.MESSAGE_429, TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1);
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            shed.increment();
+            throw new ServiceBusyException(AccountsConstants.MESSAGE_503_OVERLOADED);
+        }
+        request.setAttribute(ADMITTED_ATTRIBUTE, Boolean.TRUE);
+        admitted.increment();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED_ATTRIBUTE) != null) {
+            request.removeAttribute(ADMITTED_ATTRIBUTE);
+            concurrencyLimiter.release();
+        }
+    }
+
+    // Los prefijos evitan que un X-Client-Id coincida con el nombre de un usuario o con una dirección.
+    private String clientId(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        String remoteAddress = request.getRemoteAddr();
+        if (trustedProxies.contains(remoteAddress)) {
+            String clientId = request.getHeader(AccountsConstants.CLIENT_ID_HEADER);
+            if (clientId != null && !clientId.isBlank()) {
+                return "client:" + clientId;
+            }
+        }
+        return remoteAddress;
+    }
+}
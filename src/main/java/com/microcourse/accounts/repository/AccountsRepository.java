@@ -5,14 +5,38 @@ import com.microcourse.accounts.entity.Accounts;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
 public interface AccountsRepository extends JpaRepository<Accounts, Long> {
     Optional<Accounts> findByCustomerId(Long customerId);
 
+    /**
+     * Loads an account and its customer in a single query; both stay managed so that
+     * dirty checking can update only what changed.
+     *
+     * @param accountNumber - account number
+     * @return the account with its customer, if the account exists
+     */
+    @Query("select new com.microcourse.accounts.repository.CustomerAccounts(a, c) "
+            + "from Accounts a left join Customer c on c.customerId = a.customerId "
+            + "where a.accountNumber = :accountNumber")
+    Optional<CustomerAccounts> findWithCustomerByAccountNumber(@Param("accountNumber") Long accountNumber);
+
+    /**
+     * Bulk JPQL delete of the accounts of the given customers: a single DELETE statement,
+     * without loading the entities first.
+     *
+     * @param mobileNumbers - mobile numbers of the customers whose accounts are removed
+     * @return number of accounts deleted
+     */
     @Transactional @Modifying
-    void deleteByCustomerId(Long customerId);
-}
\ No newline at end of file
+    @Query("delete from Accounts a where a.customerId in "
+            + "(select c.customerId from Customer c where c.mobileNumber in :mobileNumbers)")
+    int deleteByMobileNumberIn(@Param("mobileNumbers") Collection<String> mobileNumbers);
+}
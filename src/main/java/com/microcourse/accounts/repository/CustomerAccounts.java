@@ -0,0 +1,14 @@
+package com.microcourse.accounts.repository;
+
+import com.microcourse.accounts.entity.Accounts;
+import com.microcourse.accounts.entity.Customer;
+
+/**
+ * An account and its customer, loaded together as managed entities by
+ * {@link AccountsRepository#findWithCustomerByAccountNumber(Long)}.
+ *
+ * @param accounts - the account
+ * @param customer - its customer, or null if the account is orphaned
+ */
+public record CustomerAccounts(Accounts accounts, Customer customer) {
+}
@@ -0,0 +1,29 @@
+package com.microcourse.accounts.repository;
+
+/**
+ * Read-only projection of a customer joined with its account, as returned by
+ * {@link CustomerRepository#findDetailsByMobileNumber(String)},
+ * {@link CustomerRepository#findDetailsByMobileNumberIn(java.util.Collection)} and
+ * {@link CustomerRepository#streamAllDetails()}.
+ * The account columns are null when the customer has no account.
+ */
+public interface CustomerDetailsView {
+
+    String getName();
+
+    String getEmail();
+
+    String getMobileNumber();
+
+    Long getCustomerId();
+
+    Long getAccountNumber();
+
+    String getAccountType();
+
+    String getBranchAddress();
+
+    Long getCustomerVersion();
+
+    Long getAccountVersion();
+}
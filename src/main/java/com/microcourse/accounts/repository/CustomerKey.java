@@ -0,0 +1,11 @@
+package com.microcourse.accounts.repository;
+
+/**
+ * Identity of a customer, as returned by {@link CustomerRepository#findKeysByMobileNumberIn(java.util.Collection)}.
+ */
+public interface CustomerKey {
+
+    Long getCustomerId();
+
+    String getMobileNumber();
+}
@@ -3,14 +3,98 @@ package com.microcourse.accounts.repository;
 
 import com.microcourse.accounts.entity.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomerSearchRepository {
 
     Optional<Customer> findByMobileNumber(String mobileNumber);
 
+    /**
+     * Resolves a mobile number to the customer and its account in a single query,
+     * without loading managed entities.
+     *
+     * @param mobileNumber - Input Mobile Number
+     * @return the joined customer/account columns, if the customer exists
+     */
+    @Query("select c.customerId as customerId, c.name as name, c.email as email, c.mobileNumber as mobileNumber, "
+            + "a.accountNumber as accountNumber, a.accountType as accountType, a.branchAddress as branchAddress, "
+            + "c.version as customerVersion, a.version as accountVersion "
+            + "from Customer c left join Accounts a on a.customerId = c.customerId "
+            + "where c.mobileNumber = :mobileNumber")
+    Optional<CustomerDetailsView> findDetailsByMobileNumber(@Param("mobileNumber") String mobileNumber);
 
-}
\ No newline at end of file
+    /**
+     * Multi-get variant of {@link #findDetailsByMobileNumber(String)}: one query for the whole set.
+     *
+     * @param mobileNumbers - mobile numbers to resolve
+     * @return the joined customer/account columns of the customers that exist, in no particular order
+     */
+    @Query("select c.customerId as customerId, c.name as name, c.email as email, c.mobileNumber as mobileNumber, "
+            + "a.accountNumber as accountNumber, a.accountType as accountType, a.branchAddress as branchAddress, "
+            + "c.version as customerVersion, a.version as accountVersion "
+            + "from Customer c left join Accounts a on a.customerId = c.customerId "
+            + "where c.mobileNumber in :mobileNumbers")
+    List<CustomerDetailsView> findDetailsByMobileNumberIn(@Param("mobileNumbers") Collection<String> mobileNumbers);
+
+    /**
+     * Bulk JPQL delete of customers by mobile number, without loading the entities first.
+     * Their accounts must be removed before, see {@link AccountsRepository#deleteByMobileNumberIn(Collection)}.
+     *
+     * @param mobileNumbers - mobile numbers of the customers to remove
+     * @return number of customers deleted
+     */
+    @Transactional @Modifying
+    @Query("delete from Customer c where c.mobileNumber in :mobileNumbers")
+    int deleteByMobileNumberIn(@Param("mobileNumbers") Collection<String> mobileNumbers);
+
+    /**
+     * Set-based existence check used by the bulk onboarding path.
+     *
+     * @param mobileNumbers - candidate mobile numbers
+     * @return the subset of the given mobile numbers that are already registered
+     */
+    @Query("select c.mobileNumber from Customer c where c.mobileNumber in :mobileNumbers")
+    Set<String> findExistingMobileNumbers(@Param("mobileNumbers") Collection<String> mobileNumbers);
+
+    /**
+     * Ids of the given customers, read before a bulk delete so its audit events can name the deleted rows.
+     *
+     * @param mobileNumbers - candidate mobile numbers
+     * @return one element per registered customer among the given mobile numbers
+     */
+    @Query("select c.customerId as customerId, c.mobileNumber as mobileNumber from Customer c where c.mobileNumber in :mobileNumbers")
+    List<CustomerKey> findKeysByMobileNumberIn(@Param("mobileNumbers") Collection<String> mobileNumbers);
+
+    /**
+     * Forward-only stream over every customer and its account, ordered by customer id.
+     * Must be consumed (and closed) inside a read-only transaction.
+     *
+     * @return the joined customer/account columns, one element per customer
+     */
+    @Query("select c.customerId as customerId, c.name as name, c.email as email, c.mobileNumber as mobileNumber, "
+            + "a.accountNumber as accountNumber, a.accountType as accountType, a.branchAddress as branchAddress, "
+            + "c.version as customerVersion, a.version as accountVersion "
+            + "from Customer c left join Accounts a on a.customerId = c.customerId "
+            + "order by c.customerId")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<CustomerDetailsView> streamAllDetails();
+
+}
@@ -0,0 +1,12 @@
+package com.microcourse.accounts.repository;
+
+/**
+ * Optional filters of {@link CustomerSearchRepository#search}; null fields are ignored.
+ *
+ * @param namePrefix - start of the customer name (case-sensitive)
+ * @param emailPrefix - start of the email address
+ * @param accountType - exact account type
+ * @param branchAddress - exact branch address
+ */
+public record CustomerSearchCriteria(String namePrefix, String emailPrefix, String accountType, String branchAddress) {
+}
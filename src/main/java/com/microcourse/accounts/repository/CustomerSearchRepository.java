@@ -0,0 +1,21 @@
+package com.microcourse.accounts.repository;
+
+import java.util.List;
+
+/**
+ * Custom fragment of {@link CustomerRepository}: the search query is built from the filters actually
+ * given, so each combination gets a plan that can use its index.
+ */
+public interface CustomerSearchRepository {
+
+    /**
+     * Keyset (seek) pagination: the next page starts after the last customer id of the previous one,
+     * so deep pages cost the same as the first one (no OFFSET).
+     *
+     * @param criteria - filters, all optional
+     * @param afterCustomerId - last customer id of the previous page, or null for the first page
+     * @param limit - maximum number of rows
+     * @return matching customers with their account, ordered by customer id
+     */
+    List<CustomerDetailsView> search(CustomerSearchCriteria criteria, Long afterCustomerId, int limit);
+}
@@ -0,0 +1,59 @@
+package com.microcourse.accounts.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.AllArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@AllArgsConstructor
+class CustomerSearchRepositoryImpl implements CustomerSearchRepository {
+
+    private EntityManager entityManager;
+
+    @Override
+    public List<CustomerDetailsView> search(CustomerSearchCriteria criteria, Long afterCustomerId, int limit) {
+        List<String> predicates = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        if (afterCustomerId != null) {
+            predicates.add("c.customerId > :afterCustomerId");
+            parameters.put("afterCustomerId", afterCustomerId);
+        }
+        if (criteria.namePrefix() != null) {
+            predicates.add("c.name like :namePattern escape '\\'");
+            parameters.put("namePattern", prefixPattern(criteria.namePrefix()));
+        }
+        if (criteria.emailPrefix() != null) {
+            predicates.add("c.email like :emailPattern escape '\\'");
+            parameters.put("emailPattern", prefixPattern(criteria.emailPrefix()));
+        }
+        if (criteria.accountType() != null) {
+            predicates.add("a.accountType = :accountType");
+            parameters.put("accountType", criteria.accountType());
+        }
+        if (criteria.branchAddress() != null) {
+            predicates.add("a.branchAddress = :branchAddress");
+            parameters.put("branchAddress", criteria.branchAddress());
+        }
+
+        String jpql = "select new com.microcourse.accounts.repository.CustomerSearchRow(c.customerId, c.name, c.email, "
+                + "c.mobileNumber, a.accountNumber, a.accountType, a.branchAddress, c.version, a.version) "
+                + "from Customer c left join Accounts a on a.customerId = c.customerId "
+                + (predicates.isEmpty() ? "" : "where " + String.join(" and ", predicates) + " ")
+                + "order by c.customerId";
+        TypedQuery<CustomerSearchRow> query = entityManager.createQuery(jpql, CustomerSearchRow.class)
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        parameters.forEach(query::setParameter);
+        return new ArrayList<>(query.getResultList());
+    }
+
+    // Los comodines que escriba el usuario se buscan literalmente: solo el % final es un comodín.
+    private static String prefixPattern(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
@@ -0,0 +1,55 @@
+package com.microcourse.accounts.repository;
+
+/**
+ * {@link CustomerDetailsView} built by the dynamic search query (a JPQL constructor expression), so the
+ * search results go through the same mappers as the other projections.
+ */
+public record CustomerSearchRow(Long customerId, String name, String email, String mobileNumber,
+                                Long accountNumber, String accountType, String branchAddress,
+                                Long customerVersion, Long accountVersion) implements CustomerDetailsView {
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getEmail() {
+        return email;
+    }
+
+    @Override
+    public String getMobileNumber() {
+        return mobileNumber;
+    }
+
+    @Override
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    @Override
+    public Long getAccountNumber() {
+        return accountNumber;
+    }
+
+    @Override
+    public String getAccountType() {
+        return accountType;
+    }
+
+    @Override
+    public String getBranchAddress() {
+        return branchAddress;
+    }
+
+    @Override
+    public Long getCustomerVersion() {
+        return customerVersion;
+    }
+
+    @Override
+    public Long getAccountVersion() {
+        return accountVersion;
+    }
+}
@@ -0,0 +1,64 @@
+package com.microcourse.accounts.repository;
+
+import com.microcourse.accounts.entity.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * @param limit - maximum number of events
+     * @return pending events in event id order, which is roughly creation order but not commit order
+     */
+    List<OutboxEvent> findByOrderByEventIdAsc(Limit limit);
+
+    /**
+     * @param aggregateKeys - ids of the customers whose pending events are wanted
+     * @param limit - maximum number of events
+     * @return pending events of those customers, each customer's in version (commit) order
+     */
+    List<OutboxEvent> findByAggregateKeyInOrderByAggregateKeyAscAggregateVersionAsc(Collection<String> aggregateKeys, Limit limit);
+
+    /**
+     * Takes or renews the relay lease of this database, if it is free, expired or already ours. The lease row
+     * stays locked until the transaction ends, so the relays of other instances wait and then find it taken.
+     *
+     * @param owner - id of the relay
+     * @param seconds - validity of the lease, counted on the database clock
+     * @return 1 if this relay holds the lease, 0 if another one does
+     */
+    @Modifying
+    @Query(value = "update outbox_relay_lease set owner = :owner, expires_at = TIMESTAMPADD(SECOND, :seconds, CURRENT_TIMESTAMP) "
+            + "where lease_id = 1 and (owner = :owner or owner is null or expires_at < CURRENT_TIMESTAMP)", nativeQuery = true)
+    int claimRelayLease(@Param("owner") String owner, @Param("seconds") long seconds);
+
+    /**
+     * Removes published events with a single bulk delete.
+     *
+     * @param eventIds - ids of the events already handed to the sink
+     * @return number of events deleted
+     */
+    @Modifying
+    @Query("delete from OutboxEvent e where e.eventId in :eventIds")
+    int deleteByEventIdIn(@Param("eventIds") Collection<Long> eventIds);
+
+    /**
+     * Removes the version counters of deleted customers once their last event is gone from the outbox. Customer
+     * ids are not reused, so no later event needs the counter.
+     *
+     * @param aggregateKeys - keys whose ACCOUNT_DELETED event has been published
+     * @return number of counters deleted
+     */
+    @Modifying
+    @Query(value = "delete from outbox_aggregate where aggregate_key in (:aggregateKeys) and not exists "
+            + "(select 1 from outbox_event e where e.aggregate_key = outbox_aggregate.aggregate_key)", nativeQuery = true)
+    int deleteAggregatesWithoutEvents(@Param("aggregateKeys") Collection<String> aggregateKeys);
+}
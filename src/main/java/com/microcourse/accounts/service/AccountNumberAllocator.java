@@ -0,0 +1,76 @@
+package com.microcourse.accounts.service;
+
+import com.microcourse.accounts.constants.AccountsConstants;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out unique 10-digit account numbers.
+ * <p>
+ * Each call to the {@code account_number_seq} database sequence reserves a whole block of
+ * {@link AccountsConstants#ACCOUNT_NUMBER_BLOCK_SIZE} numbers for this instance; numbers inside the
+ * block are taken with an atomic increment, so the common path needs neither a lock nor a database
+ * round-trip. Several instances never share a block, so numbers stay unique across the cluster.
+ */
+@Component
+public class AccountNumberAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nextBlockQuery;
+    private final AtomicReference<Block> currentBlock = new AtomicReference<>(new Block(0, 0));
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    public AccountNumberAllocator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nextBlockQuery = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport()
+                .getSequenceNextValString("account_number_seq");
+    }
+
+    /**
+     * @return a new account number, never handed out before
+     */
+    public long nextAccountNumber() {
+        while (true) {
+            Block block = currentBlock.get();
+            long accountNumber = block.next.getAndIncrement();
+            if (accountNumber < block.end) {
+                return accountNumber;
+            }
+            refill(block);
+        }
+    }
+
+    /**
+     * Reserves a new block, unless another thread already replaced the exhausted one.
+     *
+     * @param exhausted - the block the caller found empty
+     */
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            if (currentBlock.get() == exhausted) {
+                Long start = jdbcTemplate.queryForObject(nextBlockQuery, Long.class);
+                currentBlock.set(new Block(start, start + AccountsConstants.ACCOUNT_NUMBER_BLOCK_SIZE));
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
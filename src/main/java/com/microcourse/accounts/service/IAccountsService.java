@@ -1,6 +1,15 @@
 package com.microcourse.accounts.service;
 
+import com.microcourse.accounts.dto.BatchFetchResultDto;
+import com.microcourse.accounts.dto.BulkDeleteResultDto;
+import com.microcourse.accounts.dto.BulkResultDto;
 import com.microcourse.accounts.dto.CustomerDto;
+import com.microcourse.accounts.dto.CustomerPageDto;
+import com.microcourse.accounts.repository.CustomerSearchCriteria;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.Consumer;
 
 public interface IAccountsService {    /**
  *
@@ -8,6 +17,15 @@ public interface IAccountsService {    /**
  */
 void createAccount(CustomerDto customerDto);
 
+/**
+ * Creates accounts for a stream of customers, chunk by chunk, so memory stays flat
+ * regardless of the input size.
+ *
+ * @param customerDtos - customers to onboard, consumed lazily
+ * @param resultConsumer - receives one result per input record, as soon as its chunk is processed
+ */
+void createAccounts(Iterator<CustomerDto> customerDtos, Consumer<BulkResultDto> resultConsumer);
+
 /**
  *
  * @param mobileNumber - Customer Object
@@ -15,12 +33,39 @@ void createAccount(CustomerDto customerDto);
  */
 CustomerDto fetchAccount(String mobileNumber);
 
+/**
+ * Resolves several mobile numbers at once. Misses are reported in the result instead of raising
+ * ResourceNotFoundException.
+ *
+ * @param mobileNumbers - mobile numbers to resolve; duplicates are ignored
+ * @return the customers found, keyed by mobile number, plus the mobile numbers not found
+ */
+BatchFetchResultDto fetchAccounts(Collection<String> mobileNumbers);
+
+/**
+ * Searches customers with keyset pagination.
+ *
+ * @param criteria - optional filters
+ * @param afterCustomerId - nextCursor of the previous page, or null for the first page
+ * @param size - page size
+ * @return one page of customers, ordered by customer id, and the cursor of the next page
+ */
+CustomerPageDto searchAccounts(CustomerSearchCriteria criteria, Long afterCustomerId, int size);
+
+/**
+ * Streams every customer with its account, one row at a time and with constant memory.
+ *
+ * @param rowConsumer - receives each customer, already mapped to CustomerDto
+ */
+void exportAccounts(Consumer<CustomerDto> rowConsumer);
+
 /**
  *
  * @param customerDto - CustomerDto Object
+ * @param ifMatch - If-Match header value (ETag returned by fetch), or null to update unconditionally
  * @return boolean indicating if the account was updated or not
  */
-boolean updateAccount(CustomerDto customerDto);
+boolean updateAccount(CustomerDto customerDto, String ifMatch);
 
 /**
  *
@@ -28,4 +73,12 @@ boolean updateAccount(CustomerDto customerDto);
  * @return boolean indicating if the account was deleted or not
  */
 boolean deleteAccount(String mobileNumber);
+
+/**
+ * Offboards a batch of customers with set-based deletes, in a single transaction.
+ *
+ * @param mobileNumbers - mobile numbers of the customers to remove; duplicates are ignored
+ * @return the mobile numbers deleted and the ones that were not found
+ */
+BulkDeleteResultDto deleteAccounts(Collection<String> mobileNumbers);
 }
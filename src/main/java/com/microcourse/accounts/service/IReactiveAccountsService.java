@@ -0,0 +1,40 @@
+package com.microcourse.accounts.service;
+
+import com.microcourse.accounts.dto.CustomerDto;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link IAccountsService}, backed by R2DBC.
+ * Same DTOs, same rules and the same exceptions, delivered as error signals.
+ */
+public interface IReactiveAccountsService {
+
+    /**
+     *
+     * @param customerDto - CustomerDto Object
+     * @return completes once the customer and its account are stored
+     */
+    Mono<Void> createAccount(CustomerDto customerDto);
+
+    /**
+     *
+     * @param mobileNumber - Input Mobile Number
+     * @return the account details of the customer
+     */
+    Mono<CustomerDto> fetchAccount(String mobileNumber);
+
+    /**
+     *
+     * @param customerDto - CustomerDto Object
+     * @param ifMatch - If-Match header value (ETag returned by fetch), or null to update unconditionally
+     * @return boolean indicating if the account was updated or not
+     */
+    Mono<Boolean> updateAccount(CustomerDto customerDto, String ifMatch);
+
+    /**
+     *
+     * @param mobileNumber - Input Mobile Number
+     * @return boolean indicating if the account was deleted or not
+     */
+    Mono<Boolean> deleteAccount(String mobileNumber);
+}
@@ -1,44 +1,267 @@
 package com.microcourse.accounts.service.impl;
 
+import com.microcourse.accounts.audit.AuditEvent;
+import com.microcourse.accounts.audit.AuditTrail;
 import com.microcourse.accounts.constants.AccountsConstants;
+import com.microcourse.accounts.datasource.ReadYourWrites;
 import com.microcourse.accounts.dto.AccountsDto;
+import com.microcourse.accounts.dto.BatchFetchResultDto;
+import com.microcourse.accounts.dto.BulkDeleteResultDto;
+import com.microcourse.accounts.dto.BulkResultDto;
 import com.microcourse.accounts.dto.CustomerDto;
+import com.microcourse.accounts.dto.CustomerPageDto;
 import com.microcourse.accounts.entity.Accounts;
 import com.microcourse.accounts.entity.Customer;
+import com.microcourse.accounts.exception.CrossShardUpdateException;
+import com.microcourse.accounts.exception.PreconditionFailedException;
 import com.microcourse.accounts.exception.ResourceNotFoundException;
+import com.microcourse.accounts.exception.ServiceBusyException;
 import com.microcourse.accounts.mapper.AccountsMapper;
 import com.microcourse.accounts.mapper.CustomerMapper;
+import com.microcourse.accounts.outbox.AccountEventOutbox;
 import com.microcourse.accounts.repository.AccountsRepository;
+import com.microcourse.accounts.repository.CustomerAccounts;
+import com.microcourse.accounts.repository.CustomerDetailsView;
+import com.microcourse.accounts.repository.CustomerKey;
 import com.microcourse.accounts.repository.CustomerRepository;
+import com.microcourse.accounts.repository.CustomerSearchCriteria;
+import com.microcourse.accounts.service.AccountNumberAllocator;
+import com.microcourse.accounts.sharding.ScatterGather;
+import com.microcourse.accounts.sharding.ShardRouter;
 import com.microcourse.accounts.service.IAccountsService;
 import com.microcourse.accounts.exception.CustomerAlreadyExistsException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.AllArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.time.LocalDateTime;
-import java.util.Optional;
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
+@Timed(value = "accounts.service", histogram = true)
 public class AccountServiceImpl implements IAccountsService {
 
+    private final Semaphore exportPermits = new Semaphore(AccountsConstants.EXPORT_MAX_CONCURRENT);
+
     private AccountsRepository accountsRepository;
     private CustomerRepository customerRepository;
+    private AccountNumberAllocator accountNumberAllocator;
+    private CacheManager cacheManager;
+    private EntityManager entityManager;
+    private Validator validator;
+    private AuditTrail auditTrail;
+    private AccountEventOutbox accountEventOutbox;
+    private ReadYourWrites readYourWrites;
+    private ShardRouter shardRouter;
+    private ScatterGather scatterGather;
     /**
      * @param customerDto - CustomerDto Object
      */
     @Override
+    @Transactional
     public void createAccount(CustomerDto customerDto) {
+        // El cliente y su cuenta se crean en el shard de su número de móvil.
+        shardRouter.routeTo(customerDto.getMobileNumber());
         Customer customer = CustomerMapper.mapToCustomer(customerDto, new Customer());
-        /*adicional*/ Optional<Customer> optionalCustomer = customerRepository.findByMobileNumber(customerDto.getMobileNumber());
-        if(optionalCustomer.isPresent()) {
-                    throw new CustomerAlreadyExistsException("Customer already registred with mobile number "
-                            + customerDto.getMobileNumber());
+        Customer savedCustomer;
+        try {
+            // Sin consulta previa: la restricción única sobre mobile_number detecta el duplicado,
+            // también cuando dos altas con el mismo número llegan a la vez.
+            savedCustomer = customerRepository.saveAndFlush(customer);
+        } catch (DataIntegrityViolationException exception) {
+            if (isMobileNumberConflict(exception)) {
+                throw new CustomerAlreadyExistsException("Customer already registred with mobile number "
+                        + customerDto.getMobileNumber());
+            }
+            throw exception;
+        }
+        Accounts savedAccounts = accountsRepository.save(createNewAccount(savedCustomer));
+        // Evento en la misma transacción: se confirma (o se revierte) junto con el alta.
+        accountEventOutbox.accountCreated(savedCustomer, savedAccounts);
+        // Como en update y delete, la caché se invalida una vez confirmada la transacción.
+        evictCustomerDetails(savedCustomer.getMobileNumber());
+    }
+
+    /**
+     * A record the iterator fails to read gets a 400 result and reading goes on; if the input cannot be read any
+     * further, the records read so far are still processed.
+     *
+     * @param customerDtos - customers to onboard, consumed lazily
+     * @param resultConsumer - receives one result per input record
+     */
+    @Override
+    public void createAccounts(Iterator<CustomerDto> customerDtos, Consumer<BulkResultDto> resultConsumer) {
+        List<CustomerDto> chunk = new ArrayList<>(AccountsConstants.BULK_CHUNK_SIZE);
+        long firstIndex = 0;
+        while (true) {
+            boolean readable;
+            try {
+                readable = customerDtos.hasNext();
+            } catch (RuntimeException exception) {
+                // La entrada no permite seguir leyendo: 400 en esta posición y se termina con lo ya leído.
+                chunk.add(null);
+                break;
+            }
+            if (!readable) {
+                break;
+            }
+            try {
+                chunk.add(customerDtos.next());
+            } catch (RuntimeException exception) {
+                // Registro mal formado (null en el lote): recibe su 400 y se sigue con el siguiente.
+                chunk.add(null);
+            }
+            if (chunk.size() == AccountsConstants.BULK_CHUNK_SIZE) {
+                createAccountsChunk(chunk, firstIndex, resultConsumer);
+                firstIndex += chunk.size();
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            createAccountsChunk(chunk, firstIndex, resultConsumer);
+        }
+    }
+
+    /**
+     * Validates a chunk, checks duplicates with a single IN query per shard and inserts the new
+     * customers and accounts in one transaction per shard, so Hibernate sends them as JDBC batches.
+     * Shards are written in parallel and commit independently: a failing shard only fails its own records, and a
+     * shard rolled back by a concurrent insert of one of its mobile numbers is retried.
+     *
+     * @param chunk - customers of the current chunk, null for the records that could not be read
+     * @param firstIndex - position of the first record of the chunk in the whole input
+     * @param resultConsumer - receives one result per record of the chunk
+     */
+    private void createAccountsChunk(List<CustomerDto> chunk, long firstIndex, Consumer<BulkResultDto> resultConsumer) {
+        BulkResultDto[] results = new BulkResultDto[chunk.size()];
+        Map<String, Integer> candidates = new HashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            CustomerDto customerDto = chunk.get(i);
+            if (customerDto == null) {
+                results[i] = new BulkResultDto(firstIndex + i, null, AccountsConstants.STATUS_400,
+                        AccountsConstants.MESSAGE_400_MALFORMED_RECORD);
+                continue;
+            }
+            String mobileNumber = customerDto.getMobileNumber();
+            Set<ConstraintViolation<CustomerDto>> violations = validator.validate(customerDto);
+            if (!violations.isEmpty() || mobileNumber == null) {
+                String message = violations.isEmpty() ? "Mobile number must be 10 digits"
+                        : violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "));
+                results[i] = new BulkResultDto(firstIndex + i, mobileNumber, AccountsConstants.STATUS_400, message);
+            } else if (candidates.putIfAbsent(mobileNumber, i) != null) {
+                results[i] = alreadyExists(firstIndex + i, mobileNumber);
+            }
+        }
+
+        Map<String, Integer> pending = candidates;
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            try {
+                insertOnShards(chunk, firstIndex, pending, results);
+                break;
+            } catch (RuntimeException exception) {
+                Map<String, Integer> unresolved = new HashMap<>();
+                pending.forEach((mobileNumber, i) -> {
+                    if (results[i] == null) {
+                        unresolved.put(mobileNumber, i);
+                    }
+                });
+                // Un alta concurrente con un número del lote revierte todo su shard: se reintentan los registros sin
+                // resultado, y la nueva comprobación de duplicados responde 400 solo al que chocó.
+                if (attempt < AccountsConstants.BULK_CONFLICT_MAX_ATTEMPTS && isMobileNumberConflict(exception)) {
+                    pending = unresolved;
+                    continue;
+                }
+                unresolved.forEach((mobileNumber, i) -> results[i] = new BulkResultDto(firstIndex + i, mobileNumber,
+                        AccountsConstants.STATUS_500, AccountsConstants.MESSAGE_500));
+                break;
+            }
+        }
 
+        for (BulkResultDto result : results) {
+            resultConsumer.accept(result);
         }
-        Customer savedCustomer = customerRepository.save(customer);
-        accountsRepository.save(createNewAccount(savedCustomer));
+    }
+
+    /**
+     * Checks duplicates and inserts the candidates of a chunk, one transaction per shard. Records of the shards that
+     * commit get their result; if a shard fails, its records are left without one and its exception is rethrown.
+     *
+     * @param candidates - valid records not repeated in the chunk, by mobile number, with their position in the chunk
+     * @param results - results of the chunk, filled in as shards commit
+     */
+    private void insertOnShards(List<CustomerDto> chunk, long firstIndex, Map<String, Integer> candidates,
+                                BulkResultDto[] results) {
+        scatterGather.onShards(shardRouter.groupByShard(candidates.keySet()), false, mobileNumbers -> {
+            Set<String> existing = customerRepository.findExistingMobileNumbers(mobileNumbers);
+            List<Customer> customers = new ArrayList<>(mobileNumbers.size());
+            for (String mobileNumber : mobileNumbers) {
+                int i = candidates.get(mobileNumber);
+                if (existing.contains(mobileNumber)) {
+                    results[i] = alreadyExists(firstIndex + i, mobileNumber);
+                } else {
+                    Customer customer = CustomerMapper.mapToCustomer(chunk.get(i), new Customer());
+                    entityManager.persist(customer);
+                    customers.add(customer);
+                }
+            }
+            // persist directo: las entidades son nuevas y Hibernate las inserta en lotes JDBC al hacer flush.
+            List<Accounts> accounts = new ArrayList<>(customers.size());
+            customers.forEach(customer -> {
+                Accounts newAccount = createNewAccount(customer);
+                entityManager.persist(newAccount);
+                accounts.add(newAccount);
+            });
+            accountEventOutbox.accountsCreated(customers, accounts);
+            entityManager.flush();
+            entityManager.clear();
+            // Solo cuentan como creados los registros de los shards que confirman.
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    for (String mobileNumber : mobileNumbers) {
+                        int i = candidates.get(mobileNumber);
+                        if (results[i] == null) {
+                            results[i] = new BulkResultDto(firstIndex + i, mobileNumber,
+                                    AccountsConstants.STATUS_201, AccountsConstants.MESSAGE_201);
+                        }
+                    }
+                }
+            });
+            evictCustomerDetails(mobileNumbers.toArray(new String[0]));
+            return null;
+        });
+    }
+
+    private BulkResultDto alreadyExists(long index, String mobileNumber) {
+        return new BulkResultDto(index, mobileNumber, AccountsConstants.STATUS_400,
+                "Customer already registred with mobile number " + mobileNumber);
     }
 
 
@@ -49,9 +272,7 @@ public class AccountServiceImpl implements IAccountsService {
     private Accounts createNewAccount(Customer customer) {
         Accounts newAccount = new Accounts();
         newAccount.setCustomerId(customer.getCustomerId());
-        long randomAccNumber = 1000000000L + new Random().nextInt(900000000);
-
-        newAccount.setAccountNumber(randomAccNumber);
+        newAccount.setAccountNumber(accountNumberAllocator.nextAccountNumber());
         newAccount.setAccountType(AccountsConstants.SAVINGS);
         newAccount.setBranchAddress(AccountsConstants.ADDRESS);
 
@@ -62,26 +283,143 @@ public class AccountServiceImpl implements IAccountsService {
      * @return Accounts Details based on a given mobileNumber
      */
     @Override
+    @Cacheable(cacheNames = AccountsConstants.CUSTOMER_DETAILS_CACHE, key = "#mobileNumber")
+    @Transactional(readOnly = true)
     public CustomerDto fetchAccount(String mobileNumber) {
-        Customer customer = customerRepository.findByMobileNumber(mobileNumber).orElseThrow(
+        shardRouter.routeTo(mobileNumber);
+        routeCacheableLoad(List.of(mobileNumber));
+        // Una sola consulta (customer left join accounts) en lugar de dos búsquedas consecutivas.
+        CustomerDetailsView customerDetails = customerRepository.findDetailsByMobileNumber(mobileNumber).orElseThrow(
                 () -> new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber)
         );
-        Accounts accounts = accountsRepository.findByCustomerId(customer.getCustomerId()).orElseThrow(
-                () -> new ResourceNotFoundException("Account", "customerId", customer.getCustomerId().toString())
-        );
-        CustomerDto customerDto = CustomerMapper.mapToCustomerDto(customer, new CustomerDto());
-        customerDto.setAccountsDto(AccountsMapper.mapToAccountsDto(accounts, new AccountsDto()));
+        if (customerDetails.getAccountNumber() == null) {
+            throw new ResourceNotFoundException("Account", "customerId", customerDetails.getCustomerId().toString());
+        }
+        CustomerDto customerDto = CustomerMapper.mapToCustomerDto(customerDetails, new CustomerDto());
+        customerDto.setAccountsDto(AccountsMapper.mapToAccountsDto(customerDetails, new AccountsDto()));
         return customerDto;
     }
 
+    /**
+     * @param mobileNumbers - mobile numbers to resolve; duplicates are ignored
+     * @return the customers found, keyed by mobile number, plus the mobile numbers not found
+     */
+    @Override
+    public BatchFetchResultDto fetchAccounts(Collection<String> mobileNumbers) {
+        Map<String, CustomerDto> found = new LinkedHashMap<>();
+        Set<String> misses = new LinkedHashSet<>();
+        Cache cache = cacheManager.getCache(AccountsConstants.CUSTOMER_DETAILS_CACHE);
+        // Primero la misma caché que usa fetchAccount; solo los fallos llegan a la base de datos.
+        for (String mobileNumber : mobileNumbers) {
+            CustomerDto cached = cache == null ? null : cache.get(mobileNumber, CustomerDto.class);
+            if (cached != null) {
+                found.put(mobileNumber, cached);
+            } else {
+                misses.add(mobileNumber);
+            }
+        }
+        if (!misses.isEmpty()) {
+            // Una única consulta IN por shard para todos sus fallos, con los shards consultados en paralelo.
+            Map<Integer, List<CustomerDetailsView>> rows = scatterGather.onShards(shardRouter.groupByShard(misses), true,
+                    shardMisses -> {
+                        routeCacheableLoad(shardMisses);
+                        return customerRepository.findDetailsByMobileNumberIn(shardMisses);
+                    });
+            for (CustomerDetailsView customerDetails : rows.values().stream().flatMap(List::stream).toList()) {
+                // Igual que fetchAccount: un cliente sin cuenta cuenta como no encontrado.
+                if (customerDetails.getAccountNumber() == null) {
+                    continue;
+                }
+                CustomerDto customerDto = CustomerMapper.mapToCustomerDto(customerDetails, new CustomerDto());
+                customerDto.setAccountsDto(AccountsMapper.mapToAccountsDto(customerDetails, new AccountsDto()));
+                found.put(customerDto.getMobileNumber(), customerDto);
+                misses.remove(customerDto.getMobileNumber());
+                if (cache != null) {
+                    cache.put(customerDto.getMobileNumber(), customerDto);
+                }
+            }
+        }
+        return new BatchFetchResultDto(found, new ArrayList<>(misses));
+    }
+
+    /**
+     * Chooses where a customerDetails load is read from. The cached entry is served to every instance until it
+     * expires, but the read-your-writes pins only exist on the instance that wrote: a replica that has not caught
+     * up with a write made elsewhere would leave its older copy in the shared tier. With caching enabled the loads
+     * therefore always read the primary, and only the cache misses reach it.
+     */
+    private void routeCacheableLoad(Collection<String> mobileNumbers) {
+        if (cacheManager instanceof NoOpCacheManager) {
+            // Sin caché: lectura de réplica, salvo que el cliente se haya escrito hace un momento en esta instancia.
+            readYourWrites.routeToPrimaryIfRecentlyWritten(mobileNumbers);
+        } else {
+            readYourWrites.routeToPrimary();
+        }
+    }
+
+    /**
+     * @param criteria - optional filters
+     * @param afterCustomerId - nextCursor of the previous page, or null for the first page
+     * @param size - page size
+     * @return one page of customers and the cursor of the next page
+     */
+    @Override
+    public CustomerPageDto searchAccounts(CustomerSearchCriteria criteria, Long afterCustomerId, int size) {
+        // Se pide una fila de más para saber si hay página siguiente sin una consulta COUNT. Cada shard devuelve
+        // sus primeras size + 1 filas tras el cursor; los ids son únicos entre shards, así que la fusión por
+        // customerId da las primeras de todo el conjunto.
+        List<CustomerDetailsView> rows = scatterGather.onAllShards(true,
+                        () -> customerRepository.search(criteria, afterCustomerId, size + 1)).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(CustomerDetailsView::getCustomerId))
+                .limit(size + 1L)
+                .toList();
+        boolean hasNext = rows.size() > size;
+        List<CustomerDto> content = new ArrayList<>(Math.min(rows.size(), size));
+        for (CustomerDetailsView customerDetails : hasNext ? rows.subList(0, size) : rows) {
+            CustomerDto customerDto = CustomerMapper.mapToCustomerDto(customerDetails, new CustomerDto());
+            if (customerDetails.getAccountNumber() != null) {
+                customerDto.setAccountsDto(AccountsMapper.mapToAccountsDto(customerDetails, new AccountsDto()));
+            }
+            content.add(customerDto);
+        }
+        return new CustomerPageDto(content, hasNext ? rows.get(size - 1).getCustomerId() : null);
+    }
+
+    /**
+     * @param rowConsumer - receives each customer, already mapped to CustomerDto; with several shards their
+     *                    rows are interleaved
+     */
+    @Override
+    public void exportAccounts(Consumer<CustomerDto> rowConsumer) {
+        if (!exportPermits.tryAcquire()) {
+            throw new ServiceBusyException(AccountsConstants.MESSAGE_503_EXPORT);
+        }
+        // Cursor de solo avance sobre una proyección: no se cargan entidades en el contexto de persistencia.
+        // Un cursor por shard, leídos en paralelo; rowConsumer recibe las filas en este hilo.
+        try {
+            scatterGather.streamAllShards(customerRepository::streamAllDetails, customerDetails -> {
+                CustomerDto customerDto = CustomerMapper.mapToCustomerDto(customerDetails, new CustomerDto());
+                if (customerDetails.getAccountNumber() != null) {
+                    customerDto.setAccountsDto(AccountsMapper.mapToAccountsDto(customerDetails, new AccountsDto()));
+                }
+                rowConsumer.accept(customerDto);
+            });
+        } finally {
+            exportPermits.release();
+        }
+    }
+
     /**
      * Actualiza los detalles de la cuenta y el cliente relacionados.
      *
      * @param customerDto - Objeto CustomerDto que contiene los datos actualizados del cliente y la cuenta.
+     * @param ifMatch - valor de la cabecera If-Match, o null para una actualización incondicional.
      * @return booleano que indica si la actualización de los detalles de la cuenta fue exitosa o no.
      */
     @Override
-    public boolean updateAccount(CustomerDto customerDto) {
+    @Transactional
+    public boolean updateAccount(CustomerDto customerDto, String ifMatch) {
         // Inicializamos una bandera para indicar si la actualización fue exitosa.
         boolean isUpdated = false;
 
@@ -90,32 +428,47 @@ public class AccountServiceImpl implements IAccountsService {
 
         // Si los detalles de la cuenta no son nulos, procedemos con la actualización.
         if (accountsDto != null) {
-            // Intentamos encontrar la cuenta en la base de datos usando el número de cuenta proporcionado en accountsDto.
-            Accounts accounts = accountsRepository.findById(accountsDto.getAccountNumber()).orElseThrow(
+            // La transacción va al shard del número de móvil recibido: una actualización no mueve al cliente de shard.
+            shardRouter.routeTo(customerDto.getMobileNumber());
+
+            // Cargamos la cuenta y su cliente con una sola consulta; ambas entidades quedan gestionadas en esta transacción.
+            CustomerAccounts customerAccounts = accountsRepository.findWithCustomerByAccountNumber(accountsDto.getAccountNumber()).orElseThrow(
                     // Si no se encuentra la cuenta, lanzamos una excepción personalizada indicando que el recurso no fue encontrado.
-                    () -> new ResourceNotFoundException("Account", "AccountNumber", accountsDto.getAccountNumber().toString())
+                    () -> accountNotFound(accountsDto.getAccountNumber())
             );
+            Accounts accounts = customerAccounts.accounts();
+            Customer customer = customerAccounts.customer();
+            if (customer == null) {
+                // Si no se encuentra el cliente, lanzamos una excepción personalizada indicando que el recurso no fue encontrado.
+                throw new ResourceNotFoundException("Customer", "CustomerID", accounts.getCustomerId().toString());
+            }
 
-            // Usamos el mapeador para copiar los datos actualizados del DTO a la entidad Accounts.
-            AccountsMapper.mapToAccounts(accountsDto, accounts);
-
-            // Guardamos los cambios en la entidad Accounts en la base de datos.
-            accounts = accountsRepository.save(accounts);
+            // Precondición con la misma ETag que devuelve fetch. Si otra transacción confirma después de esta
+            // comprobación, la columna version hace fallar el UPDATE con un conflicto (409).
+            if (ifMatch != null && !eTagMatches(ifMatch,
+                    CustomerMapper.eTag(customer.getCustomerId(), customer.getVersion(), accounts.getVersion()))) {
+                throw new PreconditionFailedException("Customer with mobile number " + customer.getMobileNumber()
+                        + " was modified since it was fetched. Please reload and try again");
+            }
 
-            // Una vez que se ha actualizado la cuenta, obtenemos el ID del cliente asociado.
-            Long customerId = accounts.getCustomerId();
+            // Guardamos el número de móvil anterior: si cambia, la entrada antigua de la caché también queda obsoleta.
+            String previousMobileNumber = customer.getMobileNumber();
+            boolean changed = hasChanges(customerDto, customer, accountsDto, accounts);
 
-            // Buscamos el cliente en la base de datos usando el customerId.
-            Customer customer = customerRepository.findById(customerId).orElseThrow(
-                    // Si no se encuentra el cliente, lanzamos una excepción personalizada indicando que el recurso no fue encontrado.
-                    () -> new ResourceNotFoundException("Customer", "CustomerID", customerId.toString())
-            );
-
-            // Usamos el mapeador para actualizar los datos del cliente desde CustomerDto a la entidad Customer.
+            // Copiamos los datos del DTO a las entidades. No hace falta save(): al confirmar la transacción,
+            // Hibernate compara con el estado cargado y solo emite UPDATE (con @DynamicUpdate, solo de las columnas
+            // modificadas) si algo ha cambiado. Si el payload coincide con lo almacenado no hay escritura
+            // ni se tocan updatedAt/updatedBy.
+            AccountsMapper.mapToAccounts(accountsDto, accounts);
             CustomerMapper.mapToCustomer(customerDto, customer);
 
-            // Guardamos los cambios en la entidad Customer en la base de datos.
-            customerRepository.save(customer);
+            // Solo los cambios reales generan evento, igual que solo ellos generan UPDATE.
+            if (changed) {
+                accountEventOutbox.accountUpdated(customer, accounts);
+            }
+
+            // Invalidamos la caché una vez confirmada la transacción.
+            evictCustomerDetails(previousMobileNumber, customer.getMobileNumber());
 
             // Si todo el proceso se realizó correctamente, cambiamos el valor de isUpdated a true.
             isUpdated = true;
@@ -132,23 +485,172 @@ public class AccountServiceImpl implements IAccountsService {
      * @return booleano que indica si la eliminación de los detalles de la cuenta fue exitosa o no.
      */
     @Override
+    @Transactional
     public boolean deleteAccount(String mobileNumber) {
-        // Busca al cliente en la base de datos usando el número de móvil proporcionado.
-        // Si no se encuentra, lanza una excepción personalizada `ResourceNotFoundException`.
-        Customer customer = customerRepository.findByMobileNumber(mobileNumber).orElseThrow(
-                // Excepción que indica que no se encontró el cliente con el número de móvil proporcionado.
-                () -> new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber)
-        );
+        shardRouter.routeTo(mobileNumber);
+        List<String> mobileNumbers = List.of(mobileNumber);
+
+        // Consulta escalar del id (sin entidades): la auditoría del borrado debe identificar la fila eliminada.
+        CustomerKey customerKey = customerRepository.findKeysByMobileNumberIn(mobileNumbers).stream().findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber));
 
-        // Elimina todas las cuentas asociadas al cliente, usando el `customerId` del cliente encontrado.
-        accountsRepository.deleteByCustomerId(customer.getCustomerId());
+        // Elimina las cuentas del cliente con un DELETE masivo, sin cargar entidades.
+        accountsRepository.deleteByMobileNumberIn(mobileNumbers);
 
-        // Elimina el registro del cliente de la base de datos utilizando el `customerId`.
-        customerRepository.deleteById(customer.getCustomerId());
+        // Elimina el cliente; si no se borró ninguna fila, otra petición lo eliminó entretanto.
+        // La excepción revierte la transacción (el DELETE anterior tampoco habrá borrado nada).
+        if (customerRepository.deleteByMobileNumberIn(mobileNumbers) == 0) {
+            throw new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber);
+        }
+        // Los DELETE masivos no pasan por los eventos de entidad de Hibernate: la auditoría se registra aquí.
+        recordDeletion(customerKey);
+        accountEventOutbox.accountDeleted(customerKey);
+        // Invalidación tras el commit: una lectura concurrente anterior no deja en caché al cliente borrado.
+        evictCustomerDetails(mobileNumber);
 
         // Devuelve `true` para indicar que la operación de eliminación fue exitosa.
         return true;
     }
 
+    /**
+     * Deletes on every shard in parallel, one transaction per shard: a failure on one shard does not undo
+     * the deletions already committed on the others.
+     *
+     * @param mobileNumbers - mobile numbers of the customers to offboard; duplicates are ignored
+     * @return the mobile numbers deleted and the ones that were not found
+     */
+    @Override
+    public BulkDeleteResultDto deleteAccounts(Collection<String> mobileNumbers) {
+        Set<String> requested = new LinkedHashSet<>(mobileNumbers);
+        Set<String> existing = new HashSet<>();
+        scatterGather.onShards(shardRouter.groupByShard(requested), false, this::deleteExisting)
+                .values().forEach(existing::addAll);
+        List<String> deleted = new ArrayList<>(existing.size());
+        List<String> notFound = new ArrayList<>();
+        for (String mobileNumber : requested) {
+            (existing.contains(mobileNumber) ? deleted : notFound).add(mobileNumber);
+        }
+        return new BulkDeleteResultDto(deleted, notFound);
+    }
+
+    /**
+     * Deletes the customers of one shard that exist, inside that shard's transaction.
+     *
+     * @param mobileNumbers - mobile numbers of customers stored on the current shard
+     * @return the mobile numbers that existed and were deleted
+     */
+    private Set<String> deleteExisting(Collection<String> mobileNumbers) {
+        // Consulta escalar (sin entidades): informa de los que no existen y da los ids para la auditoría.
+        List<CustomerKey> customerKeys = customerRepository.findKeysByMobileNumberIn(mobileNumbers);
+        Set<String> existing = new HashSet<>();
+        customerKeys.forEach(customerKey -> existing.add(customerKey.getMobileNumber()));
+        if (!existing.isEmpty()) {
+            accountsRepository.deleteByMobileNumberIn(existing);
+            customerRepository.deleteByMobileNumberIn(existing);
+            evictCustomerDetails(existing.toArray(new String[0]));
+            customerKeys.forEach(this::recordDeletion);
+            accountEventOutbox.accountsDeleted(customerKeys);
+        }
+        return existing;
+    }
+
+    /**
+     * The account is not on the shard of the mobile number in the update; if it is on another shard,
+     * the update would move the customer between shards.
+     *
+     * @param accountNumber - account number of the update
+     * @return the exception to throw
+     */
+    private RuntimeException accountNotFound(Long accountNumber) {
+        if (shardRouter.isSharded()
+                && scatterGather.onAllShards(true, () -> accountsRepository.existsById(accountNumber)).contains(true)) {
+            return new CrossShardUpdateException(AccountsConstants.MESSAGE_409_SHARD_MOVE);
+        }
+        return new ResourceNotFoundException("Account", "AccountNumber", accountNumber.toString());
+    }
+
+    /**
+     * @return true if applying the DTOs would modify any column of the customer or its account
+     */
+    private static boolean hasChanges(CustomerDto customerDto, Customer customer, AccountsDto accountsDto, Accounts accounts) {
+        return !Objects.equals(customerDto.getName(), customer.getName())
+                || !Objects.equals(customerDto.getEmail(), customer.getEmail())
+                || !Objects.equals(customerDto.getMobileNumber(), customer.getMobileNumber())
+                || !Objects.equals(accountsDto.getAccountType(), accounts.getAccountType())
+                || !Objects.equals(accountsDto.getBranchAddress(), accounts.getBranchAddress());
+    }
+
+    /**
+     * Queues the audit event of a customer (and its accounts) removed by a bulk delete, once the transaction commits.
+     *
+     * @param customerKey - id and mobile number of the deleted customer, read before the delete
+     */
+    private void recordDeletion(CustomerKey customerKey) {
+        auditTrail.recordAfterCommit(AuditEvent.DELETE, "Customer", customerKey.getCustomerId(),
+                Map.of("mobileNumber", new AuditEvent.FieldChange(customerKey.getMobileNumber(), null)));
+    }
+
+    /**
+     * Strong comparison as defined for If-Match: weak tags never match, "*" matches any current version. The tag
+     * of either representation (JSON or Smile) of the current version is accepted.
+     *
+     * @param ifMatch - value of the If-Match header, a list of entity tags or "*"
+     * @param eTag - current entity tag
+     * @return true if the precondition holds
+     */
+    static boolean eTagMatches(String ifMatch, String eTag) {
+        String smileETag = CustomerMapper.smileETag(eTag);
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(eTag) || tag.equals(smileETag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Shared with the reactive implementation, whose R2DBC driver reports the same constraint name.
+     *
+     * @param exception - failure raised while inserting a customer
+     * @return true if it was caused by the unique constraint on the mobile number
+     */
+    static boolean isMobileNumberConflict(Throwable exception) {
+        String message = NestedExceptionUtils.getMostSpecificCause(exception).getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(AccountsConstants.MOBILE_NUMBER_CONSTRAINT);
+    }
+
+    /**
+     * Removes the cached fetchAccount results for the given mobile numbers. Inside a transaction the
+     * eviction is deferred until after commit, so a concurrent fetch cannot re-cache the old row.
+     * The customers are also read from the primary for a while, until the replicas catch up.
+     *
+     * @param mobileNumbers - mobile numbers whose cached details are no longer valid
+     */
+    private void evictCustomerDetails(String... mobileNumbers) {
+        readYourWrites.recordWrite(mobileNumbers);
+        Cache cache = cacheManager.getCache(AccountsConstants.CUSTOMER_DETAILS_CACHE);
+        if (cache == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(cache, mobileNumbers);
+                }
+            });
+        } else {
+            evict(cache, mobileNumbers);
+        }
+    }
+
+    private static void evict(Cache cache, String... mobileNumbers) {
+        for (String mobileNumber : mobileNumbers) {
+            if (mobileNumber != null) {
+                cache.evict(mobileNumber);
+            }
+        }
+    }
 
 }
\ No newline at end of file
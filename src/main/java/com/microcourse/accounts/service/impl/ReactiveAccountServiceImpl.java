@@ -0,0 +1,412 @@
+package com.microcourse.accounts.service.impl;
+
+import com.microcourse.accounts.audit.AuditEvent;
+import com.microcourse.accounts.audit.AuditTrail;
+import com.microcourse.accounts.constants.AccountsConstants;
+import com.microcourse.accounts.datasource.ReadYourWrites;
+import com.microcourse.accounts.dto.AccountsDto;
+import com.microcourse.accounts.dto.CustomerDto;
+import com.microcourse.accounts.entity.Accounts;
+import com.microcourse.accounts.entity.Customer;
+import com.microcourse.accounts.exception.CustomerAlreadyExistsException;
+import com.microcourse.accounts.exception.PreconditionFailedException;
+import com.microcourse.accounts.exception.ResourceNotFoundException;
+import com.microcourse.accounts.mapper.AccountsMapper;
+import com.microcourse.accounts.mapper.CustomerMapper;
+import com.microcourse.accounts.outbox.AccountEventOutbox;
+import com.microcourse.accounts.service.AccountNumberAllocator;
+import com.microcourse.accounts.service.IReactiveAccountsService;
+import io.r2dbc.spi.Parameters;
+import io.r2dbc.spi.R2dbcType;
+import io.r2dbc.spi.Readable;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * R2DBC implementation of the accounts operations. It works on the same tables as
+ * {@link AccountServiceImpl} and invalidates the same fetchAccount cache.
+ */
+@Service
+// El cliente R2DBC tiene una única conexión, sin routing por shard: con sharding estos endpoints no se registran.
+@ConditionalOnExpression("'${accounts.sharding.shards[0]:}'.isEmpty()")
+public class ReactiveAccountServiceImpl implements IReactiveAccountsService {
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final AuditorAware<String> auditorAware;
+    private final CacheManager cacheManager;
+    private final AuditTrail auditTrail;
+    private final AccountEventOutbox accountEventOutbox;
+    private final ReadYourWrites readYourWrites;
+    private final String nextCustomerIdQuery;
+    private final String nextOutboxIdQuery;
+
+    public ReactiveAccountServiceImpl(DatabaseClient databaseClient, ReactiveTransactionManager reactiveTransactionManager,
+                                      AccountNumberAllocator accountNumberAllocator, AuditorAware<String> auditorAware,
+                                      CacheManager cacheManager, AuditTrail auditTrail, AccountEventOutbox accountEventOutbox,
+                                      EntityManagerFactory entityManagerFactory, ReadYourWrites readYourWrites) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = TransactionalOperator.create(reactiveTransactionManager);
+        this.accountNumberAllocator = accountNumberAllocator;
+        this.auditorAware = auditorAware;
+        this.cacheManager = cacheManager;
+        this.auditTrail = auditTrail;
+        this.accountEventOutbox = accountEventOutbox;
+        this.readYourWrites = readYourWrites;
+        // Cada valor de customer_seq (y de outbox_seq) reserva un bloque para JPA; aquí se usa el propio valor, que JPA nunca reparte.
+        SequenceSupport sequenceSupport = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport();
+        this.nextCustomerIdQuery = sequenceSupport.getSequenceNextValString("customer_seq");
+        this.nextOutboxIdQuery = sequenceSupport.getSequenceNextValString("outbox_seq");
+    }
+
+    /**
+     * @param customerDto - CustomerDto Object
+     */
+    @Override
+    public Mono<Void> createAccount(CustomerDto customerDto) {
+        String mobileNumber = customerDto.getMobileNumber();
+        String actor = auditTrail.currentActor();
+        Mono<Void> create = databaseClient.sql(nextCustomerIdQuery).map(row -> row.get(0, Long.class)).one()
+                .flatMap(customerId -> databaseClient.sql("insert into customer (customer_id, name, email, mobile_number, created_at, created_by) "
+                                + "values (:customerId, :name, :email, :mobileNumber, :createdAt, :createdBy)")
+                        .bind("customerId", customerId)
+                        .bind("name", Parameters.in(R2dbcType.VARCHAR, customerDto.getName()))
+                        .bind("email", Parameters.in(R2dbcType.VARCHAR, customerDto.getEmail()))
+                        .bind("mobileNumber", Parameters.in(R2dbcType.VARCHAR, mobileNumber))
+                        .bind("createdAt", LocalDateTime.now())
+                        .bind("createdBy", auditor())
+                        .then()
+                        .then(nextAccountNumber())
+                        .flatMap(accountNumber -> databaseClient.sql("insert into accounts (customer_id, account_number, account_type, branch_address, created_at, created_by) "
+                                        + "values (:customerId, :accountNumber, :accountType, :branchAddress, :createdAt, :createdBy)")
+                                .bind("customerId", customerId)
+                                .bind("accountNumber", accountNumber)
+                                .bind("accountType", AccountsConstants.SAVINGS)
+                                .bind("branchAddress", AccountsConstants.ADDRESS)
+                                .bind("createdAt", LocalDateTime.now())
+                                .bind("createdBy", auditor())
+                                .then()
+                                .then(appendEvent(AccountEventOutbox.ACCOUNT_CREATED, customerId,
+                                        createdPayload(customerDto, accountNumber)))
+                                .thenReturn(Map.entry(customerId, accountNumber))))
+                .as(transactionalOperator::transactional)
+                .doOnNext(ids -> recordCreation(actor, customerDto, ids.getKey(), ids.getValue()))
+                .then()
+                // Sin consulta previa: el duplicado lo detecta la restricción única sobre mobile_number.
+                .onErrorMap(DataIntegrityViolationException.class, exception -> AccountServiceImpl.isMobileNumberConflict(exception)
+                        ? new CustomerAlreadyExistsException("Customer already registred with mobile number " + mobileNumber)
+                        : exception);
+        return create.then(Mono.fromRunnable(() -> evictCustomerDetails(mobileNumber)));
+    }
+
+    /**
+     * @param mobileNumber - Input Mobile Number
+     * @return Accounts Details based on a given mobileNumber
+     */
+    @Override
+    public Mono<CustomerDto> fetchAccount(String mobileNumber) {
+        return databaseClient.sql("select c.customer_id, c.name, c.email, c.mobile_number, c.version as customer_version, "
+                        + "a.account_number, a.account_type, a.branch_address, a.version as account_version "
+                        + "from customer c left join accounts a on a.customer_id = c.customer_id "
+                        + "where c.mobile_number = :mobileNumber")
+                .bind("mobileNumber", mobileNumber)
+                .map(this::toCustomerDetails)
+                .first()
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber)))
+                .flatMap(details -> {
+                    if (details.accounts().getAccountNumber() == null) {
+                        return Mono.error(new ResourceNotFoundException("Account", "customerId",
+                                details.customer().getCustomerId().toString()));
+                    }
+                    CustomerDto customerDto = CustomerMapper.mapToCustomerDto(details.customer(), new CustomerDto());
+                    customerDto.setAccountsDto(AccountsMapper.mapToAccountsDto(details.accounts(), new AccountsDto()));
+                    customerDto.setEtag(CustomerMapper.eTag(details.customer().getCustomerId(),
+                            details.customer().getVersion(), details.accounts().getVersion()));
+                    return Mono.just(customerDto);
+                });
+    }
+
+    /**
+     * Same rules as the blocking update: the current row is read inside the transaction, If-Match is compared with
+     * its ETag (412), each UPDATE only applies to the version that was read (409 if another transaction changed it
+     * in between), and an unchanged payload writes nothing.
+     *
+     * @param customerDto - CustomerDto Object
+     * @param ifMatch - If-Match header value, or null to update unconditionally
+     * @return boolean indicating if the account was updated or not
+     */
+    @Override
+    public Mono<Boolean> updateAccount(CustomerDto customerDto, String ifMatch) {
+        AccountsDto accountsDto = customerDto.getAccountsDto();
+        if (accountsDto == null) {
+            return Mono.just(false);
+        }
+        Long accountNumber = accountsDto.getAccountNumber();
+        String actor = auditTrail.currentActor();
+        return databaseClient.sql("select c.customer_id, c.name, c.email, c.mobile_number, c.version as customer_version, "
+                        + "a.account_number, a.account_type, a.branch_address, a.version as account_version "
+                        + "from accounts a join customer c on c.customer_id = a.customer_id where a.account_number = :accountNumber")
+                .bind("accountNumber", Parameters.in(R2dbcType.BIGINT, accountNumber))
+                .map(this::toCustomerDetails)
+                .first()
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Account", "AccountNumber", String.valueOf(accountNumber))))
+                .flatMap(previous -> {
+                    Customer customer = previous.customer();
+                    Accounts accounts = previous.accounts();
+                    if (ifMatch != null && !AccountServiceImpl.eTagMatches(ifMatch,
+                            CustomerMapper.eTag(customer.getCustomerId(), customer.getVersion(), accounts.getVersion()))) {
+                        return Mono.error(new PreconditionFailedException("Customer with mobile number "
+                                + customer.getMobileNumber() + " was modified since it was fetched. Please reload and try again"));
+                    }
+                    Map<String, AuditEvent.FieldChange> customerChanges = new LinkedHashMap<>();
+                    addChange(customerChanges, "email", customer.getEmail(), customerDto.getEmail());
+                    addChange(customerChanges, "mobileNumber", customer.getMobileNumber(), customerDto.getMobileNumber());
+                    addChange(customerChanges, "name", customer.getName(), customerDto.getName());
+                    Map<String, AuditEvent.FieldChange> accountChanges = new LinkedHashMap<>();
+                    addChange(accountChanges, "accountType", accounts.getAccountType(), accountsDto.getAccountType());
+                    addChange(accountChanges, "branchAddress", accounts.getBranchAddress(), accountsDto.getBranchAddress());
+                    UpdatedCustomer updated = new UpdatedCustomer(customer.getCustomerId(), customer.getMobileNumber(),
+                            customerChanges, accountChanges);
+                    // Como en la versión bloqueante: sin cambios no hay UPDATE ni evento.
+                    if (customerChanges.isEmpty() && accountChanges.isEmpty()) {
+                        return Mono.just(updated);
+                    }
+                    // Cada UPDATE exige la versión leída: si otra transacción (JPA o R2DBC) la cambió, no toca ninguna fila.
+                    Mono<Void> updateAccounts = accountChanges.isEmpty() ? Mono.empty()
+                            : databaseClient.sql("update accounts set account_type = :accountType, branch_address = :branchAddress, "
+                                            + "updated_at = :updatedAt, updated_by = :updatedBy, version = version + 1 "
+                                            + "where account_number = :accountNumber and version = :expected")
+                                    .bind("accountType", Parameters.in(R2dbcType.VARCHAR, accountsDto.getAccountType()))
+                                    .bind("branchAddress", Parameters.in(R2dbcType.VARCHAR, accountsDto.getBranchAddress()))
+                                    .bind("updatedAt", LocalDateTime.now())
+                                    .bind("updatedBy", auditor())
+                                    .bind("accountNumber", accountNumber)
+                                    .bind("expected", accounts.getVersion())
+                                    .fetch().rowsUpdated()
+                                    .flatMap(ReactiveAccountServiceImpl::requireOneRow);
+                    Mono<Void> updateCustomer = customerChanges.isEmpty() ? Mono.empty()
+                            : databaseClient.sql("update customer set name = :name, email = :email, mobile_number = :mobileNumber, "
+                                            + "updated_at = :updatedAt, updated_by = :updatedBy, version = version + 1 "
+                                            + "where customer_id = :customerId and version = :expected")
+                                    .bind("name", Parameters.in(R2dbcType.VARCHAR, customerDto.getName()))
+                                    .bind("email", Parameters.in(R2dbcType.VARCHAR, customerDto.getEmail()))
+                                    .bind("mobileNumber", Parameters.in(R2dbcType.VARCHAR, customerDto.getMobileNumber()))
+                                    .bind("updatedAt", LocalDateTime.now())
+                                    .bind("updatedBy", auditor())
+                                    .bind("customerId", customer.getCustomerId())
+                                    .bind("expected", customer.getVersion())
+                                    .fetch().rowsUpdated()
+                                    .flatMap(ReactiveAccountServiceImpl::requireOneRow);
+                    return updateAccounts
+                            .then(updateCustomer)
+                            .then(appendEvent(AccountEventOutbox.ACCOUNT_UPDATED, customer.getCustomerId(), customerDto))
+                            .thenReturn(updated);
+                })
+                .as(transactionalOperator::transactional)
+                .doOnNext(updated -> {
+                    evictCustomerDetails(updated.previousMobileNumber(), customerDto.getMobileNumber());
+                    recordUpdate(actor, updated, accountNumber);
+                })
+                .thenReturn(true);
+    }
+
+    /**
+     * @param mobileNumber - Input Mobile Number
+     * @return boolean indicating if the account was deleted or not
+     */
+    @Override
+    public Mono<Boolean> deleteAccount(String mobileNumber) {
+        String actor = auditTrail.currentActor();
+        // Como en la versión bloqueante: el id se lee antes de borrar para que la auditoría identifique la fila.
+        return databaseClient.sql("select customer_id from customer where mobile_number = :mobileNumber")
+                .bind("mobileNumber", Parameters.in(R2dbcType.VARCHAR, mobileNumber))
+                .map(row -> row.get(0, Long.class))
+                .first()
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber)))
+                .flatMap(customerId -> databaseClient.sql("delete from accounts where customer_id = :customerId")
+                        .bind("customerId", customerId)
+                        .fetch().rowsUpdated()
+                        .then(databaseClient.sql("delete from customer where customer_id = :customerId")
+                                .bind("customerId", customerId)
+                                .fetch().rowsUpdated())
+                        // Otra petición lo borró entretanto.
+                        .filter(deleted -> deleted > 0)
+                        .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber)))
+                        .then(appendEvent(AccountEventOutbox.ACCOUNT_DELETED, customerId,
+                                AccountEventOutbox.deletedPayload(mobileNumber)))
+                        .thenReturn(customerId))
+                .as(transactionalOperator::transactional)
+                .doOnNext(customerId -> {
+                    evictCustomerDetails(mobileNumber);
+                    auditTrail.recordAs(actor, AuditEvent.DELETE, "Customer", customerId,
+                            Map.of("mobileNumber", new AuditEvent.FieldChange(mobileNumber, null)));
+                })
+                .thenReturn(true);
+    }
+
+    /**
+     * The allocator only touches the database when it reserves a new block, so it runs on the
+     * bounded-elastic scheduler instead of blocking an event-loop thread.
+     */
+    private Mono<Long> nextAccountNumber() {
+        return Mono.fromCallable(accountNumberAllocator::nextAccountNumber).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Inserts an outbox event inside the current R2DBC transaction, like AccountEventOutbox does for JPA.
+     */
+    private Mono<Void> appendEvent(String eventType, Long customerId, CustomerDto payload) {
+        String key = AccountEventOutbox.aggregateKey(customerId);
+        return nextVersion(key)
+                .map(version -> accountEventOutbox.newEvent(eventType, key, version, payload))
+                .zipWith(databaseClient.sql(nextOutboxIdQuery).map(row -> row.get(0, Long.class)).one())
+                .flatMap(eventAndId -> databaseClient.sql("insert into outbox_event (event_id, aggregate_key, aggregate_version, "
+                                + "event_type, payload, created_at) "
+                                + "values (:eventId, :aggregateKey, :aggregateVersion, :eventType, :payload, :createdAt)")
+                        .bind("eventId", eventAndId.getT2())
+                        .bind("aggregateKey", eventAndId.getT1().getAggregateKey())
+                        .bind("aggregateVersion", eventAndId.getT1().getAggregateVersion())
+                        .bind("eventType", eventAndId.getT1().getEventType())
+                        .bind("payload", eventAndId.getT1().getPayload())
+                        .bind("createdAt", eventAndId.getT1().getCreatedAt())
+                        .then());
+    }
+
+    /**
+     * Takes the customer's next outbox version, as AccountEventOutbox does: the update locks the counter row
+     * until the transaction ends; a customer without a row starts at 1.
+     */
+    private Mono<Long> nextVersion(String key) {
+        return databaseClient.sql("update outbox_aggregate set last_version = last_version + 1 where aggregate_key = :key")
+                .bind("key", key)
+                .fetch().rowsUpdated()
+                .flatMap(updated -> updated == 0
+                        ? databaseClient.sql("insert into outbox_aggregate (aggregate_key, last_version) values (:key, 1)")
+                                .bind("key", key).then().thenReturn(1L)
+                        : databaseClient.sql("select last_version from outbox_aggregate where aggregate_key = :key")
+                                .bind("key", key)
+                                .map(row -> row.get(0, Long.class)).one());
+    }
+
+    private static CustomerDto createdPayload(CustomerDto customerDto, Long accountNumber) {
+        CustomerDto payload = new CustomerDto();
+        payload.setName(customerDto.getName());
+        payload.setEmail(customerDto.getEmail());
+        payload.setMobileNumber(customerDto.getMobileNumber());
+        AccountsDto accountsDto = new AccountsDto();
+        accountsDto.setAccountNumber(accountNumber);
+        accountsDto.setAccountType(AccountsConstants.SAVINGS);
+        accountsDto.setBranchAddress(AccountsConstants.ADDRESS);
+        payload.setAccountsDto(accountsDto);
+        return payload;
+    }
+
+    /**
+     * The SQL statements bypass Hibernate's entity events, so the committed changes are queued here.
+     */
+    private void recordCreation(String actor, CustomerDto customerDto, Long customerId, Long accountNumber) {
+        Map<String, AuditEvent.FieldChange> customerChanges = new LinkedHashMap<>();
+        customerChanges.put("email", new AuditEvent.FieldChange(null, customerDto.getEmail()));
+        customerChanges.put("mobileNumber", new AuditEvent.FieldChange(null, customerDto.getMobileNumber()));
+        customerChanges.put("name", new AuditEvent.FieldChange(null, customerDto.getName()));
+        auditTrail.recordAs(actor, AuditEvent.INSERT, "Customer", customerId, customerChanges);
+        Map<String, AuditEvent.FieldChange> accountChanges = new LinkedHashMap<>();
+        accountChanges.put("accountType", new AuditEvent.FieldChange(null, AccountsConstants.SAVINGS));
+        accountChanges.put("branchAddress", new AuditEvent.FieldChange(null, AccountsConstants.ADDRESS));
+        accountChanges.put("customerId", new AuditEvent.FieldChange(null, customerId));
+        auditTrail.recordAs(actor, AuditEvent.INSERT, "Accounts", accountNumber, accountChanges);
+    }
+
+    /**
+     * The SQL statements bypass Hibernate's entity events, so the committed changes are queued here. As with the
+     * entity events, only the fields that changed are recorded, with the values read in the transaction.
+     */
+    private void recordUpdate(String actor, UpdatedCustomer updated, Long accountNumber) {
+        if (!updated.customerChanges().isEmpty()) {
+            auditTrail.recordAs(actor, AuditEvent.UPDATE, "Customer", updated.customerId(), updated.customerChanges());
+        }
+        if (!updated.accountChanges().isEmpty()) {
+            auditTrail.recordAs(actor, AuditEvent.UPDATE, "Accounts", accountNumber, updated.accountChanges());
+        }
+    }
+
+    private static void addChange(Map<String, AuditEvent.FieldChange> changes, String field, Object oldValue, Object newValue) {
+        if (!Objects.equals(oldValue, newValue)) {
+            changes.put(field, new AuditEvent.FieldChange(oldValue, newValue));
+        }
+    }
+
+    /**
+     * @param updatedRows - rows matched by an UPDATE guarded by the version that was read
+     */
+    private static Mono<Void> requireOneRow(Long updatedRows) {
+        return updatedRows == 0
+                ? Mono.error(new OptimisticLockingFailureException("The record was modified by another transaction"))
+                : Mono.empty();
+    }
+
+    private String auditor() {
+        return auditorAware.getCurrentAuditor().orElse(null);
+    }
+
+    private CustomerDetails toCustomerDetails(Readable row) {
+        Customer customer = new Customer();
+        customer.setCustomerId(row.get("customer_id", Long.class));
+        customer.setName(row.get("name", String.class));
+        customer.setEmail(row.get("email", String.class));
+        customer.setMobileNumber(row.get("mobile_number", String.class));
+        customer.setVersion(row.get("customer_version", Long.class));
+        Accounts accounts = new Accounts();
+        accounts.setCustomerId(customer.getCustomerId());
+        accounts.setAccountNumber(row.get("account_number", Long.class));
+        accounts.setAccountType(row.get("account_type", String.class));
+        accounts.setBranchAddress(row.get("branch_address", String.class));
+        accounts.setVersion(row.get("account_version", Long.class));
+        return new CustomerDetails(customer, accounts);
+    }
+
+    private void evictCustomerDetails(String... mobileNumbers) {
+        // Las escrituras por R2DBC van al primario: fetchAccount tampoco debe leerlas de una réplica atrasada.
+        readYourWrites.recordWrite(mobileNumbers);
+        Cache cache = cacheManager.getCache(AccountsConstants.CUSTOMER_DETAILS_CACHE);
+        if (cache == null) {
+            return;
+        }
+        for (String mobileNumber : mobileNumbers) {
+            if (mobileNumber != null) {
+                cache.evict(mobileNumber);
+            }
+        }
+    }
+
+    private record CustomerDetails(Customer customer, Accounts accounts) {
+    }
+
+    /**
+     * @param previousMobileNumber - mobile number before the update, whose cache entry is also stale
+     */
+    private record UpdatedCustomer(Long customerId, String previousMobileNumber,
+                                   Map<String, AuditEvent.FieldChange> customerChanges,
+                                   Map<String, AuditEvent.FieldChange> accountChanges) {
+    }
+}
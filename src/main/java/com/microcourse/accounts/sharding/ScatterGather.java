@@ -0,0 +1,206 @@
+package com.microcourse.accounts.sharding;
+
+import com.microcourse.accounts.constants.AccountsConstants;
+import com.microcourse.accounts.metrics.RequestQueryStats;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Runs the same work on several shards in parallel, one transaction per shard, and gathers the results.
+ * <p>
+ * Each shard's transaction is independent (REQUIRES_NEW, even when called from inside another transaction):
+ * a write that spans shards is not atomic, a failure on one shard does not undo what the others committed.
+ * Without sharding the work runs inline on the caller's thread. Either way the statements count towards the
+ * caller's {@link RequestQueryStats} and the work sees the caller's request attributes.
+ */
+@Component
+public class ScatterGather {
+
+    private static final Object END_OF_SHARD = new Object();
+
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readWrite;
+    private final TransactionTemplate readOnly;
+    private final ExecutorService executor;
+
+    public ScatterGather(ShardRouter shardRouter, PlatformTransactionManager transactionManager) {
+        this.shardRouter = shardRouter;
+        this.readWrite = new TransactionTemplate(transactionManager);
+        this.readWrite.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnly.setReadOnly(true);
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = !shardRouter.isSharded() ? null : Executors.newFixedThreadPool(
+                shardRouter.shardCount() * AccountsConstants.SHARD_QUERY_THREADS_PER_SHARD, runnable -> {
+                    Thread thread = new Thread(runnable, "shard-query-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * @param work - argument of each shard's task, keyed by shard
+     * @param readOnly - whether the transactions are read-only
+     * @param task - the work of one shard, run inside its transaction
+     * @return the result of each shard, keyed by shard; if any shard fails its exception is rethrown once all finished
+     */
+    public <A, T> Map<Integer, T> onShards(Map<Integer, A> work, boolean readOnly, Function<A, T> task) {
+        TransactionTemplate template = readOnly ? this.readOnly : readWrite;
+        Map<Integer, T> results = new TreeMap<>();
+        if (executor == null || work.size() == 1) {
+            work.forEach((shard, argument) -> results.put(shard, inTransaction(shard, template, () -> task.apply(argument))));
+            return results;
+        }
+        Map<Integer, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        work.forEach((shard, argument) -> futures.put(shard, CompletableFuture.supplyAsync(
+                onBehalfOfCaller(() -> inTransaction(shard, template, () -> task.apply(argument))), executor)));
+        try {
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException exception) {
+            throw exception.getCause() instanceof RuntimeException cause ? cause : exception;
+        }
+        futures.forEach((shard, future) -> results.put(shard, future.join()));
+        return results;
+    }
+
+    /**
+     * @param readOnly - whether the transactions are read-only
+     * @param task - the work, run once on every shard inside its transaction
+     * @return the result of each shard, in shard order
+     */
+    public <T> List<T> onAllShards(boolean readOnly, Supplier<T> task) {
+        Map<Integer, Integer> work = new LinkedHashMap<>();
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            work.put(shard, shard);
+        }
+        return new ArrayList<>(onShards(work, readOnly, shard -> task.get()).values());
+    }
+
+    /**
+     * Streams the rows of every shard into the consumer, on the caller's thread. Each shard reads in its own
+     * read-only transaction and thread; a bounded queue keeps them at most a few rows ahead of the consumer.
+     * Rows of different shards are interleaved.
+     *
+     * @param rows - opens the row stream of the current shard
+     * @param consumer - receives every row of every shard
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void streamAllShards(Supplier<Stream<T>> rows, Consumer<T> consumer) {
+        if (executor == null) {
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<T> stream = rows.get()) {
+                    stream.forEach(consumer);
+                }
+            });
+            return;
+        }
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<>(AccountsConstants.SHARD_EXPORT_QUEUE_CAPACITY);
+        List<Future<?>> producers = new ArrayList<>(shardRouter.shardCount());
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            int producerShard = shard;
+            Supplier<Void> produce = onBehalfOfCaller(() -> inTransaction(producerShard, readOnly, () -> {
+                try (Stream<T> stream = rows.get()) {
+                    stream.forEach(row -> put(queue, row));
+                }
+                return null;
+            }));
+            producers.add(executor.submit(() -> {
+                Object last = END_OF_SHARD;
+                try {
+                    produce.get();
+                } catch (RuntimeException exception) {
+                    last = new ShardFailure(exception);
+                }
+                put(queue, last);
+            }));
+        }
+        int running = producers.size();
+        try {
+            while (running > 0) {
+                Object item = queue.take();
+                if (item == END_OF_SHARD) {
+                    running--;
+                } else if (item instanceof ShardFailure failure) {
+                    throw failure.exception();
+                } else {
+                    consumer.accept((T) item);
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Export interrupted");
+        } finally {
+            // El consumidor falló o se canceló: los productores bloqueados en la cola no deben quedarse esperando.
+            if (running > 0) {
+                producers.forEach(producer -> producer.cancel(true));
+            }
+        }
+    }
+
+    /**
+     * Wraps a task for a worker thread so its statements count towards the caller's {@link RequestQueryStats} and it
+     * sees the caller's request attributes (e.g. the actor of its audit events).
+     */
+    private static <T> Supplier<T> onBehalfOfCaller(Supplier<T> task) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return () -> {
+            RequestContextHolder.setRequestAttributes(attributes);
+            try {
+                return RequestQueryStats.callWith(stats, task);
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        };
+    }
+
+    private <T> T inTransaction(int shard, TransactionTemplate template, Supplier<T> task) {
+        return shardRouter.onShard(shard, () -> template.execute(status -> task.get()));
+    }
+
+    private static void put(BlockingQueue<Object> queue, Object item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Export cancelled");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private record ShardFailure(RuntimeException exception) {
+    }
+}
@@ -0,0 +1,142 @@
+package com.microcourse.accounts.sharding;
+
+import com.microcourse.accounts.config.ShardingProperties;
+import com.microcourse.accounts.constants.AccountsConstants;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Chooses the shard of a customer from its mobile number; a customer and its accounts always live on the same shard.
+ * <p>
+ * A mobile number belongs to the shard given by its hash modulo the shard count. Customers are never moved between
+ * shards, so the shard count is fixed once the databases are created (see V11__shard_layout).
+ * The chosen shard is bound to the current thread and read by {@link ShardRoutingDataSource} when the
+ * transaction takes its connection; without a bound shard everything goes to shard 0, which also keeps the
+ * tables that are not sharded (audit, idempotency keys).
+ */
+@Component
+public class ShardRouter {
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private final int shardCount;
+
+    public ShardRouter(ShardingProperties shardingProperties) {
+        int shardCount = 1 + shardingProperties.shards().size();
+        if (shardCount > AccountsConstants.SHARD_MAX_COUNT) {
+            throw new IllegalStateException("At most " + AccountsConstants.SHARD_MAX_COUNT + " shards are supported");
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    /**
+     * @param mobileNumber - mobile number of the customer
+     * @return the shard that stores the customer and its accounts
+     */
+    public int shardOf(String mobileNumber) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        return Math.floorMod(hash(mobileNumber), shardCount);
+    }
+
+    /**
+     * @param mobileNumbers - mobile numbers to split; duplicates are kept
+     * @return the mobile numbers of each shard, in input order; shards without any are left out
+     */
+    public Map<Integer, List<String>> groupByShard(Collection<String> mobileNumbers) {
+        Map<Integer, List<String>> byShard = new TreeMap<>();
+        for (String mobileNumber : mobileNumbers) {
+            byShard.computeIfAbsent(shardOf(mobileNumber), shard -> new ArrayList<>()).add(mobileNumber);
+        }
+        return byShard;
+    }
+
+    /**
+     * Sends the current transaction to the shard of the given customer. Must be called before the transaction's
+     * first query, when no connection has been taken yet; the binding ends with the transaction.
+     *
+     * @param mobileNumber - mobile number of the customer the transaction works on
+     */
+    public void routeTo(String mobileNumber) {
+        if (shardCount == 1) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Shard routing requires an active transaction");
+        }
+        int shard = shardOf(mobileNumber);
+        Integer bound = CURRENT_SHARD.get();
+        if (bound != null) {
+            // Una transacción trabaja sobre un único shard: su conexión ya está tomada.
+            if (bound != shard) {
+                throw new IllegalStateException("Transaction already bound to shard " + bound + ", not " + shard);
+            }
+            return;
+        }
+        CURRENT_SHARD.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                CURRENT_SHARD.remove();
+            }
+        });
+    }
+
+    /**
+     * Runs the action with the given shard bound to the current thread, restoring the previous binding afterwards.
+     *
+     * @param shard - shard the action's connections go to
+     * @param action - the work, usually a whole transaction
+     * @return the result of the action
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        Integer previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_SHARD.remove();
+            } else {
+                CURRENT_SHARD.set(previous);
+            }
+        }
+    }
+
+    static Integer currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    /**
+     * FNV-1a followed by the SplitMix64 finalizer: 64 bits, well spread even for short numeric keys that differ
+     * only in the last digits, where String.hashCode values stay close together.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
@@ -0,0 +1,62 @@
+package com.microcourse.accounts.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One pool per shard; each connection goes to the shard bound by {@link ShardRouter}, or to shard 0 if none is.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final List<HikariDataSource> shards;
+
+    /**
+     * @param shards - pools indexed by shard; the first one is the primary pool, which keeps its own lifecycle
+     */
+    public ShardRoutingDataSource(List<HikariDataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        // Un shard inexistente es un error de programación, no un motivo para escribir en el shard 0.
+        setLenientFallback(false);
+    }
+
+    /**
+     * @return the DataSource of the given shard, for work that must not depend on the thread's binding (migrations)
+     */
+    public DataSource shard(int shard) {
+        return shards.get(shard);
+    }
+
+    /**
+     * @return the pools of every shard, shard 0 (the primary pool) first
+     */
+    public List<HikariDataSource> pools() {
+        return shards;
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardRouter.currentShard();
+    }
+
+    @Override
+    public void close() {
+        for (HikariDataSource shard : shards.subList(1, shards.size())) {
+            shard.close();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package db.migration;
+
+import com.microcourse.accounts.constants.AccountsConstants;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Records the shard index and shard count this database was migrated with. The hash modulo of ShardRouter and the
+ * ranges of V7__shard_sequence_ranges both depend on them and no customer is ever moved between shards, so
+ * resharding is not supported: startup fails if accounts.sharding.shards no longer matches this row.
+ */
+public class V11__shard_layout extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Map<String, String> placeholders = context.getConfiguration().getPlaceholders();
+        int shard = Integer.parseInt(placeholders.getOrDefault(AccountsConstants.SHARD_INDEX_PLACEHOLDER, "0"));
+        int shardCount = Integer.parseInt(placeholders.getOrDefault(AccountsConstants.SHARD_COUNT_PLACEHOLDER, "1"));
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("CREATE TABLE `shard_layout` (`shard_index` int NOT NULL, `shard_count` int NOT NULL)");
+        }
+        try (PreparedStatement statement = context.getConnection()
+                .prepareStatement("INSERT INTO `shard_layout` (`shard_index`, `shard_count`) VALUES (?, ?)")) {
+            statement.setInt(1, shard);
+            statement.setInt(2, shardCount);
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package db.migration;
+
+import com.microcourse.accounts.constants.AccountsConstants;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Gives each shard its own range of customer ids, outbox event ids and account numbers, so keys stay unique
+ * across shards (Hibernate's pooled optimizer may take an id block on one shard and use it on another).
+ * The shard index and count come as placeholders from the sharded migration strategy; without sharding
+ * the sequences of V1 and V4 are left as they are.
+ * <p>
+ * The ranges are fixed by shard index when a shard is created and customers are never moved, so resharding is
+ * not supported: V11__shard_layout records the layout and startup fails if the configured shards differ.
+ */
+public class V7__shard_sequence_ranges extends BaseJavaMigration {
+
+    // INCREMENT BY de customer_seq y outbox_seq: el optimizador pooled usa el bloque [valor - 49, valor].
+    private static final long ID_INCREMENT = 50;
+    // START WITH de account_number_seq.
+    private static final long FIRST_ACCOUNT_NUMBER = 1_000_000_000L;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Map<String, String> placeholders = context.getConfiguration().getPlaceholders();
+        int shard = Integer.parseInt(placeholders.getOrDefault(AccountsConstants.SHARD_INDEX_PLACEHOLDER, "0"));
+        int shardCount = Integer.parseInt(placeholders.getOrDefault(AccountsConstants.SHARD_COUNT_PLACEHOLDER, "1"));
+        if (shardCount == 1) {
+            return;
+        }
+        long firstAccountNumber = FIRST_ACCOUNT_NUMBER + shard * AccountsConstants.SHARD_ACCOUNT_NUMBER_RANGE;
+        long lastAccountBlock = firstAccountNumber + AccountsConstants.SHARD_ACCOUNT_NUMBER_RANGE
+                - AccountsConstants.ACCOUNT_NUMBER_BLOCK_SIZE;
+        try (Statement statement = context.getConnection().createStatement()) {
+            if (shard > 0) {
+                long firstId = shard * AccountsConstants.SHARD_ID_RANGE;
+                statement.execute("ALTER SEQUENCE `customer_seq` RESTART WITH " + (firstId + ID_INCREMENT));
+                statement.execute("ALTER SEQUENCE `outbox_seq` RESTART WITH " + (firstId + ID_INCREMENT));
+                statement.execute("ALTER SEQUENCE `account_number_seq` RESTART WITH " + firstAccountNumber);
+            }
+            // Un shard que agota su rango falla al pedir bloque en lugar de invadir el del siguiente.
+            statement.execute("ALTER SEQUENCE `account_number_seq` MAXVALUE " + lastAccountBlock);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+-- El nivel compartido embebido (accounts.cache.shared-tier=in-process) no difunde invalidaciones fuera de su JVM:
+-- solo puede usarlo una instancia. La que arranca toma este turno y lo renueva; otra instancia no arranca mientras
+-- siga vigente.
+CREATE TABLE `cache_tier_lease` (
+  `lease_id` int PRIMARY KEY,
+  `owner` varchar(64) DEFAULT NULL,
+  `expires_at` timestamp NOT NULL
+);
+
+INSERT INTO `cache_tier_lease` (`lease_id`, `owner`, `expires_at`) VALUES (1, NULL, CURRENT_TIMESTAMP);
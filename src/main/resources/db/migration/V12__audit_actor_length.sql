@@ -0,0 +1,3 @@
+-- El autor de un evento es ahora el llamante (usuario, X-Client-Id de una pasarela o dirección de origen, ver
+-- AuditTrail#currentActor), no un nombre fijo de 20 caracteres.
+ALTER TABLE `audit_event` ALTER COLUMN `actor` varchar(255);
@@ -0,0 +1,14 @@
+-- La clave del outbox pasa del número de móvil al customer_id: el móvil puede cambiar y partía la secuencia de un
+-- cliente en dos claves con versiones independientes. Los eventos pendientes y los contadores de los clientes que
+-- existen se trasladan a su id; los contadores de clientes ya borrados y sin eventos pendientes se eliminan.
+UPDATE `outbox_event` e SET `aggregate_key` =
+  (SELECT CAST(c.`customer_id` AS varchar(20)) FROM `customer` c WHERE c.`mobile_number` = e.`aggregate_key`)
+  WHERE EXISTS (SELECT 1 FROM `customer` c WHERE c.`mobile_number` = e.`aggregate_key`);
+
+UPDATE `outbox_aggregate` a SET `aggregate_key` =
+  (SELECT CAST(c.`customer_id` AS varchar(20)) FROM `customer` c WHERE c.`mobile_number` = a.`aggregate_key`)
+  WHERE EXISTS (SELECT 1 FROM `customer` c WHERE c.`mobile_number` = a.`aggregate_key`);
+
+DELETE FROM `outbox_aggregate`
+  WHERE `aggregate_key` NOT IN (SELECT CAST(`customer_id` AS varchar(20)) FROM `customer`)
+  AND `aggregate_key` NOT IN (SELECT `aggregate_key` FROM `outbox_event`);
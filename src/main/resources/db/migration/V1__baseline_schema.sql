@@ -0,0 +1,28 @@
+-- Esquema inicial (antes src/main/resources/schema.sql). Los ids son bigint, como en las entidades.
+CREATE SEQUENCE `customer_seq` START WITH 1 INCREMENT BY 50;
+-- Cada valor reserva un bloque de 1000 números de cuenta (ver AccountNumberAllocator).
+CREATE SEQUENCE `account_number_seq` START WITH 1000000000 INCREMENT BY 1000 MAXVALUE 9999999000;
+
+CREATE TABLE `customer` (
+  `customer_id` bigint AUTO_INCREMENT  PRIMARY KEY,
+  `name` varchar(100) NOT NULL,
+  `email` varchar(100) NOT NULL,
+  `mobile_number` varchar(20) NOT NULL,
+  `created_at` timestamp NOT NULL,
+  `created_by` varchar(20) NOT NULL,
+  `updated_at` timestamp DEFAULT NULL,
+  `updated_by` varchar(20) DEFAULT NULL,
+  `version` bigint DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE `accounts` (
+  `customer_id` bigint NOT NULL,
+  `account_number` bigint AUTO_INCREMENT  PRIMARY KEY,
+  `account_type` varchar(100) NOT NULL,
+  `branch_address` varchar(200) NOT NULL,
+  `created_at` timestamp NOT NULL,
+  `created_by` varchar(20) NOT NULL,
+  `updated_at` timestamp DEFAULT NULL,
+  `updated_by` varchar(20) DEFAULT NULL,
+  `version` bigint DEFAULT 0 NOT NULL
+);
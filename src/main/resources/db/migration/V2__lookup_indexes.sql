@@ -0,0 +1,5 @@
+-- Un número de móvil identifica a un único cliente: la restricción sustituye a la comprobación previa en createAccount.
+ALTER TABLE `customer` ADD CONSTRAINT `uk_customer_mobile_number` UNIQUE (`mobile_number`);
+
+-- findByCustomerId / deleteByCustomerId y el join customer-accounts filtran por esta columna.
+CREATE INDEX `idx_accounts_customer_id` ON `accounts` (`customer_id`);
@@ -0,0 +1,12 @@
+-- Historial de cambios de customer/accounts, escrito en lotes por AuditTrail. Solo se inserta: nunca se actualiza ni se borra.
+CREATE TABLE `audit_event` (
+  `audit_id` bigint AUTO_INCREMENT  PRIMARY KEY,
+  `occurred_at` timestamp NOT NULL,
+  `actor` varchar(20) DEFAULT NULL,
+  `action` varchar(10) NOT NULL,
+  `entity_type` varchar(50) NOT NULL,
+  `entity_id` varchar(50) DEFAULT NULL,
+  `changes` clob DEFAULT NULL
+);
+
+CREATE INDEX `idx_audit_event_entity` ON `audit_event` (`entity_type`, `entity_id`);
@@ -0,0 +1,11 @@
+-- Outbox transaccional: los eventos de dominio se insertan en la misma transacción que el cambio
+-- y OutboxRelay los publica (y borra) en orden de event_id.
+CREATE SEQUENCE `outbox_seq` START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE `outbox_event` (
+  `event_id` bigint PRIMARY KEY,
+  `aggregate_key` varchar(20) NOT NULL,
+  `event_type` varchar(30) NOT NULL,
+  `payload` varchar(4000) NOT NULL,
+  `created_at` timestamp NOT NULL
+);
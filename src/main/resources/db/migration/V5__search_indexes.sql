@@ -0,0 +1,7 @@
+-- Búsqueda paginada por keyset (/api/search): prefijos de nombre/email y filtros exactos sobre la cuenta.
+-- Los índices de accounts terminan en customer_id, la columna de orden del keyset, para poder
+-- filtrar y continuar desde el cursor sin ordenar.
+CREATE INDEX `idx_customer_name` ON `customer` (`name`);
+CREATE INDEX `idx_customer_email` ON `customer` (`email`);
+CREATE INDEX `idx_accounts_type_customer` ON `accounts` (`account_type`, `customer_id`);
+CREATE INDEX `idx_accounts_branch_customer` ON `accounts` (`branch_address`, `customer_id`);
@@ -0,0 +1,12 @@
+-- Claves Idempotency-Key compartidas entre instancias (accounts.idempotency.store=jdbc).
+-- Una fila sin response_status es una petición todavía en curso.
+CREATE TABLE `idempotency_key` (
+  `idempotency_key` varchar(300) PRIMARY KEY,
+  `fingerprint` varchar(64) NOT NULL,
+  `response_status` int DEFAULT NULL,
+  `status_code` varchar(3) DEFAULT NULL,
+  `status_msg` varchar(200) DEFAULT NULL,
+  `created_at` timestamp NOT NULL
+);
+
+CREATE INDEX `idx_idempotency_key_created_at` ON `idempotency_key` (`created_at`);
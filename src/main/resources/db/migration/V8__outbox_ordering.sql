@@ -0,0 +1,27 @@
+-- Orden del outbox por cliente: los event_id salen de bloques de secuencia repartidos por instancia y no siguen el
+-- orden de commit. Cada evento lleva el siguiente aggregate_version de su clave, asignado bajo el bloqueo de fila de
+-- outbox_aggregate, así que las versiones de un cliente son consecutivas y en orden de commit.
+ALTER TABLE `outbox_event` ADD COLUMN `aggregate_version` bigint NOT NULL DEFAULT 0;
+
+CREATE INDEX `idx_outbox_event_aggregate` ON `outbox_event` (`aggregate_key`, `aggregate_version`);
+
+CREATE TABLE `outbox_aggregate` (
+  `aggregate_key` varchar(20) PRIMARY KEY,
+  `last_version` bigint NOT NULL
+);
+
+-- Los eventos pendientes de antes de esta migración conservan la versión 0 y salen antes que los nuevos.
+INSERT INTO `outbox_aggregate` (`aggregate_key`, `last_version`)
+  SELECT `mobile_number`, 0 FROM `customer`;
+INSERT INTO `outbox_aggregate` (`aggregate_key`, `last_version`)
+  SELECT DISTINCT `aggregate_key`, 0 FROM `outbox_event`
+  WHERE `aggregate_key` NOT IN (SELECT `aggregate_key` FROM `outbox_aggregate`);
+
+-- Turno del relay: solo la instancia con el turno vigente publica, renovándolo en cada lote.
+CREATE TABLE `outbox_relay_lease` (
+  `lease_id` int PRIMARY KEY,
+  `owner` varchar(64) DEFAULT NULL,
+  `expires_at` timestamp NOT NULL
+);
+
+INSERT INTO `outbox_relay_lease` (`lease_id`, `owner`, `expires_at`) VALUES (1, NULL, CURRENT_TIMESTAMP);
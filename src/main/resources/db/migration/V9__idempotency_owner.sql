@@ -0,0 +1,7 @@
+-- Reservas de Idempotency-Key con dueño: cada petición reserva la clave con su propio token y la instancia que la
+-- ejecuta renueva lease_expires_at mientras dura la operación. Solo una reserva sin respuesta cuyo plazo ha vencido
+-- (instancia caída) puede reclamarse, y solo el dueño puede completarla o liberarla.
+ALTER TABLE `idempotency_key` ADD COLUMN `owner` varchar(36) DEFAULT NULL;
+
+-- Las reservas anteriores a esta migración no tienen plazo: se tratan como vencidas.
+ALTER TABLE `idempotency_key` ADD COLUMN `lease_expires_at` timestamp DEFAULT NULL;
@@ -0,0 +1,178 @@
+package com.microcourse.accounts;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microcourse.accounts.constants.AccountsConstants;
+import com.microcourse.accounts.dto.CustomerDto;
+import com.microcourse.accounts.service.AccountNumberAllocator;
+import com.microcourse.accounts.service.IAccountsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /api/create/bulk: NDJSON or a JSON array in, one NDJSON result per record out, in input order.
+ */
+@SpringBootTest(properties = {"spring.cache.type=none", "spring.datasource.url=jdbc:h2:mem:bulkcreatetest;DB_CLOSE_DELAY=-1"})
+@AutoConfigureMockMvc
+class BulkCreateEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IAccountsService iAccountsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private AccountNumberAllocator accountNumberAllocator;
+
+    @Test
+    void ndjsonInputGetsOneResultPerRecord() throws Exception {
+        String body = String.join("\n",
+                customer("Bulk One", "one@example.com", "5550000401"),
+                customer("Bulk Two", "two@example.com", "5550000402"),
+                customer("Bulk Three", "three@example.com", "5550000403"));
+
+        List<JsonNode> results = bulkCreate(MediaType.APPLICATION_NDJSON, body);
+
+        assertThat(results).extracting(result -> result.get("index").asLong()).containsExactly(0L, 1L, 2L);
+        assertThat(results).extracting(result -> result.get("statusCode").asText()).containsOnly("201");
+        assertThat(iAccountsService.fetchAccount("5550000402").getName()).isEqualTo("Bulk Two");
+    }
+
+    @Test
+    void duplicatesAndInvalidRecordsAreRejectedOneByOne() throws Exception {
+        iAccountsService.createAccount(dto("Existing", "existing@example.com", "5550000411"));
+        String body = "[" + String.join(",",
+                customer("Bulk New", "new@example.com", "5550000412"),
+                customer("Bulk Existing", "again@example.com", "5550000411"),
+                customer("Bulk Repeated", "repeated@example.com", "5550000412"),
+                customer("Bulk Invalid", "not-an-email", "5550000413"),
+                customer("Bulk Short", "short@example.com", "12345")) + "]";
+
+        List<JsonNode> results = bulkCreate(MediaType.APPLICATION_JSON, body);
+
+        assertThat(results).extracting(result -> result.get("statusCode").asText())
+                .containsExactly("201", "400", "400", "400", "400");
+        // Duplicado de una fila existente y duplicado dentro del mismo lote: el primero del lote se crea.
+        assertThat(results.get(1).get("statusMsg").asText()).isEqualTo("Customer already registred with mobile number 5550000411");
+        assertThat(results.get(2).get("statusMsg").asText()).isEqualTo("Customer already registred with mobile number 5550000412");
+        assertThat(results.get(3).get("statusMsg").asText()).isEqualTo("Email must be a valid email address");
+        assertThat(results.get(4).get("statusMsg").asText()).isEqualTo("Mobile number must be 10 digits");
+        assertThat(iAccountsService.fetchAccount("5550000411").getName()).isEqualTo("Existing");
+        assertThat(iAccountsService.fetchAccount("5550000412").getName()).isEqualTo("Bulk New");
+    }
+
+    @Test
+    void malformedRecordsGetTheirOwnResultAndTheRestAreCreated() throws Exception {
+        String body = String.join("\n",
+                customer("Bulk Before", "before@example.com", "5550000441"),
+                "{\"name\": \"Bulk Broken\", ",
+                "[1, 2]",
+                customer("Bulk After", "after@example.com", "5550000442"));
+
+        List<JsonNode> results = bulkCreate(MediaType.APPLICATION_NDJSON, body);
+
+        assertThat(results).extracting(result -> result.get("index").asLong()).containsExactly(0L, 1L, 2L, 3L);
+        assertThat(results).extracting(result -> result.get("statusCode").asText()).containsExactly("201", "400", "400", "201");
+        assertThat(results.get(1).get("statusMsg").asText()).isEqualTo(AccountsConstants.MESSAGE_400_MALFORMED_RECORD);
+        assertThat(iAccountsService.fetchAccount("5550000442").getName()).isEqualTo("Bulk After");
+    }
+
+    @Test
+    void arrayRecordOfTheWrongShapeDoesNotStopTheRest() throws Exception {
+        String body = "[" + String.join(",",
+                "{\"name\": {\"first\": \"Bulk\"}, \"email\": \"shape@example.com\", \"mobileNumber\": \"5550000451\"}",
+                customer("Bulk Shaped", "shaped@example.com", "5550000452")) + "]";
+
+        List<JsonNode> results = bulkCreate(MediaType.APPLICATION_JSON, body);
+
+        assertThat(results).extracting(result -> result.get("statusCode").asText()).containsExactly("400", "201");
+        assertThat(iAccountsService.fetchAccount("5550000452").getName()).isEqualTo("Bulk Shaped");
+    }
+
+    @Test
+    void concurrentDuplicateOnlyFailsItsOwnRecord() throws Exception {
+        AtomicBoolean raced = new AtomicBoolean();
+        // Otra alta con el mismo número se confirma entre la comprobación de duplicados y el INSERT del lote.
+        doAnswer(invocation -> {
+            if (raced.compareAndSet(false, true)) {
+                CompletableFuture.runAsync(() -> jdbcTemplate.update("insert into customer "
+                        + "(customer_id, name, email, mobile_number, created_at, created_by) "
+                        + "values (next value for customer_seq, 'Racing', 'racing@example.com', '5550000461', "
+                        + "CURRENT_TIMESTAMP, 'TEST')")).join();
+            }
+            return invocation.callRealMethod();
+        }).when(accountNumberAllocator).nextAccountNumber();
+        String body = String.join("\n",
+                customer("Bulk Raced", "raced@example.com", "5550000461"),
+                customer("Bulk Bystander", "bystander@example.com", "5550000462"));
+
+        List<JsonNode> results = bulkCreate(MediaType.APPLICATION_NDJSON, body);
+
+        assertThat(results).extracting(result -> result.get("statusCode").asText()).containsExactly("400", "201");
+        assertThat(results.get(0).get("statusMsg").asText()).isEqualTo("Customer already registred with mobile number 5550000461");
+        assertThat(iAccountsService.fetchAccount("5550000462").getName()).isEqualTo("Bulk Bystander");
+    }
+
+    @Test
+    void failedWriteAnswersInternalErrorForTheRecordsItCovered() throws Exception {
+        doThrow(new IllegalStateException("account_number_seq exhausted")).when(accountNumberAllocator).nextAccountNumber();
+        String body = String.join("\n",
+                customer("Bulk Lost", "lost@example.com", "5550000421"),
+                customer("Bulk Bad", "bad@example.com", "123"));
+
+        List<JsonNode> results = bulkCreate(MediaType.APPLICATION_NDJSON, body);
+
+        assertThat(results).extracting(result -> result.get("statusCode").asText()).containsExactly("500", "400");
+        // La transacción se revirtió: el cliente no quedó creado a medias.
+        assertThat(iAccountsService.fetchAccounts(List.of("5550000421")).getNotFound()).containsExactly("5550000421");
+    }
+
+    private List<JsonNode> bulkCreate(MediaType contentType, String body) throws Exception {
+        String response = mockMvc.perform(post("/api/create/bulk").contentType(contentType).content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            results.add(objectMapper.readTree(line));
+        }
+        return results;
+    }
+
+    private String customer(String name, String email, String mobileNumber) throws Exception {
+        return objectMapper.writeValueAsString(dto(name, email, mobileNumber));
+    }
+
+    private static CustomerDto dto(String name, String email, String mobileNumber) {
+        CustomerDto customerDto = new CustomerDto();
+        customerDto.setName(name);
+        customerDto.setEmail(email);
+        customerDto.setMobileNumber(mobileNumber);
+        return customerDto;
+    }
+}
@@ -0,0 +1,94 @@
+package com.microcourse.accounts;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETag / If-None-Match on fetch and If-Match on update, with the customer details cache enabled.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalRequestTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void matchingIfNoneMatchReturnsNotModifiedWithoutQueries() throws Exception {
+        create("5550000101");
+        String eTag = fetch("5550000101").getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("\"").endsWith("\"");
+        DistributionSummary statements = meterRegistry.get("accounts.request.sql.statements").tag("uri", "/api/fetch").summary();
+        long requestsBefore = statements.count();
+        double statementsBefore = statements.totalAmount();
+
+        mockMvc.perform(get("/api/fetch").param("mobileNumber", "5550000101").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        // El DTO cacheado lleva su ETag: la revalidación no llega a la base de datos.
+        assertThat(statements.count()).isEqualTo(requestsBefore + 1);
+        assertThat(statements.totalAmount()).isEqualTo(statementsBefore);
+    }
+
+    @Test
+    void updateWithStaleIfMatchIsRejected() throws Exception {
+        create("5550000102");
+        MvcResult fetched = fetch("5550000102");
+        String eTag = fetched.getResponse().getHeader(HttpHeaders.ETAG);
+        ObjectNode customer = (ObjectNode) objectMapper.readTree(fetched.getResponse().getContentAsString());
+
+        customer.put("name", "First Update");
+        mockMvc.perform(put("/api/update").contentType(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_MATCH, eTag)
+                        .content(customer.toString()))
+                .andExpect(status().isOk());
+
+        // Misma ETag de antes: el registro ya cambió.
+        customer.put("name", "Second Update");
+        mockMvc.perform(put("/api/update").contentType(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_MATCH, eTag)
+                        .content(customer.toString()))
+                .andExpect(status().isPreconditionFailed());
+
+        String currentETag = fetch("5550000102").getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(currentETag).isNotEqualTo(eTag);
+        mockMvc.perform(put("/api/update").contentType(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_MATCH, currentETag)
+                        .content(customer.toString()))
+                .andExpect(status().isOk());
+    }
+
+    private MvcResult fetch(String mobileNumber) throws Exception {
+        return mockMvc.perform(get("/api/fetch").param("mobileNumber", mobileNumber))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+    }
+
+    private void create(String mobileNumber) throws Exception {
+        mockMvc.perform(post("/api/create").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Conditional\",\"email\":\"etag@example.com\",\"mobileNumber\":\"" + mobileNumber + "\"}"))
+                .andExpect(status().isCreated());
+    }
+}
@@ -0,0 +1,105 @@
+package com.microcourse.accounts;
+
+import com.microcourse.accounts.constants.AccountsConstants;
+import com.microcourse.accounts.dto.CustomerDto;
+import com.microcourse.accounts.exception.ResourceNotFoundException;
+import com.microcourse.accounts.service.IAccountsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The customerDetails cache behind fetch: a repeated fetch is a hit, create, update and delete evict the entry
+ * once their transaction commits.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:customercachetest;DB_CLOSE_DELAY=-1")
+class CustomerDetailsCacheTest {
+
+    @Autowired
+    private IAccountsService iAccountsService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void repeatedFetchHitsTheCacheAndUpdateEvictsIt() {
+        String mobileNumber = "5550000501";
+        iAccountsService.createAccount(customer("Cached", mobileNumber));
+        double missesBefore = gets("miss");
+        double hitsBefore = gets("near-hit");
+
+        CustomerDto first = iAccountsService.fetchAccount(mobileNumber);
+        CustomerDto second = iAccountsService.fetchAccount(mobileNumber);
+
+        assertThat(gets("miss")).isEqualTo(missesBefore + 1);
+        assertThat(gets("near-hit")).isEqualTo(hitsBefore + 1);
+        assertThat(second.getName()).isEqualTo(first.getName());
+        assertThat(cachedName(mobileNumber)).isEqualTo("Cached");
+
+        first.setName("Cached Updated");
+        assertThat(iAccountsService.updateAccount(first, null)).isTrue();
+        assertThat(cacheManager.getCache(AccountsConstants.CUSTOMER_DETAILS_CACHE).get(mobileNumber)).isNull();
+        // La siguiente lectura vuelve a la base de datos y trae el nombre nuevo.
+        assertThat(iAccountsService.fetchAccount(mobileNumber).getName()).isEqualTo("Cached Updated");
+    }
+
+    @Test
+    void deleteEvictsTheEntry() {
+        String mobileNumber = "5550000502";
+        iAccountsService.createAccount(customer("Deleted", mobileNumber));
+        iAccountsService.fetchAccount(mobileNumber);
+        assertThat(cachedName(mobileNumber)).isEqualTo("Deleted");
+
+        assertThat(iAccountsService.deleteAccount(mobileNumber)).isTrue();
+
+        assertThat(cacheManager.getCache(AccountsConstants.CUSTOMER_DETAILS_CACHE).get(mobileNumber)).isNull();
+    }
+
+    @Test
+    void fetchBeforeTheCommitDoesNotKeepTheOldRowCached() {
+        String mobileNumber = "5550000503";
+        iAccountsService.createAccount(customer("Deleted Concurrently", mobileNumber));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(iAccountsService.deleteAccount(mobileNumber)).isTrue();
+            // Otra petición lee antes del commit: todavía ve al cliente y lo guarda en la caché.
+            CompletableFuture.runAsync(() -> iAccountsService.fetchAccount(mobileNumber)).join();
+            assertThat(cachedName(mobileNumber)).isEqualTo("Deleted Concurrently");
+        });
+
+        assertThat(cacheManager.getCache(AccountsConstants.CUSTOMER_DETAILS_CACHE).get(mobileNumber)).isNull();
+        assertThatThrownBy(() -> iAccountsService.fetchAccount(mobileNumber)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private String cachedName(String mobileNumber) {
+        CustomerDto cached = cacheManager.getCache(AccountsConstants.CUSTOMER_DETAILS_CACHE).get(mobileNumber, CustomerDto.class);
+        return cached == null ? null : cached.getName();
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("accounts.cache.gets")
+                .tags("cache", AccountsConstants.CUSTOMER_DETAILS_CACHE, "result", result).counter().count();
+    }
+
+    private static CustomerDto customer(String name, String mobileNumber) {
+        CustomerDto customerDto = new CustomerDto();
+        customerDto.setName(name);
+        customerDto.setEmail("cache@example.com");
+        customerDto.setMobileNumber(mobileNumber);
+        return customerDto;
+    }
+}
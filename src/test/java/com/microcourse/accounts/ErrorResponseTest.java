@@ -0,0 +1,51 @@
+package com.microcourse.accounts;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Error responses keep the ErrorResponseDto format and are counted per exception type.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ErrorResponseTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void unknownAndInvalidMobileNumbersAreClientErrors() throws Exception {
+        double notFoundBefore = errors("ResourceNotFoundException");
+        double invalidBefore = errors("ConstraintViolationException");
+
+        mockMvc.perform(get("/api/fetch").param("mobileNumber", "5559999999"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.apiPath").value("uri=/api/fetch"))
+                .andExpect(jsonPath("$.errorCode").value("NOT_FOUND"))
+                .andExpect(jsonPath("$.errorMessage").value("Customer not found with mobileNumber : '5559999999'"))
+                .andExpect(jsonPath("$.errorTime").exists());
+        mockMvc.perform(get("/api/fetch").param("mobileNumber", "12345"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("BAD_REQUEST"));
+
+        assertThat(errors("ResourceNotFoundException")).isEqualTo(notFoundBefore + 1);
+        assertThat(errors("ConstraintViolationException")).isEqualTo(invalidBefore + 1);
+    }
+
+    private double errors(String exception) {
+        var counter = meterRegistry.find("accounts.errors").tag("exception", exception).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,115 @@
+package com.microcourse.accounts;
+
+import com.microcourse.accounts.constants.AccountsConstants;
+import com.microcourse.accounts.service.IAccountsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /api/export in both formats, and the 503 once every export permit is taken.
+ */
+@SpringBootTest(properties = {"spring.cache.type=none", "spring.datasource.url=jdbc:h2:mem:exporttest;DB_CLOSE_DELAY=-1"})
+@AutoConfigureMockMvc
+class ExportEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IAccountsService iAccountsService;
+
+    @Test
+    void exportsOneJsonObjectPerLine() throws Exception {
+        create("5550000951", "Export Json");
+
+        String body = mockMvc.perform(get("/api/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines().filter(line -> line.contains("\"mobileNumber\":\"5550000951\"")))
+                .singleElement().asString()
+                .startsWith("{").endsWith("}")
+                .contains("\"name\":\"Export Json\"", "\"accountType\":\"Savings\"");
+    }
+
+    @Test
+    void exportsCsvWithHeaderAndQuotedFields() throws Exception {
+        create("5550000952", "Export, Csv");
+
+        String body = mockMvc.perform(get("/api/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertThat(lines.get(0)).isEqualTo("name,email,mobileNumber,accountNumber,accountType,branchAddress");
+        assertThat(lines).filteredOn(line -> line.contains("5550000952"))
+                .singleElement().asString()
+                .startsWith("\"Export, Csv\",export@example.com,5550000952,")
+                .contains(",Savings,");
+    }
+
+    @Test
+    void rejectsWithRetryAfterWhenEveryPermitIsTaken() throws Exception {
+        create("5550000953", "Export Busy");
+        CountDownLatch streaming = new CountDownLatch(AccountsConstants.EXPORT_MAX_CONCURRENT);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> exports = new ArrayList<>();
+        for (int i = 0; i < AccountsConstants.EXPORT_MAX_CONCURRENT; i++) {
+            // Cada exportación se detiene en su primera fila y retiene su permiso.
+            Thread export = new Thread(() -> iAccountsService.exportAccounts(customerDto -> {
+                streaming.countDown();
+                await(release);
+            }));
+            export.start();
+            exports.add(export);
+        }
+        try {
+            assertThat(streaming.await(10, TimeUnit.SECONDS)).isTrue();
+
+            mockMvc.perform(get("/api/export").param("format", "csv"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, Long.toString(AccountsConstants.EXPORT_RETRY_AFTER_SECONDS)))
+                    .andExpect(content().string(""));
+        } finally {
+            release.countDown();
+            for (Thread export : exports) {
+                export.join();
+            }
+        }
+
+        mockMvc.perform(get("/api/export")).andExpect(status().isOk());
+    }
+
+    private void create(String mobileNumber, String name) throws Exception {
+        mockMvc.perform(post("/api/create").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + name + "\",\"email\":\"export@example.com\",\"mobileNumber\":\"" + mobileNumber + "\"}"))
+                .andExpect(status().isCreated());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.microcourse.accounts;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Fails when an endpoint starts issuing more SQL statements (or loading more entities) than its
+ * budget, e.g. because of an N+1 or an extra lookup. The cache is disabled so every call reaches the database.
+ */
+@SpringBootTest(properties = "spring.cache.type=none")
+@AutoConfigureMockMvc
+class QueryCountRegressionTest {
+
+    private static final String STATEMENTS = "accounts.request.sql.statements";
+    private static final String ENTITIES_LOADED = "accounts.request.entities.loaded";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void createAccountStaysWithinStatementBudget() throws Exception {
+        // El primer alta del contexto inicializa los pools de customer_seq y outbox_seq: no se mide.
+        create("5550000010");
+
+        RequestCost cost = cost("/api/create", () -> create("5550000001"));
+
+        assertThat(cost.statements()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void fetchAccountUsesASingleQuery() throws Exception {
+        create("5550000002");
+
+        RequestCost cost = cost("/api/fetch", () -> mockMvc.perform(get("/api/fetch").param("mobileNumber", "5550000002"))
+                .andExpect(status().isOk()));
+
+        assertThat(cost.statements()).isEqualTo(1);
+        assertThat(cost.entitiesLoaded()).isZero();
+    }
+
+    @Test
+    void batchFetchUsesASingleQueryForAnyNumberOfMobileNumbers() throws Exception {
+        create("5550000006");
+        create("5550000007");
+
+        RequestCost cost = cost("/api/fetch/batch", () -> mockMvc.perform(get("/api/fetch/batch")
+                        .param("mobileNumbers", "5550000006", "5550000007", "5559999999"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found.5550000006.accountsDto.accountNumber").exists())
+                .andExpect(jsonPath("$.found.5550000007").exists())
+                .andExpect(jsonPath("$.notFound[0]").value("5559999999")));
+
+        assertThat(cost.statements()).isEqualTo(1);
+        assertThat(cost.entitiesLoaded()).isZero();
+    }
+
+    @Test
+    void searchPagesWithOneKeysetQueryPerPage() throws Exception {
+        create("5550000011", "Keyset Page");
+        create("5550000012", "Keyset Page");
+        create("5550000013", "Keyset Page");
+
+        String[] firstPage = new String[1];
+        RequestCost firstCost = cost("/api/search", () -> firstPage[0] = mockMvc.perform(get("/api/search")
+                        .param("namePrefix", "Keyset").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].mobileNumber").value("5550000011"))
+                .andExpect(jsonPath("$.nextCursor").isNumber())
+                .andReturn().getResponse().getContentAsString());
+        String nextCursor = objectMapper.readTree(firstPage[0]).get("nextCursor").asText();
+        RequestCost nextCost = cost("/api/search", () -> mockMvc.perform(get("/api/search")
+                        .param("namePrefix", "Keyset").param("size", "2").param("after", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].mobileNumber").value("5550000013"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist()));
+
+        for (RequestCost cost : List.of(firstCost, nextCost)) {
+            assertThat(cost.statements()).isEqualTo(1);
+            assertThat(cost.entitiesLoaded()).isZero();
+        }
+    }
+
+    @Test
+    void updateAccountStaysWithinStatementBudget() throws Exception {
+        create("5550000003");
+        JsonNode customer = objectMapper.readTree(mockMvc.perform(get("/api/fetch").param("mobileNumber", "5550000003"))
+                .andReturn().getResponse().getContentAsString());
+        ((ObjectNode) customer).put("name", "Updated Name");
+
+        RequestCost cost = cost("/api/update", () -> mockMvc.perform(put("/api/update")
+                        .contentType(MediaType.APPLICATION_JSON).content(customer.toString()))
+                .andExpect(status().isOk()));
+
+        assertThat(cost.statements()).isLessThanOrEqualTo(3);
+        assertThat(cost.entitiesLoaded()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void unchangedUpdateIssuesNoWrites() throws Exception {
+        create("5550000005");
+        String customer = mockMvc.perform(get("/api/fetch").param("mobileNumber", "5550000005"))
+                .andReturn().getResponse().getContentAsString();
+
+        RequestCost cost = cost("/api/update", () -> mockMvc.perform(put("/api/update")
+                        .contentType(MediaType.APPLICATION_JSON).content(customer))
+                .andExpect(status().isOk()));
+
+        assertThat(cost.statements()).isEqualTo(1);
+    }
+
+    @Test
+    void deleteAccountStaysWithinStatementBudget() throws Exception {
+        create("5550000004");
+
+        RequestCost cost = cost("/api/delete", () -> mockMvc.perform(delete("/api/delete")
+                        .param("mobileNumber", "5550000004"))
+                .andExpect(status().isOk()));
+
+        // SELECT del id para la auditoría, DELETE de cuentas, DELETE de cliente e INSERT del evento en el outbox.
+        assertThat(cost.statements()).isEqualTo(4);
+        assertThat(cost.entitiesLoaded()).isZero();
+    }
+
+    @Test
+    void batchDeleteUsesSetBasedStatements() throws Exception {
+        create("5550000008");
+        create("5550000009");
+
+        RequestCost cost = cost("/api/delete/batch", () -> mockMvc.perform(delete("/api/delete/batch")
+                        .param("mobileNumbers", "5550000008", "5550000009", "5559999999"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted.length()").value(2))
+                .andExpect(jsonPath("$.notFound[0]").value("5559999999")));
+
+        assertThat(cost.statements()).isEqualTo(4);
+        assertThat(cost.entitiesLoaded()).isZero();
+    }
+
+    private void create(String mobileNumber) throws Exception {
+        create(mobileNumber, "Query Budget");
+    }
+
+    private void create(String mobileNumber, String name) throws Exception {
+        mockMvc.perform(post("/api/create").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + name + "\",\"email\":\"budget@example.com\",\"mobileNumber\":\"" + mobileNumber + "\"}"))
+                .andExpect(status().isCreated());
+    }
+
+    /**
+     * Runs a single request to the endpoint and measures it from the before and after values of the endpoint's
+     * meters, so requests made earlier (set-up, other tests of the shared context) do not count.
+     */
+    private RequestCost cost(String uri, Request request) throws Exception {
+        long requestsBefore = count(summary(STATEMENTS, uri));
+        double statementsBefore = total(summary(STATEMENTS, uri));
+        double entitiesBefore = total(summary(ENTITIES_LOADED, uri));
+
+        request.perform();
+
+        assertThat(count(summary(STATEMENTS, uri)) - requestsBefore).as("requests to %s", uri).isEqualTo(1);
+        return new RequestCost(total(summary(STATEMENTS, uri)) - statementsBefore,
+                total(summary(ENTITIES_LOADED, uri)) - entitiesBefore);
+    }
+
+    private DistributionSummary summary(String name, String uri) {
+        return meterRegistry.find(name).tag("uri", uri).summary();
+    }
+
+    private static long count(DistributionSummary summary) {
+        return summary == null ? 0 : summary.count();
+    }
+
+    private static double total(DistributionSummary summary) {
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
+    @FunctionalInterface
+    private interface Request {
+        void perform() throws Exception;
+    }
+
+    private record RequestCost(double statements, double entitiesLoaded) {
+    }
+}
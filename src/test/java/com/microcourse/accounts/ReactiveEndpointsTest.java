@@ -0,0 +1,160 @@
+package com.microcourse.accounts;
+
+import com.microcourse.accounts.audit.AuditAwareImpl;
+import com.microcourse.accounts.dto.CustomerDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.client.MockMvcWebTestClient;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Create, fetch, update and delete through /api/reactive (R2DBC), registered only without sharding.
+ */
+@SpringBootTest(properties = "spring.cache.type=none")
+@AutoConfigureMockMvc
+class ReactiveEndpointsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // El UPDATE toma el auditor después de leer la fila: el punto donde se cuela una escritura concurrente.
+    @SpyBean
+    private AuditAwareImpl auditAware;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void bindClient() {
+        webTestClient = MockMvcWebTestClient.bindTo(mockMvc).build();
+    }
+
+    @Test
+    void createFetchUpdateDeleteRoundTrip() {
+        String mobileNumber = "5550000901";
+        webTestClient.post().uri("/api/reactive/create").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Reactive Test\",\"email\":\"reactive@example.com\",\"mobileNumber\":\"" + mobileNumber + "\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().jsonPath("$.statusCode").isEqualTo("201");
+
+        CustomerDto created = fetch(mobileNumber);
+        assertThat(created.getName()).isEqualTo("Reactive Test");
+        assertThat(created.getAccountsDto().getAccountType()).isEqualTo("Savings");
+
+        created.setName("Reactive Updated");
+        created.getAccountsDto().setBranchAddress("1 Reactive Road");
+        webTestClient.put().uri("/api/reactive/update").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(created)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.statusCode").isEqualTo("200");
+        CustomerDto updated = fetch(mobileNumber);
+        assertThat(updated.getName()).isEqualTo("Reactive Updated");
+        assertThat(updated.getAccountsDto().getBranchAddress()).isEqualTo("1 Reactive Road");
+
+        webTestClient.delete().uri("/api/reactive/delete?mobileNumber={mobileNumber}", mobileNumber)
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get().uri("/api/reactive/fetch?mobileNumber={mobileNumber}", mobileNumber)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void updateWithoutAccountNumberIsNotFound() {
+        String mobileNumber = "5550000902";
+        webTestClient.post().uri("/api/reactive/create").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Reactive Null\",\"email\":\"null@example.com\",\"mobileNumber\":\"" + mobileNumber + "\"}")
+                .exchange()
+                .expectStatus().isCreated();
+        CustomerDto customerDto = fetch(mobileNumber);
+        // El número de cuenta nulo se enlaza como NULL tipado: ninguna cuenta coincide.
+        customerDto.getAccountsDto().setAccountNumber(null);
+
+        webTestClient.put().uri("/api/reactive/update").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(customerDto)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void staleIfMatchIsRejected() {
+        String mobileNumber = "5550000903";
+        create(mobileNumber);
+        String eTag = webTestClient.get().uri("/api/reactive/fetch?mobileNumber={mobileNumber}", mobileNumber)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+        CustomerDto customerDto = fetch(mobileNumber);
+        customerDto.setName("Reactive First");
+        update(customerDto, eTag).expectStatus().isOk();
+
+        customerDto.setName("Reactive Second");
+        update(customerDto, eTag).expectStatus().isEqualTo(412);
+
+        assertThat(fetch(mobileNumber).getName()).isEqualTo("Reactive First");
+    }
+
+    @Test
+    void concurrentChangeAfterTheReadIsAConflict() {
+        String mobileNumber = "5550000904";
+        create(mobileNumber);
+        CustomerDto customerDto = fetch(mobileNumber);
+        AtomicBoolean armed = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if (armed.getAndSet(false)) {
+                // Otra transacción (JPA o R2DBC) confirma entre la lectura y la escritura de esta.
+                CompletableFuture.runAsync(() -> jdbcTemplate.update(
+                        "update customer set name = 'Reactive Concurrent', version = version + 1 where mobile_number = ?",
+                        mobileNumber)).join();
+            }
+            return invocation.callRealMethod();
+        }).when(auditAware).getCurrentAuditor();
+
+        customerDto.setName("Reactive Overwrite");
+        update(customerDto, null).expectStatus().isEqualTo(409);
+
+        assertThat(fetch(mobileNumber).getName()).isEqualTo("Reactive Concurrent");
+    }
+
+    private void create(String mobileNumber) {
+        webTestClient.post().uri("/api/reactive/create").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Reactive Version\",\"email\":\"version@example.com\",\"mobileNumber\":\"" + mobileNumber + "\"}")
+                .exchange()
+                .expectStatus().isCreated();
+    }
+
+    private WebTestClient.ResponseSpec update(CustomerDto customerDto, String ifMatch) {
+        WebTestClient.RequestBodySpec request = webTestClient.put().uri("/api/reactive/update")
+                .contentType(MediaType.APPLICATION_JSON);
+        if (ifMatch != null) {
+            request.header(HttpHeaders.IF_MATCH, ifMatch);
+        }
+        return request.bodyValue(customerDto).exchange();
+    }
+
+    private CustomerDto fetch(String mobileNumber) {
+        return webTestClient.get().uri("/api/reactive/fetch?mobileNumber={mobileNumber}", mobileNumber)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CustomerDto.class)
+                .returnResult().getResponseBody();
+    }
+}
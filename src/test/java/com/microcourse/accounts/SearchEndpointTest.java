@@ -0,0 +1,111 @@
+package com.microcourse.accounts;
+
+import com.microcourse.accounts.dto.CustomerDto;
+import com.microcourse.accounts.service.IAccountsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /api/search filters: prefixes match literally (wildcards typed by the caller are not wildcards), account type
+ * and branch match exactly, and the page size stays within its bounds.
+ */
+@SpringBootTest(properties = {"spring.cache.type=none", "spring.datasource.url=jdbc:h2:mem:searchtest;DB_CLOSE_DELAY=-1"})
+@AutoConfigureMockMvc
+class SearchEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IAccountsService iAccountsService;
+
+    @Test
+    void accountTypeAndBranchFilterByExactValue() throws Exception {
+        create("Filter Savings", "filter.savings@example.com", "5550000501");
+        create("Filter Current", "filter.current@example.com", "5550000502");
+        changeAccount("5550000502", "Current", "1 Branch Road, Boston");
+        create("Filter Other Branch", "filter.branch@example.com", "5550000503");
+        changeAccount("5550000503", "Current", "2 Branch Road, Boston");
+
+        mockMvc.perform(get("/api/search").param("namePrefix", "Filter").param("accountType", "Current"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].mobileNumber").value("5550000502"))
+                .andExpect(jsonPath("$.content[1].mobileNumber").value("5550000503"));
+        mockMvc.perform(get("/api/search").param("namePrefix", "Filter").param("accountType", "Current")
+                        .param("branchAddress", "1 Branch Road, Boston"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].mobileNumber").value("5550000502"))
+                .andExpect(jsonPath("$.content[0].accountsDto.branchAddress").value("1 Branch Road, Boston"));
+        // Igualdad, no prefijo.
+        mockMvc.perform(get("/api/search").param("namePrefix", "Filter").param("branchAddress", "1 Branch Road"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(0));
+    }
+
+    @Test
+    void wildcardsInTheNamePrefixAreMatchedLiterally() throws Exception {
+        create("Percent 100% Club", "percent.one@example.com", "5550000511");
+        create("Percent 100 Club", "percent.two@example.com", "5550000512");
+        create("Under_score", "under.one@example.com", "5550000513");
+        create("Underscore", "under.two@example.com", "5550000514");
+
+        mockMvc.perform(get("/api/search").param("namePrefix", "Percent 100%"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].mobileNumber").value("5550000511"));
+        mockMvc.perform(get("/api/search").param("namePrefix", "Under_"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].mobileNumber").value("5550000513"));
+    }
+
+    @Test
+    void wildcardsInTheEmailPrefixAreMatchedLiterally() throws Exception {
+        create("Email Literal", "mail_box@example.com", "5550000521");
+        create("Email Other", "mailxbox@example.com", "5550000522");
+        create("Email Percent", "mail%box@example.com", "5550000523");
+
+        mockMvc.perform(get("/api/search").param("emailPrefix", "mail_"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].mobileNumber").value("5550000521"));
+        mockMvc.perform(get("/api/search").param("emailPrefix", "mail%"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].mobileNumber").value("5550000523"));
+    }
+
+    @Test
+    void pageSizeOutOfRangeIsRejected() throws Exception {
+        mockMvc.perform(get("/api/search").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/search").param("size", "101"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/search").param("size", "100"))
+                .andExpect(status().isOk());
+    }
+
+    private void create(String name, String email, String mobileNumber) {
+        CustomerDto customerDto = new CustomerDto();
+        customerDto.setName(name);
+        customerDto.setEmail(email);
+        customerDto.setMobileNumber(mobileNumber);
+        iAccountsService.createAccount(customerDto);
+    }
+
+    private void changeAccount(String mobileNumber, String accountType, String branchAddress) {
+        CustomerDto customerDto = iAccountsService.fetchAccount(mobileNumber);
+        customerDto.getAccountsDto().setAccountType(accountType);
+        customerDto.getAccountsDto().setBranchAddress(branchAddress);
+        iAccountsService.updateAccount(customerDto, null);
+    }
+}
@@ -0,0 +1,111 @@
+package com.microcourse.accounts;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.microcourse.accounts.constants.AccountsConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Smile content negotiation on create, fetch and batch fetch; JSON stays the default.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class WireFormatTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType(AccountsConstants.APPLICATION_SMILE_VALUE);
+
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void smileRoundTripMatchesJson() throws Exception {
+        ObjectNode customer = smileMapper.createObjectNode()
+                .put("name", "Binary Client")
+                .put("email", "smile@example.com")
+                .put("mobileNumber", "5550000201");
+        byte[] created = mockMvc.perform(post("/api/create").contentType(SMILE)
+                        .accept(SMILE).content(smileMapper.writeValueAsBytes(customer)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(smileMapper.readTree(created).get("statusCode").asText()).isEqualTo("201");
+
+        byte[] smile = mockMvc.perform(get("/api/fetch").param("mobileNumber", "5550000201").accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        String json = mockMvc.perform(get("/api/fetch").param("mobileNumber", "5550000201"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+        // Mismo árbol en los dos formatos; el binario es más pequeño.
+        assertThat(smileMapper.readTree(smile)).isEqualTo(new ObjectMapper().readTree(json));
+        assertThat(smile.length).isLessThan(json.getBytes().length);
+
+        JsonNode batch = smileMapper.readTree(mockMvc.perform(get("/api/fetch/batch")
+                        .param("mobileNumbers", "5550000201,5550000299").accept(SMILE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray());
+        assertThat(batch.at("/found/5550000201/name").asText()).isEqualTo("Binary Client");
+        assertThat(batch.at("/notFound/0").asText()).isEqualTo("5550000299");
+    }
+
+    @Test
+    void eachFormatHasItsOwnETagAndResponsesVaryByAccept() throws Exception {
+        mockMvc.perform(post("/api/create").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Tagged Client\",\"email\":\"tagged@example.com\",\"mobileNumber\":\"5550000202\"}"))
+                .andExpect(status().isCreated());
+        String jsonETag = mockMvc.perform(get("/api/fetch").param("mobileNumber", "5550000202"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String smileETag = mockMvc.perform(get("/api/fetch").param("mobileNumber", "5550000202").accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(smileETag).isNotEqualTo(jsonETag);
+
+        // La ETag del JSON no valida la representación Smile, y viceversa.
+        mockMvc.perform(get("/api/fetch").param("mobileNumber", "5550000202").accept(SMILE)
+                        .header(HttpHeaders.IF_NONE_MATCH, jsonETag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/fetch").param("mobileNumber", "5550000202").accept(SMILE)
+                        .header(HttpHeaders.IF_NONE_MATCH, smileETag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/fetch").param("mobileNumber", "5550000202")
+                        .header(HttpHeaders.IF_NONE_MATCH, smileETag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void smileRequestIsValidatedLikeJson() throws Exception {
+        ObjectNode customer = smileMapper.createObjectNode()
+                .put("name", "Binary Client")
+                .put("email", "smile@example.com")
+                .put("mobileNumber", "123");
+        mockMvc.perform(post("/api/create").contentType(SMILE)
+                        .content(smileMapper.writeValueAsBytes(customer)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.mobileNumber").exists());
+    }
+}
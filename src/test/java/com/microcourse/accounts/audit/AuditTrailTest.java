@@ -0,0 +1,160 @@
+package com.microcourse.accounts.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.client.MockMvcWebTestClient;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The change history written by {@link AuditTrail} for the create, update and delete endpoints.
+ */
+@SpringBootTest(properties = "spring.cache.type=none")
+@AutoConfigureMockMvc
+class AuditTrailTest {
+
+    private static final String MOBILE_NUMBER = "5550000100";
+    private static final String BATCH_MOBILE_NUMBER_1 = "5550000101";
+    private static final String BATCH_MOBILE_NUMBER_2 = "5550000102";
+    private static final String REACTIVE_MOBILE_NUMBER = "5550000103";
+    private static final String REACTIVE_UPDATE_MOBILE_NUMBER = "5550000104";
+    private static final Principal USER = () -> "audit-user";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuditTrail auditTrail;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void recordsCommittedChangesWithChangedFieldsOnly() throws Exception {
+        mockMvc.perform(post("/api/create").principal(USER).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Audit Trail\",\"email\":\"audit@example.com\",\"mobileNumber\":\"" + MOBILE_NUMBER + "\"}"))
+                .andExpect(status().isCreated());
+        ObjectNode customer = (ObjectNode) objectMapper.readTree(mockMvc.perform(get("/api/fetch").param("mobileNumber", MOBILE_NUMBER))
+                .andReturn().getResponse().getContentAsString());
+        customer.put("name", "Audit Trail Updated");
+        mockMvc.perform(put("/api/update").principal(USER).contentType(MediaType.APPLICATION_JSON).content(customer.toString()))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/delete").principal(USER).param("mobileNumber", MOBILE_NUMBER))
+                .andExpect(status().isOk());
+
+        auditTrail.flush();
+
+        Long customerId = jdbcTemplate.queryForObject(
+                "select entity_id from audit_event where action = 'INSERT' and entity_type = 'Customer' and changes like ?",
+                Long.class, "%" + MOBILE_NUMBER + "%");
+        List<Map<String, Object>> customerEvents = jdbcTemplate.queryForList(
+                "select action, actor, changes from audit_event where entity_type = 'Customer' and entity_id = ? order by audit_id",
+                customerId.toString());
+
+        assertThat(customerEvents).extracting(event -> event.get("ACTION")).containsExactly("INSERT", "UPDATE", "DELETE");
+        // El autor es el llamante que identificó el limitador de peticiones, no el nombre del servicio.
+        assertThat(customerEvents).extracting(event -> event.get("ACTOR")).containsOnly("user:" + USER.getName());
+        assertThat(objectMapper.readTree(customerEvents.get(1).get("CHANGES").toString()).properties())
+                .extracting(Map.Entry::getKey).containsExactly("name");
+    }
+
+    @Test
+    void batchDeleteRecordsTheIdOfEachDeletedCustomer() throws Exception {
+        for (String mobileNumber : List.of(BATCH_MOBILE_NUMBER_1, BATCH_MOBILE_NUMBER_2)) {
+            mockMvc.perform(post("/api/create").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\":\"Audit Batch\",\"email\":\"audit@example.com\",\"mobileNumber\":\"" + mobileNumber + "\"}"))
+                    .andExpect(status().isCreated());
+        }
+        mockMvc.perform(delete("/api/delete/batch").param("mobileNumbers", BATCH_MOBILE_NUMBER_1, BATCH_MOBILE_NUMBER_2))
+                .andExpect(status().isOk());
+
+        auditTrail.flush();
+
+        for (String mobileNumber : List.of(BATCH_MOBILE_NUMBER_1, BATCH_MOBILE_NUMBER_2)) {
+            String customerId = jdbcTemplate.queryForObject(
+                    "select entity_id from audit_event where action = 'INSERT' and entity_type = 'Customer' and changes like ?",
+                    String.class, "%" + mobileNumber + "%");
+            assertThat(jdbcTemplate.queryForList(
+                    "select changes from audit_event where action = 'DELETE' and entity_type = 'Customer' and entity_id = ?",
+                    String.class, customerId)).singleElement().asString().contains(mobileNumber);
+        }
+        // Sin usuario autenticado ni pasarela de confianza, el llamante es la dirección de origen.
+        assertThat(jdbcTemplate.queryForList("select actor from audit_event where changes like ? or changes like ?",
+                String.class, "%" + BATCH_MOBILE_NUMBER_1 + "%", "%" + BATCH_MOBILE_NUMBER_2 + "%")).containsOnly("127.0.0.1");
+    }
+
+    @Test
+    void reactiveDeleteRecordsTheIdOfTheDeletedCustomer() {
+        WebTestClient webTestClient = MockMvcWebTestClient.bindTo(mockMvc).build();
+        webTestClient.post().uri("/api/reactive/create").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Audit Reactive\",\"email\":\"audit@example.com\",\"mobileNumber\":\"" + REACTIVE_MOBILE_NUMBER + "\"}")
+                .exchange()
+                .expectStatus().isCreated();
+        webTestClient.delete().uri("/api/reactive/delete?mobileNumber={mobileNumber}", REACTIVE_MOBILE_NUMBER)
+                .exchange()
+                .expectStatus().isOk();
+
+        auditTrail.flush();
+
+        String customerId = jdbcTemplate.queryForObject(
+                "select entity_id from audit_event where action = 'INSERT' and entity_type = 'Customer' and changes like ?",
+                String.class, "%" + REACTIVE_MOBILE_NUMBER + "%");
+        List<Map<String, Object>> deletions = jdbcTemplate.queryForList(
+                "select actor, changes from audit_event where action = 'DELETE' and entity_type = 'Customer' and entity_id = ?",
+                customerId);
+        assertThat(deletions).singleElement().satisfies(deletion -> {
+            assertThat(deletion.get("CHANGES").toString()).contains(REACTIVE_MOBILE_NUMBER);
+            assertThat(deletion.get("ACTOR")).isEqualTo("127.0.0.1");
+        });
+    }
+
+    @Test
+    void reactiveUpdateRecordsTheChangedFieldsWithTheirPreviousValues() throws Exception {
+        WebTestClient webTestClient = MockMvcWebTestClient.bindTo(mockMvc).build();
+        webTestClient.post().uri("/api/reactive/create").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Audit Reactive\",\"email\":\"audit@example.com\",\"mobileNumber\":\"" + REACTIVE_UPDATE_MOBILE_NUMBER + "\"}")
+                .exchange()
+                .expectStatus().isCreated();
+        ObjectNode customer = (ObjectNode) objectMapper.readTree(webTestClient.get()
+                .uri("/api/reactive/fetch?mobileNumber={mobileNumber}", REACTIVE_UPDATE_MOBILE_NUMBER)
+                .exchange()
+                .expectBody(String.class).returnResult().getResponseBody());
+        customer.put("name", "Audit Reactive Updated");
+        webTestClient.put().uri("/api/reactive/update").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(customer.toString())
+                .exchange()
+                .expectStatus().isOk();
+
+        auditTrail.flush();
+
+        String customerId = jdbcTemplate.queryForObject(
+                "select entity_id from audit_event where action = 'INSERT' and entity_type = 'Customer' and changes like ?",
+                String.class, "%" + REACTIVE_UPDATE_MOBILE_NUMBER + "%");
+        String changes = jdbcTemplate.queryForObject(
+                "select changes from audit_event where action = 'UPDATE' and entity_type = 'Customer' and entity_id = ?",
+                String.class, customerId);
+        assertThat(objectMapper.readTree(changes).properties()).extracting(Map.Entry::getKey).containsExactly("name");
+        assertThat(objectMapper.readTree(changes).at("/name/oldValue").asText()).isEqualTo("Audit Reactive");
+        // La cuenta no cambió: no hay evento de Accounts.
+        assertThat(jdbcTemplate.queryForObject("select count(*) from audit_event where action = 'UPDATE' "
+                        + "and entity_type = 'Accounts' and entity_id = ?", Integer.class,
+                customer.at("/accountsDto/accountNumber").asText())).isZero();
+    }
+}
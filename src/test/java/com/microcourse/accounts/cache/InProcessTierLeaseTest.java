@@ -0,0 +1,45 @@
+package com.microcourse.accounts.cache;
+
+import com.microcourse.accounts.config.CacheConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Only the instance holding the lease uses the in-process shared tier; another one starts with the near cache only.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:cachetierlease;DB_CLOSE_DELAY=-1",
+        "accounts.cache.shared-tier=in-process"})
+class InProcessTierLeaseTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheProperties cacheProperties;
+
+    @Autowired
+    private SharedCacheTier sharedCacheTier;
+
+    @Test
+    void secondInstanceFallsBackToTheNearCacheWhileTheLeaseIsHeld() {
+        assertThat(jdbcTemplate.queryForObject("select owner from cache_tier_lease", String.class)).isNotNull();
+        assertThat(sharedCacheTier).isInstanceOf(InProcessSharedCacheTier.class);
+        // Otra instancia (otra JVM) con el turno vigente.
+        jdbcTemplate.update("update cache_tier_lease set owner = 'other-instance', "
+                + "expires_at = TIMESTAMPADD(SECOND, 30, CURRENT_TIMESTAMP)");
+        InProcessTierLease refused = new InProcessTierLease(jdbcTemplate, cacheProperties);
+        assertThat(refused.isHeld()).isFalse();
+        assertThat(new CacheConfig().inProcessSharedCacheTier(refused)).isInstanceOf(NearCacheOnlyTier.class);
+
+        // Caducado el turno (la otra instancia se detuvo), se vuelve a obtener.
+        jdbcTemplate.update("update cache_tier_lease set expires_at = TIMESTAMPADD(SECOND, -1, CURRENT_TIMESTAMP)");
+        InProcessTierLease claimed = new InProcessTierLease(jdbcTemplate, cacheProperties);
+        assertThat(claimed.isHeld()).isTrue();
+        claimed.shutdown();
+    }
+}
@@ -0,0 +1,155 @@
+package com.microcourse.accounts.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Several instances, each with its own near cache, over one in-process shared tier.
+ */
+class TieredCacheTest {
+
+    private static final String CACHE = "customerDetails";
+
+    @Test
+    void loadOlderThanAnotherInstancesInvalidationIsNotCached() {
+        SharedCacheTier sharedTier = new InProcessSharedCacheTier();
+        TieredCache nodeA = new TieredCache(CACHE, sharedTier, new SimpleMeterRegistry());
+        TieredCache nodeB = new TieredCache(CACHE, sharedTier, new SimpleMeterRegistry());
+        nodeB.put("5550000301", "v1");
+        assertThat(nodeB.get("5550000301", String.class)).isEqualTo("v1");
+
+        // A lee la fila (v1) tras un fallo; B confirma v2 e invalida antes de que A guarde lo leído.
+        assertThat(nodeA.get("5550000302")).isNull();
+        nodeB.evict("5550000302");
+        nodeA.put("5550000302", "v1");
+
+        assertThat(nodeA.get("5550000302")).isNull();
+        assertThat(nodeB.get("5550000302")).isNull();
+        nodeB.put("5550000302", "v2");
+        assertThat(nodeA.get("5550000302", String.class)).isEqualTo("v2");
+
+        // Tras la invalidación de B, A deja de servir su copia local.
+        nodeB.evict("5550000301");
+        assertThat(nodeA.get("5550000301")).isNull();
+    }
+
+    @Test
+    void nearCacheOnlyRejectsALoadOlderThanALocalEviction() {
+        TieredCache cache = new TieredCache(CACHE, new NearCacheOnlyTier(), new SimpleMeterRegistry());
+        cache.put("5550000303", "v1");
+        assertThat(cache.get("5550000303", String.class)).isEqualTo("v1");
+
+        // Fallo, invalidación local y, después, el put de la fila leída antes de ella.
+        cache.evict("5550000303");
+        assertThat(cache.get("5550000303")).isNull();
+        cache.evict("5550000303");
+        cache.put("5550000303", "v1");
+        assertThat(cache.get("5550000303")).isNull();
+
+        cache.put("5550000303", "v2");
+        assertThat(cache.get("5550000303", String.class)).isEqualTo("v2");
+    }
+
+    @Test
+    void instancesConvergeAfterConcurrentWrites() throws Exception {
+        int nodes = 3;
+        int keys = 50;
+        InProcessSharedCacheTier sharedTier = new InProcessSharedCacheTier(Duration.ofMillis(2));
+        List<MeterRegistry> registries = new ArrayList<>();
+        List<TieredCache> caches = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            registries.add(new SimpleMeterRegistry());
+            caches.add(new TieredCache(CACHE, sharedTier, registries.get(i)));
+        }
+        // "Base de datos": versión actual de cada clave.
+        Map<Integer, Long> database = new ConcurrentHashMap<>();
+        for (int key = 0; key < keys; key++) {
+            database.put(key, 0L);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(nodes * 2 + 1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (TieredCache cache : caches) {
+            for (int reader = 0; reader < 2; reader++) {
+                workers.add(executor.submit(() -> {
+                    while (running.get()) {
+                        int key = ThreadLocalRandom.current().nextInt(keys);
+                        if (cache.get(key, Long.class) == null) {
+                            // Igual que @Cacheable: lectura de la fila y put, con una pausa que deja
+                            // que una escritura se cuele entre ambos.
+                            Long version = database.get(key);
+                            Thread.sleep(1);
+                            cache.put(key, version);
+                        }
+                    }
+                    return null;
+                }));
+            }
+        }
+        workers.add(executor.submit(() -> {
+            while (running.get()) {
+                int key = ThreadLocalRandom.current().nextInt(keys);
+                // Confirma la nueva versión y luego invalida desde un nodo cualquiera, como el servicio tras el commit.
+                database.merge(key, 1L, Long::sum);
+                caches.get(ThreadLocalRandom.current().nextInt(nodes)).evict(key);
+                Thread.sleep(2);
+            }
+            return null;
+        }));
+        Thread.sleep(1500);
+        running.set(false);
+        for (Future<?> worker : workers) {
+            worker.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        sharedTier.awaitBroadcasts();
+
+        // Ninguna versión antigua sobrevive a las invalidaciones en ningún nodo.
+        for (TieredCache cache : caches) {
+            for (int key = 0; key < keys; key++) {
+                Long cached = cache.get(key, Long.class);
+                assertThat(cached == null || cached.equals(database.get(key)))
+                        .as("key %d cached %s, database %s", key, cached, database.get(key)).isTrue();
+            }
+        }
+
+        double nearHits = 0;
+        double sharedHits = 0;
+        double misses = 0;
+        for (MeterRegistry registry : registries) {
+            nearHits += registry.get("accounts.cache.gets").tag("result", "near-hit").counter().count();
+            sharedHits += registry.get("accounts.cache.gets").tag("result", "shared-hit").counter().count();
+            misses += registry.get("accounts.cache.gets").tag("result", "miss").counter().count();
+        }
+        assertThat((nearHits + sharedHits) / (nearHits + sharedHits + misses)).isGreaterThan(0.5);
+
+        // Una invalidación, una vez entregada, retira la clave de todos los nodos.
+        for (int key = 0; key < keys; key++) {
+            for (TieredCache cache : caches) {
+                cache.put(key, database.get(key));
+            }
+            caches.get(key % nodes).evict(key);
+        }
+        sharedTier.awaitBroadcasts();
+        for (TieredCache cache : caches) {
+            for (int key = 0; key < keys; key++) {
+                assertThat(cache.get(key)).as("key %d", key).isNull();
+            }
+        }
+    }
+}
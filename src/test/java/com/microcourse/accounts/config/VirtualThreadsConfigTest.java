@@ -0,0 +1,96 @@
+package com.microcourse.accounts.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The opt-in virtual-thread mode (Spring profile "virtual"): requests and async tasks run on virtual threads when
+ * the runtime supports them, the Hikari pool becomes the concurrency limit, and an older runtime is reported.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.cache.type=none", "spring.datasource.url=jdbc:h2:mem:virtualthreadstest;DB_CLOSE_DELAY=-1"})
+@ActiveProfiles("virtual")
+@ExtendWith(OutputCaptureExtension.class)
+class VirtualThreadsConfigTest {
+
+    private static final String VIRTUAL_THREAD_HEADER = "X-Test-Virtual-Thread";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    @Autowired
+    @Qualifier("virtualThreadsCheck")
+    private ApplicationRunner virtualThreadsCheck;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Test
+    void hikariPoolBoundsTheConcurrency() {
+        assertThat(dataSource.getMaximumPoolSize()).isEqualTo(20);
+        assertThat(dataSource.getConnectionTimeout()).isEqualTo(2000);
+    }
+
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_20)
+    void olderRuntimeIsReported(CapturedOutput output) throws Exception {
+        virtualThreadsCheck.run(null);
+
+        assertThat(output).contains("requests keep running on platform threads");
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void requestsAndAsyncTasksRunOnVirtualThreads() throws Exception {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/fetch?mobileNumber=5559999999", String.class);
+
+        assertThat(response.getHeaders().getFirst(VIRTUAL_THREAD_HEADER)).isEqualTo("true");
+        assertThat(applicationTaskExecutor.submit(() -> isVirtual(Thread.currentThread())).get()).isTrue();
+    }
+
+    // Thread.isVirtual() no existe en Java 17, el nivel con el que se compila el proyecto.
+    private static boolean isVirtual(Thread thread) throws ReflectiveOperationException {
+        return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+
+    @TestConfiguration
+    static class VirtualThreadProbe {
+
+        // Anota en la respuesta si el hilo de Tomcat que atiende la petición es virtual.
+        @Bean
+        Filter virtualThreadProbe() {
+            return (request, response, chain) -> {
+                try {
+                    ((HttpServletResponse) response).setHeader(VIRTUAL_THREAD_HEADER,
+                            String.valueOf(isVirtual(Thread.currentThread())));
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                }
+                chain.doFilter(request, response);
+            };
+        }
+    }
+}
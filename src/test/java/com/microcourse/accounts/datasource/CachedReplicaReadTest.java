@@ -0,0 +1,42 @@
+package com.microcourse.accounts.datasource;
+
+import com.microcourse.accounts.service.IAccountsService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Same layout as {@link ReplicaRoutingTest} but with the customerDetails cache enabled: what a load puts in the
+ * shared tier must come from the primary, never from a replica that may be behind.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + CachedReplicaReadTest.PRIMARY,
+        "accounts.datasource.replicas[0]=" + CachedReplicaReadTest.REPLICA + ";IFEXISTS=TRUE"})
+class CachedReplicaReadTest {
+
+    static final String PRIMARY = "jdbc:h2:mem:cachedprimary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA = "jdbc:h2:mem:cachedreplica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private IAccountsService iAccountsService;
+
+    @BeforeAll
+    static void createDatabases() {
+        ReplicaRoutingTest.createDatabase(PRIMARY, "Primary");
+        ReplicaRoutingTest.createDatabase(REPLICA, "Stale Replica");
+    }
+
+    @Test
+    void cacheableLoadsReadThePrimary() {
+        assertThat(iAccountsService.fetchAccounts(List.of(ReplicaRoutingTest.SEEDED)).getFound()
+                .get(ReplicaRoutingTest.SEEDED).getName()).isEqualTo("Primary");
+        iAccountsService.updateAccount(iAccountsService.fetchAccount(ReplicaRoutingTest.SEEDED), null);
+        // La actualización invalida la entrada: la nueva carga también viene del primario.
+        assertThat(iAccountsService.fetchAccount(ReplicaRoutingTest.SEEDED).getName()).isEqualTo("Primary");
+    }
+}
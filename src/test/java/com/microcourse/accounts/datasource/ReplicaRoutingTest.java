@@ -0,0 +1,166 @@
+package com.microcourse.accounts.datasource;
+
+import com.microcourse.accounts.dto.CustomerDto;
+import com.microcourse.accounts.service.IAccountsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Primary and two replicas, each its own H2 database; nothing replicates between them, so the data read
+ * shows which database served it.
+ */
+@SpringBootTest(properties = {
+        "spring.cache.type=none",
+        "spring.datasource.url=" + ReplicaRoutingTest.PRIMARY,
+        "accounts.datasource.replicas[0]=" + ReplicaRoutingTest.REPLICA_1 + ";IFEXISTS=TRUE",
+        "accounts.datasource.replicas[1]=" + ReplicaRoutingTest.REPLICA_2 + ";IFEXISTS=TRUE",
+        "spring.datasource.hikari.maximum-pool-size=" + ReplicaRoutingTest.REPLICA_POOL_SIZE})
+class ReplicaRoutingTest {
+
+    static final String PRIMARY = "jdbc:h2:mem:routingprimary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_1 = "jdbc:h2:mem:routingreplica1;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_2 = "jdbc:h2:mem:routingreplica2;DB_CLOSE_DELAY=-1";
+    static final int REPLICA_POOL_SIZE = 3;
+    static final String SEEDED = "5550000401";
+
+    @Autowired
+    private IAccountsService iAccountsService;
+
+    @Autowired
+    private ReplicaDataSource replicaDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void createDatabases() {
+        // El primario tiene su propia copia del cliente, reconocible por el nombre.
+        createDatabase(PRIMARY, "Primary");
+        createDatabase(REPLICA_1, "Replica One");
+        createDatabase(REPLICA_2, "Replica Two");
+    }
+
+    @Test
+    void readOnlyMethodsAreBalancedAcrossReplicasAndWritesGoToPrimary() {
+        assertThat(fetchedNames(4)).containsExactlyInAnyOrder("Replica One", "Replica Two");
+
+        CustomerDto customerDto = new CustomerDto();
+        customerDto.setName("Written");
+        customerDto.setEmail("written@example.com");
+        customerDto.setMobileNumber("5550000402");
+        iAccountsService.createAccount(customerDto);
+        assertThat(count(PRIMARY, "5550000402")).isOne();
+        assertThat(count(REPLICA_1, "5550000402")).isZero();
+        assertThat(count(REPLICA_2, "5550000402")).isZero();
+
+        // Read-your-writes: ninguna réplica tiene aún el alta, la lectura va al primario.
+        CustomerDto fetched = iAccountsService.fetchAccount("5550000402");
+        assertThat(fetched.getName()).isEqualTo("Written");
+        assertThat(iAccountsService.fetchAccounts(Set.of("5550000402")).getFound()).containsKey("5550000402");
+
+        // La actualización también se lee de vuelta desde el primario.
+        fetched.setName("Rewritten");
+        iAccountsService.updateAccount(fetched, null);
+        assertThat(iAccountsService.fetchAccount("5550000402").getName()).isEqualTo("Rewritten");
+    }
+
+    @Test
+    void unhealthyReplicasAreSkippedUntilTheyRecover() {
+        stopReplica(REPLICA_2);
+        replicaDataSource.checkHealth();
+        assertThat(replicaDataSource.healthyReplicas()).isOne();
+        assertThat(fetchedNames(4)).containsExactly("Replica One");
+
+        stopReplica(REPLICA_1);
+        replicaDataSource.checkHealth();
+        assertThat(replicaDataSource.healthyReplicas()).isZero();
+        assertThat(fetchedNames(2)).containsExactly("Primary");
+
+        createDatabase(REPLICA_1, "Replica One");
+        createDatabase(REPLICA_2, "Replica Two");
+        replicaDataSource.checkHealth();
+        assertThat(replicaDataSource.healthyReplicas()).isEqualTo(2);
+        assertThat(fetchedNames(4)).containsExactlyInAnyOrder("Replica One", "Replica Two");
+    }
+
+    @Test
+    void saturatedReplicaPoolsFallBackToPrimaryWithoutBeingMarkedDown() throws Exception {
+        List<Connection> borrowed = new ArrayList<>();
+        try {
+            // Round-robin: tantas conexiones como caben en los dos pools dejan ambos sin conexiones libres.
+            for (int i = 0; i < 2 * REPLICA_POOL_SIZE; i++) {
+                borrowed.add(replicaDataSource.getConnection());
+            }
+            double fallbackBefore = meterRegistry.counter("accounts.datasource.reads", "target", "primary-fallback").count();
+
+            try (Connection connection = replicaDataSource.getConnection()) {
+                assertThat(nameIn(connection)).isEqualTo("Primary");
+            }
+            replicaDataSource.checkHealth();
+
+            assertThat(meterRegistry.counter("accounts.datasource.reads", "target", "primary-fallback").count())
+                    .isEqualTo(fallbackBefore + 1);
+            assertThat(replicaDataSource.healthyReplicas()).isEqualTo(2);
+        } finally {
+            for (Connection connection : borrowed) {
+                connection.close();
+            }
+        }
+        assertThat(fetchedNames(4)).containsExactlyInAnyOrder("Replica One", "Replica Two");
+    }
+
+    private static String nameIn(Connection connection) throws SQLException {
+        try (ResultSet resultSet = connection.createStatement()
+                .executeQuery("select name from customer where mobile_number = '" + SEEDED + "'")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    private Set<String> fetchedNames(int fetches) {
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < fetches; i++) {
+            names.add(iAccountsService.fetchAccount(SEEDED).getName());
+        }
+        return names;
+    }
+
+    static void createDatabase(String url, String name) {
+        Flyway.configure().dataSource(url, "sa", "").load().migrate();
+        JdbcTemplate jdbcTemplate = jdbcTemplate(url);
+        jdbcTemplate.update("insert into customer (customer_id, name, email, mobile_number, created_at, created_by) "
+                + "values (900001, ?, 'replica@example.com', ?, current_timestamp, 'TEST')", name, SEEDED);
+        jdbcTemplate.update("insert into accounts (customer_id, account_number, account_type, branch_address, created_at, created_by) "
+                + "values (900001, 9000000001, 'Savings', 'Replica Street', current_timestamp, 'TEST')");
+    }
+
+    private static void stopReplica(String url) {
+        jdbcTemplate(url).execute("SHUTDOWN");
+    }
+
+    private static int count(String url, String mobileNumber) {
+        Integer count = jdbcTemplate(url).queryForObject("select count(*) from customer where mobile_number = ?",
+                Integer.class, mobileNumber);
+        return count == null ? 0 : count;
+    }
+
+    private static JdbcTemplate jdbcTemplate(String url) {
+        return new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+    }
+}
@@ -0,0 +1,99 @@
+package com.microcourse.accounts.idempotency;
+
+import com.microcourse.accounts.constants.AccountsConstants;
+import com.microcourse.accounts.dto.ResponseDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Idempotency-Key replay, key reuse and coalescing of concurrent duplicates with the default in-memory store.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class IdempotencyTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IdempotentRequests idempotentRequests;
+
+    @Test
+    void retriedCreateReplaysTheOriginalResponse() throws Exception {
+        create("retry-1", "5550000301")
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(AccountsConstants.IDEMPOTENT_REPLAYED_HEADER));
+
+        create("retry-1", "5550000301")
+                .andExpect(status().isCreated())
+                .andExpect(header().string(AccountsConstants.IDEMPOTENT_REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.statusCode").value(AccountsConstants.STATUS_201));
+        // Sin clave, el mismo alta sí es un duplicado.
+        create(null, "5550000301").andExpect(status().isBadRequest());
+        // La misma clave con otro contenido no se acepta.
+        create("retry-1", "5550000302").andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void concurrentDuplicatesRunTheOperationOnce() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<ResponseDto>> first = CompletableFuture.supplyAsync(() ->
+                idempotentRequests.execute("concurrent-1", "test", "payload", () -> {
+                    executions.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return ResponseEntity.status(HttpStatus.CREATED).body(new ResponseDto("201", "first"));
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<ResponseEntity<ResponseDto>> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotentRequests.execute("concurrent-1", "test", "payload", () -> {
+                    executions.incrementAndGet();
+                    return ResponseEntity.ok(new ResponseDto("200", "duplicate"));
+                }));
+
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getBody().getStatusMsg()).isEqualTo("first");
+        ResponseEntity<ResponseDto> replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertThat(replayed.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(replayed.getBody().getStatusMsg()).isEqualTo("first");
+        assertThat(executions).hasValue(1);
+    }
+
+    private ResultActions create(String idempotencyKey, String mobileNumber) throws Exception {
+        var request = post("/api/create").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Idempotent\",\"email\":\"retry@example.com\",\"mobileNumber\":\"" + mobileNumber + "\"}");
+        if (idempotencyKey != null) {
+            request.header(AccountsConstants.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        }
+        return mockMvc.perform(request);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
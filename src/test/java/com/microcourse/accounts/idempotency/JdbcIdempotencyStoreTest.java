@@ -0,0 +1,83 @@
+package com.microcourse.accounts.idempotency;
+
+import com.microcourse.accounts.constants.AccountsConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The shared table store: replays from the database, rejects keys held by another instance and fences off
+ * reservations whose lease ran out.
+ */
+@SpringBootTest(properties = {"accounts.idempotency.store=jdbc",
+        "spring.datasource.url=jdbc:h2:mem:idempotencytest;DB_CLOSE_DELAY=-1"})
+@AutoConfigureMockMvc
+class JdbcIdempotencyStoreTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void replaysFromTheTableAndRejectsKeysInProgressElsewhere() throws Exception {
+        assertThat(idempotencyStore).isInstanceOf(JdbcIdempotencyStore.class);
+        create("jdbc-1", "5550000311").andExpect(status().isCreated());
+        create("jdbc-1", "5550000311")
+                .andExpect(status().isCreated())
+                .andExpect(header().string(AccountsConstants.IDEMPOTENT_REPLAYED_HEADER, "true"));
+
+        // Reserva hecha por otra instancia que todavía no ha respondido.
+        assertThat(idempotencyStore.reserve("create:jdbc-2", "other-instance")).isPresent();
+        create("jdbc-2", "5550000312").andExpect(status().isConflict());
+        assertThat(idempotencyStore.reserve("create:jdbc-2", "other-instance")).isEmpty();
+    }
+
+    @Test
+    void runningReservationIsRenewedAndAnAbandonedOneIsFencedOff() {
+        JdbcIdempotencyStore store = (JdbcIdempotencyStore) idempotencyStore;
+        String first = store.reserve("update:jdbc-3", "payload").orElseThrow();
+        // La operación dura más que el plazo: la renovación lo extiende y nadie puede reclamar la clave.
+        expireLease("update:jdbc-3");
+        store.renewLeases();
+        assertThat(store.reserve("update:jdbc-3", "payload")).isEmpty();
+
+        // Instancia caída: el plazo vence sin renovarse y otra petición reclama la clave.
+        expireLease("update:jdbc-3");
+        jdbcTemplate.update("update idempotency_key set owner = 'crashed' where idempotency_key = 'update:jdbc-3'");
+        String second = store.reserve("update:jdbc-3", "payload").orElseThrow();
+        assertThat(second).isNotEqualTo(first);
+        // El dueño anterior ya no puede completarla ni liberarla.
+        store.complete("update:jdbc-3", "crashed", new IdempotencyRecord("payload", 200, null));
+        store.release("update:jdbc-3", "crashed");
+        assertThat(store.find("update:jdbc-3")).hasValueSatisfying(record -> assertThat(record.completed()).isFalse());
+
+        store.complete("update:jdbc-3", second, new IdempotencyRecord("payload", 200, null));
+        assertThat(store.find("update:jdbc-3")).hasValueSatisfying(record -> assertThat(record.status()).isEqualTo(200));
+    }
+
+    private void expireLease(String key) {
+        jdbcTemplate.update("update idempotency_key set lease_expires_at = TIMESTAMPADD(SECOND, -1, CURRENT_TIMESTAMP) "
+                + "where idempotency_key = ?", key);
+    }
+
+    private ResultActions create(String idempotencyKey, String mobileNumber) throws Exception {
+        return mockMvc.perform(post("/api/create").contentType(MediaType.APPLICATION_JSON)
+                .header(AccountsConstants.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .content("{\"name\":\"Idempotent\",\"email\":\"retry@example.com\",\"mobileNumber\":\"" + mobileNumber + "\"}"));
+    }
+}
@@ -0,0 +1,178 @@
+package com.microcourse.accounts.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.microcourse.accounts.entity.OutboxEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Outbox events written by the account endpoints and delivered by {@link OutboxRelay} to an in-memory sink.
+ * Uses its own database: the relays of the other cached test contexts would otherwise drain the shared outbox table.
+ */
+@SpringBootTest(properties = {"spring.cache.type=none", "spring.datasource.url=jdbc:h2:mem:outboxtest;DB_CLOSE_DELAY=-1"})
+@AutoConfigureMockMvc
+class OutboxRelayTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryOutboxEventSink sink;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deliversEachCustomersEventsInOrder() throws Exception {
+        String mobileNumber = "5550000200";
+        String changedMobileNumber = "5550000209";
+        create(mobileNumber);
+        String key = aggregateKey(mobileNumber);
+        ObjectNode customer = (ObjectNode) objectMapper.readTree(mockMvc.perform(get("/api/fetch").param("mobileNumber", mobileNumber))
+                .andReturn().getResponse().getContentAsString());
+        customer.put("name", "Outbox Updated");
+        mockMvc.perform(put("/api/update").contentType(MediaType.APPLICATION_JSON).content(customer.toString()))
+                .andExpect(status().isOk());
+        // Sin cambios: no genera evento.
+        mockMvc.perform(put("/api/update").contentType(MediaType.APPLICATION_JSON).content(customer.toString()))
+                .andExpect(status().isOk());
+        // El cambio de móvil sigue en la secuencia del cliente.
+        customer.put("mobileNumber", changedMobileNumber);
+        mockMvc.perform(put("/api/update").contentType(MediaType.APPLICATION_JSON).content(customer.toString()))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/delete").param("mobileNumber", changedMobileNumber))
+                .andExpect(status().isOk());
+
+        outboxRelay.drain();
+
+        assertThat(sink.eventsFor(key)).extracting(OutboxEvent::getEventType).containsExactly(
+                AccountEventOutbox.ACCOUNT_CREATED, AccountEventOutbox.ACCOUNT_UPDATED, AccountEventOutbox.ACCOUNT_UPDATED,
+                AccountEventOutbox.ACCOUNT_DELETED);
+        assertThat(sink.eventsFor(key)).extracting(OutboxEvent::getAggregateVersion).containsExactly(1L, 2L, 3L, 4L);
+        // Publicado el borrado, el contador del cliente desaparece.
+        assertThat(jdbcTemplate.queryForObject("select count(*) from outbox_aggregate where aggregate_key = ?",
+                Integer.class, key)).isZero();
+    }
+
+    @Test
+    void keepsTheBatchWhenPublishingFails() throws Exception {
+        String mobileNumber = "5550000201";
+        double failuresBefore = meterRegistry.counter("accounts.outbox.publish.failures").count();
+        sink.failNext(1);
+        create(mobileNumber);
+        String key = aggregateKey(mobileNumber);
+
+        // La primera pasada (esta o la programada) falla y deja el lote en el outbox; la siguiente lo entrega.
+        outboxRelay.drain();
+        outboxRelay.drain();
+
+        assertThat(meterRegistry.counter("accounts.outbox.publish.failures").count()).isGreaterThan(failuresBefore);
+        assertThat(sink.eventsFor(key)).extracting(OutboxEvent::getEventType)
+                .containsExactly(AccountEventOutbox.ACCOUNT_CREATED);
+    }
+
+    @Test
+    void deliversInVersionOrderWhenEventIdsAreNot() {
+        String key = "900202";
+        // Un único INSERT: el relay programado ve los dos eventos o ninguno. El de menor event_id es el posterior,
+        // como cuando dos instancias reparten bloques distintos de outbox_seq.
+        jdbcTemplate.update("insert into outbox_event (event_id, aggregate_key, aggregate_version, event_type, payload, created_at) "
+                        + "values (900001, ?, 2, ?, '{}', current_timestamp), (900002, ?, 1, ?, '{}', current_timestamp)",
+                key, AccountEventOutbox.ACCOUNT_UPDATED, key, AccountEventOutbox.ACCOUNT_CREATED);
+
+        outboxRelay.drain();
+
+        assertThat(sink.eventsFor(key)).extracting(OutboxEvent::getEventType)
+                .containsExactly(AccountEventOutbox.ACCOUNT_CREATED, AccountEventOutbox.ACCOUNT_UPDATED);
+    }
+
+    @Test
+    void onlyTheLeaseHolderPublishes() throws Exception {
+        String mobileNumber = "5550000203";
+        jdbcTemplate.update("update outbox_relay_lease set owner = 'other-instance', "
+                + "expires_at = TIMESTAMPADD(MINUTE, 1, CURRENT_TIMESTAMP)");
+        try {
+            create(mobileNumber);
+            outboxRelay.drain();
+            assertThat(sink.eventsFor(aggregateKey(mobileNumber))).isEmpty();
+        } finally {
+            // Turno caducado: el relay de este contexto lo toma en la siguiente pasada.
+            jdbcTemplate.update("update outbox_relay_lease set expires_at = TIMESTAMPADD(MINUTE, -1, CURRENT_TIMESTAMP)");
+        }
+
+        outboxRelay.drain();
+
+        assertThat(sink.eventsFor(aggregateKey(mobileNumber))).extracting(OutboxEvent::getEventType)
+                .containsExactly(AccountEventOutbox.ACCOUNT_CREATED);
+    }
+
+    private String aggregateKey(String mobileNumber) {
+        return AccountEventOutbox.aggregateKey(jdbcTemplate.queryForObject(
+                "select customer_id from customer where mobile_number = ?", Long.class, mobileNumber));
+    }
+
+    private void create(String mobileNumber) throws Exception {
+        mockMvc.perform(post("/api/create").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Outbox Test\",\"email\":\"outbox@example.com\",\"mobileNumber\":\"" + mobileNumber + "\"}"))
+                .andExpect(status().isCreated());
+    }
+
+    @TestConfiguration
+    static class SinkConfig {
+
+        @Bean
+        @Primary
+        InMemoryOutboxEventSink inMemoryOutboxEventSink() {
+            return new InMemoryOutboxEventSink();
+        }
+    }
+
+    static class InMemoryOutboxEventSink implements OutboxEventSink {
+
+        private final List<OutboxEvent> published = new CopyOnWriteArrayList<>();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        @Override
+        public void publish(List<OutboxEvent> events) {
+            if (failures.getAndUpdate(remaining -> Math.max(remaining - 1, 0)) > 0) {
+                throw new IllegalStateException("sink unavailable");
+            }
+            published.addAll(events);
+        }
+
+        void failNext(int times) {
+            failures.set(times);
+        }
+
+        List<OutboxEvent> eventsFor(String aggregateKey) {
+            return published.stream().filter(event -> aggregateKey.equals(event.getAggregateKey())).toList();
+        }
+    }
+}
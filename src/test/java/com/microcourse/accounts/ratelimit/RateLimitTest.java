@@ -0,0 +1,76 @@
+package com.microcourse.accounts.ratelimit;
+
+import com.microcourse.accounts.constants.AccountsConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Per-client token buckets in front of the API.
+ */
+@SpringBootTest(properties = "accounts.rate-limit.trusted-proxies=127.0.0.1")
+@AutoConfigureMockMvc
+class RateLimitTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    @Test
+    void clientOverItsQuotaGetsTooManyRequestsWithoutAffectingOthers() throws Exception {
+        MockHttpServletResponse response = null;
+        // La ráfaga admite RATE_LIMIT_BURST peticiones seguidas; mientras tanto el cubo se rellena un poco.
+        for (int i = 0; i < AccountsConstants.RATE_LIMIT_BURST * 10; i++) {
+            response = fetch("noisy-client");
+            if (response.getStatus() == 429) {
+                break;
+            }
+        }
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(response.getContentAsString()).contains("\"errorCode\":\"TOO_MANY_REQUESTS\"");
+        // Otro cliente tiene su propio cubo: llega a la validación del controlador (400).
+        assertThat(fetch("quiet-client").getStatus()).isEqualTo(400);
+        assertThat(concurrencyLimiter.getLimit()).isGreaterThanOrEqualTo(AccountsConstants.CONCURRENCY_LIMIT_MIN);
+    }
+
+    @Test
+    void untrustedCallerCannotEscapeItsQuotaByRotatingTheClientId() throws Exception {
+        MockHttpServletResponse response = null;
+        for (int i = 0; i < AccountsConstants.RATE_LIMIT_BURST * 10; i++) {
+            // Fuera de trusted-proxies la cabecera se ignora: todas las peticiones comparten el cubo de 10.0.0.9.
+            response = fetch("rotating-" + i, "10.0.0.9");
+            if (response.getStatus() == 429) {
+                break;
+            }
+        }
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        // Otra dirección sin pasarela tiene su propio cubo.
+        assertThat(fetch("rotating-0", "10.0.0.10").getStatus()).isEqualTo(400);
+    }
+
+    private MockHttpServletResponse fetch(String clientId) throws Exception {
+        return fetch(clientId, "127.0.0.1");
+    }
+
+    private MockHttpServletResponse fetch(String clientId, String remoteAddress) throws Exception {
+        return mockMvc.perform(get("/api/fetch").param("mobileNumber", "12345")
+                        .header(AccountsConstants.CLIENT_ID_HEADER, clientId)
+                        .with(request -> {
+                            request.setRemoteAddr(remoteAddress);
+                            return request;
+                        }))
+                .andReturn().getResponse();
+    }
+}
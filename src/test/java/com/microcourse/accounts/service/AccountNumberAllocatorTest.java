@@ -0,0 +1,78 @@
+package com.microcourse.accounts.service;
+
+import com.microcourse.accounts.constants.AccountsConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link AccountNumberAllocator} under concurrent callers: every number is handed out once, and the sequence is
+ * only read once per block of {@link AccountsConstants#ACCOUNT_NUMBER_BLOCK_SIZE} numbers.
+ */
+@SpringBootTest(properties = {"spring.cache.type=none", "spring.datasource.url=jdbc:h2:mem:allocatortest;DB_CLOSE_DELAY=-1"})
+class AccountNumberAllocatorTest {
+
+    private static final int THREADS = 8;
+    private static final int NUMBERS_PER_THREAD = 300;
+
+    @Autowired
+    private AccountNumberAllocator accountNumberAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentCallersGetUniqueNumbersFromWholeBlocks() throws Exception {
+        Set<Long> accountNumbers = ConcurrentHashMap.newKeySet();
+        List<Long> duplicates = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> callers = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                callers.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < NUMBERS_PER_THREAD; j++) {
+                        long accountNumber = accountNumberAllocator.nextAccountNumber();
+                        if (!accountNumbers.add(accountNumber)) {
+                            duplicates.add(accountNumber);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> caller : callers) {
+                caller.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(duplicates).isEmpty();
+        int total = THREADS * NUMBERS_PER_THREAD;
+        long first = Collections.min(accountNumbers);
+        // Bloques consecutivos consumidos enteros y en orden: sin huecos entre los números repartidos.
+        assertThat(accountNumbers).containsExactlyInAnyOrderElementsOf(
+                LongStream.range(first, first + total).boxed().toList());
+        assertThat(String.valueOf(first)).hasSize(10);
+        // Una lectura de la secuencia por bloque: 2400 números caben en 3 bloques, el siguiente empieza tras ellos.
+        int blocks = (total + AccountsConstants.ACCOUNT_NUMBER_BLOCK_SIZE - 1) / AccountsConstants.ACCOUNT_NUMBER_BLOCK_SIZE;
+        assertThat(jdbcTemplate.queryForObject("select next value for account_number_seq", Long.class))
+                .isEqualTo(first + (long) blocks * AccountsConstants.ACCOUNT_NUMBER_BLOCK_SIZE);
+    }
+}
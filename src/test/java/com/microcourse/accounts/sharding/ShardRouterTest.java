@@ -0,0 +1,37 @@
+package com.microcourse.accounts.sharding;
+
+import com.microcourse.accounts.config.ShardingProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardRouterTest {
+
+    private static final int KEYS = 20000;
+
+    @Test
+    void consecutiveMobileNumbersSpreadEvenly() {
+        for (int shards : new int[] {2, 3, 4, 5}) {
+            ShardRouter router = router(shards);
+            int[] perShard = new int[shards];
+            for (int i = 0; i < KEYS; i++) {
+                perShard[router.shardOf(Long.toString(5550000000L + i))]++;
+            }
+            for (int count : perShard) {
+                assertThat(count).isBetween(KEYS / shards * 9 / 10, KEYS / shards * 11 / 10);
+            }
+        }
+    }
+
+    @Test
+    void aSingleDatabaseKeepsEveryCustomer() {
+        assertThat(router(1).shardOf("5550000000")).isZero();
+        assertThat(router(1).isSharded()).isFalse();
+    }
+
+    private static ShardRouter router(int shards) {
+        return new ShardRouter(new ShardingProperties(Collections.nCopies(shards - 1, "jdbc:h2:mem:unused")));
+    }
+}
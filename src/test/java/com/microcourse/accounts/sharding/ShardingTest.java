@@ -0,0 +1,226 @@
+package com.microcourse.accounts.sharding;
+
+import com.microcourse.accounts.config.DataSourceConfig;
+import com.microcourse.accounts.constants.AccountsConstants;
+import com.microcourse.accounts.dto.AccountsDto;
+import com.microcourse.accounts.dto.BatchFetchResultDto;
+import com.microcourse.accounts.dto.BulkDeleteResultDto;
+import com.microcourse.accounts.dto.BulkResultDto;
+import com.microcourse.accounts.dto.CustomerDto;
+import com.microcourse.accounts.dto.CustomerPageDto;
+import com.microcourse.accounts.exception.CrossShardUpdateException;
+import com.microcourse.accounts.repository.CustomerSearchCriteria;
+import com.microcourse.accounts.service.IAccountsService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Three shards, each its own H2 database: spring.datasource is shard 0, accounts.sharding.shards the others.
+ */
+@SpringBootTest(properties = {
+        "spring.cache.type=none",
+        "spring.datasource.url=" + ShardingTest.SHARD_0,
+        "accounts.sharding.shards[0]=" + ShardingTest.SHARD_1,
+        "accounts.sharding.shards[1]=" + ShardingTest.SHARD_2})
+@AutoConfigureMockMvc
+class ShardingTest {
+
+    static final String SHARD_0 = "jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1";
+    static final String SHARD_1 = "jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1";
+    static final String SHARD_2 = "jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1";
+    private static final List<String> SHARDS = List.of(SHARD_0, SHARD_1, SHARD_2);
+
+    @Autowired
+    private IAccountsService iAccountsService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void customersAndAccountsLiveOnTheShardOfTheirMobileNumber() {
+        List<String> mobileNumbers = create("55500006", 30, "Sharded");
+        Set<Integer> usedShards = new HashSet<>();
+        Set<Long> customerIds = new HashSet<>();
+        Set<Long> accountNumbers = new HashSet<>();
+        for (String mobileNumber : mobileNumbers) {
+            int shard = shardRouter.shardOf(mobileNumber);
+            usedShards.add(shard);
+            for (int other = 0; other < SHARDS.size(); other++) {
+                // La cuenta está en el mismo shard que su cliente, y en ningún otro.
+                assertThat(count(other, "select count(*) from customer c join accounts a on a.customer_id = c.customer_id "
+                        + "where c.mobile_number = ?", mobileNumber)).isEqualTo(other == shard ? 1 : 0);
+            }
+            AccountsDto accountsDto = iAccountsService.fetchAccount(mobileNumber).getAccountsDto();
+            accountNumbers.add(accountsDto.getAccountNumber());
+            customerIds.add(jdbcTemplate(shard).queryForObject(
+                    "select customer_id from customer where mobile_number = ?", Long.class, mobileNumber));
+        }
+        assertThat(usedShards).hasSize(SHARDS.size());
+        // Rangos de secuencia disjuntos: ids y números de cuenta únicos entre shards.
+        assertThat(customerIds).hasSize(mobileNumbers.size());
+        assertThat(accountNumbers).hasSize(mobileNumbers.size());
+        for (int shard = 0; shard < SHARDS.size(); shard++) {
+            assertThat(jdbcTemplate(shard).queryForObject("select maximum_value from information_schema.sequences "
+                    + "where lower(sequence_name) = 'account_number_seq'", Long.class))
+                    .isEqualTo(1_000_000_000L + (shard + 1) * AccountsConstants.SHARD_ACCOUNT_NUMBER_RANGE
+                            - AccountsConstants.ACCOUNT_NUMBER_BLOCK_SIZE);
+        }
+
+        List<String> requested = new ArrayList<>(mobileNumbers);
+        requested.add("5550000699");
+        BatchFetchResultDto batch = iAccountsService.fetchAccounts(requested);
+        assertThat(batch.getFound()).containsOnlyKeys(mobileNumbers);
+        assertThat(batch.getNotFound()).containsExactly("5550000699");
+    }
+
+    @Test
+    void searchAndExportGatherEveryShard() {
+        List<String> mobileNumbers = create("55500007", 25, "Gathered");
+        CustomerSearchCriteria criteria = new CustomerSearchCriteria("Gathered", null, null, null);
+        List<String> paged = new ArrayList<>();
+        Long cursor = null;
+        long previousId = 0;
+        do {
+            CustomerPageDto page = iAccountsService.searchAccounts(criteria, cursor, 7);
+            assertThat(page.getContent()).hasSizeLessThanOrEqualTo(7);
+            page.getContent().forEach(customerDto -> paged.add(customerDto.getMobileNumber()));
+            if (page.getNextCursor() != null) {
+                // El cursor avanza por customer_id en el conjunto de todos los shards.
+                assertThat(page.getNextCursor()).isGreaterThan(previousId);
+                previousId = page.getNextCursor();
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertThat(paged).containsExactlyInAnyOrderElementsOf(mobileNumbers);
+
+        List<String> exported = new ArrayList<>();
+        iAccountsService.exportAccounts(customerDto -> exported.add(customerDto.getMobileNumber()));
+        assertThat(exported).containsAll(mobileNumbers).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void requestStatsCountTheQueriesOfEveryShard() throws Exception {
+        List<String> mobileNumbers = create("55500010", 12, "Counted");
+        DistributionSummary statements = meterRegistry.find("accounts.request.sql.statements")
+                .tags("uri", "/api/fetch/batch").summary();
+        long countBefore = statements == null ? 0 : statements.count();
+        double totalBefore = statements == null ? 0 : statements.totalAmount();
+
+        mockMvc.perform(get("/api/fetch/batch").param("mobileNumbers", mobileNumbers.toArray(new String[0])))
+                .andExpect(status().isOk());
+
+        statements = meterRegistry.get("accounts.request.sql.statements").tags("uri", "/api/fetch/batch").summary();
+        assertThat(statements.count() - countBefore).isEqualTo(1);
+        // Una consulta por shard, ejecutadas en los hilos de ScatterGather.
+        assertThat(statements.totalAmount() - totalBefore).isEqualTo(SHARDS.size());
+    }
+
+    @Test
+    void bulkDeleteRemovesOnEveryShard() {
+        List<String> mobileNumbers = create("55500008", 12, "Deleted");
+        List<String> requested = new ArrayList<>(mobileNumbers);
+        requested.add("5550000899");
+        BulkDeleteResultDto result = iAccountsService.deleteAccounts(requested);
+        assertThat(result.getDeleted()).containsExactlyElementsOf(mobileNumbers);
+        assertThat(result.getNotFound()).containsExactly("5550000899");
+        for (int shard = 0; shard < SHARDS.size(); shard++) {
+            assertThat(count(shard, "select count(*) from customer where mobile_number like ?", "55500008%")).isZero();
+        }
+    }
+
+    @Test
+    void updateCannotMoveACustomerToAnotherShard() {
+        String mobileNumber = create("55500009", 1, "Moving").get(0);
+        String otherShardNumber = null;
+        for (int i = 10; otherShardNumber == null; i++) {
+            String candidate = "55500009" + i;
+            if (shardRouter.shardOf(candidate) != shardRouter.shardOf(mobileNumber)) {
+                otherShardNumber = candidate;
+            }
+        }
+        CustomerDto customerDto = iAccountsService.fetchAccount(mobileNumber);
+        customerDto.setName("Moved");
+        assertThat(iAccountsService.updateAccount(customerDto, null)).isTrue();
+        assertThat(iAccountsService.fetchAccount(mobileNumber).getName()).isEqualTo("Moved");
+
+        customerDto.setMobileNumber(otherShardNumber);
+        assertThatThrownBy(() -> iAccountsService.updateAccount(customerDto, null))
+                .isInstanceOf(CrossShardUpdateException.class);
+    }
+
+    @Test
+    void startupFailsWhenTheShardCountChanges() throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        HikariDataSource shard0 = pool(SHARD_0);
+        // Los mismos shards 0 y 1, configurados ahora como dos shards en lugar de tres.
+        try (shard0; ShardRoutingDataSource twoShards = new ShardRoutingDataSource(List.of(shard0, pool(SHARD_1)))) {
+            beanFactory.registerSingleton("shardRoutingDataSource", twoShards);
+            Flyway flyway = Flyway.configure().dataSource(shard0).load();
+            assertThatThrownBy(() -> new DataSourceConfig()
+                    .migrationStrategy(beanFactory.getBeanProvider(ShardRoutingDataSource.class)).migrate(flyway))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("created as shard 0 of 3 but 2 shards are configured");
+        }
+    }
+
+    /**
+     * Onboards the customers through the bulk path, which writes every shard in parallel.
+     */
+    private List<String> create(String prefix, int count, String name) {
+        List<CustomerDto> customers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CustomerDto customerDto = new CustomerDto();
+            customerDto.setName(name + " " + i);
+            customerDto.setEmail("shard" + i + "@example.com");
+            customerDto.setMobileNumber(prefix + String.format("%02d", i));
+            customers.add(customerDto);
+        }
+        List<BulkResultDto> results = new ArrayList<>();
+        iAccountsService.createAccounts(customers.iterator(), results::add);
+        assertThat(results).allSatisfy(result -> assertThat(result.getStatusCode()).isEqualTo("201"));
+        return customers.stream().map(CustomerDto::getMobileNumber).toList();
+    }
+
+    private static int count(int shard, String sql, String mobileNumber) {
+        Integer count = jdbcTemplate(shard).queryForObject(sql, Integer.class, mobileNumber);
+        return count == null ? 0 : count;
+    }
+
+    private static HikariDataSource pool(String url) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl(url);
+        pool.setUsername("sa");
+        pool.setPassword("");
+        return pool;
+    }
+
+    private static JdbcTemplate jdbcTemplate(int shard) {
+        return new JdbcTemplate(new DriverManagerDataSource(SHARDS.get(shard), "sa", ""));
+    }
+}